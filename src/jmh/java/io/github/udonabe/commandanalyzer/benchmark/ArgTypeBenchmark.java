@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.ParsedOptions;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link ArgType}ごとの引数変換の性能。
+ */
+@State(Scope.Thread)
+public class ArgTypeBenchmark {
+    @Param({"NONE", "STRING", "INTEGER", "DOUBLE", "BOOLEAN"})
+    ArgType type;
+
+    private String value;
+    private CommandOptions options;
+    private List<String> tokens;
+    private ParsedOptions reuse;
+    private ParsedOptions lazy;
+
+    @Setup
+    public void setUp() {
+        value = Schemas.value(type);
+        options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "value")),
+                        type,
+                        false,
+                        "Benchmark Option",
+                        "value"
+                ))
+                .build();
+        List<String> tokens = new ArrayList<>();
+        tokens.add("--value");
+        if (value != null) tokens.add(value);
+        this.tokens = List.copyOf(tokens);
+        reuse = options.newResult();
+        lazy = options.newResult(ParsedOptions.Conversion.LAZY);
+    }
+
+    @Benchmark
+    public ParseResult argTypeParse() throws OptionParseException {
+        return type.parse(value);
+    }
+
+    @Benchmark
+    public ParsedOptions parseInto() throws OptionParseException {
+        return options.parseInto(tokens, reuse);
+    }
+
+    @Benchmark
+    public ParsedOptions parseIntoLazy() throws OptionParseException {
+        return options.parseInto(tokens, lazy);
+    }
+}
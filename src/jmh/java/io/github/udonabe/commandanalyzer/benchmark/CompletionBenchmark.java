@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.CommandRegistry;
+import io.github.udonabe.commandanalyzer.command.Completer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+
+/**
+ * 大量のコマンドを登録した場合の、一回の補完の性能。
+ * 補完は一文字入力するごとに呼ばれるため、コマンドの数に依存しないことを確かめる。
+ */
+@State(Scope.Thread)
+public class CompletionBenchmark {
+    @Param({"100", "10000"})
+    int commandCount;
+
+    private Completer completer;
+    private List<String> command;
+    private List<String> option;
+
+    @Setup
+    public void setUp() {
+        CommandRegistry.Builder builder = CommandRegistry.builder();
+        for (CommandOptions options : Schemas.catalog(commandCount, 20)) {
+            builder.register(options);
+        }
+        completer = Completer.builder(builder.build()).build();
+        command = List.of("cmd" + commandCount / 20);
+        option = List.of("cmd" + commandCount / 2, "-o1", "8080", "--option1");
+        // 表示名のトライ木は初回の補完で生成するため、先に生成しておく
+        completer.complete(option);
+    }
+
+    /**
+     * サブコマンドの表示名を補完する。候補は常に11個以下。
+     */
+    @Benchmark
+    public List<String> command() {
+        return completer.complete(command);
+    }
+
+    /**
+     * オプションの表示名を補完する。
+     */
+    @Benchmark
+    public List<String> option() {
+        return completer.complete(option);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.daemon.ParseClient;
+import io.github.udonabe.commandanalyzer.daemon.ParseDaemon;
+import io.github.udonabe.commandanalyzer.daemon.ParseReply;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * デーモンに一回パースを依頼する往復の性能。JVMを起動してスキーマを生成する時間と比べる。
+ */
+@State(Scope.Thread)
+public class DaemonBenchmark {
+    @Param({"10", "100"})
+    int schemaSize;
+
+    private Path directory;
+    private ParseDaemon daemon;
+    private ParseClient client;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("daemon-benchmark");
+        Path socket = directory.resolve("parse.sock");
+        daemon = ParseDaemon.builder(socket).schema("bench", Schemas.options(schemaSize)).start();
+        client = ParseClient.connect(socket);
+        tokens = Schemas.tokens(schemaSize, 5);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        daemon.close();
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public ParseReply roundTrip() throws IOException {
+        return client.parse("bench", tokens);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.ParseOutcome;
+import io.github.udonabe.commandanalyzer.command.ParsedOptions;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link OptionParseException}が発生する入力のパース性能。
+ */
+@State(Scope.Thread)
+public class ErrorBenchmark {
+    @Param({"UNKNOWN_OPTION", "INVALID_INTEGER", "MISSING_ARGUMENT", "MISSING_REQUIRED", "EXCLUSIVE_CONFLICT"})
+    String error;
+
+    private CommandOptions options;
+    private List<String> tokens;
+    private ParsedOptions reuse;
+
+    @Setup
+    public void setUp() {
+        options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "port")),
+                        ArgType.INTEGER, false, "Benchmark Integer Option", "port"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "name")),
+                        ArgType.STRING, true, "Benchmark Required Option", "name"))
+                .option(Option.normalOption(
+                        Set.of(
+                                new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "a"),
+                                new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "b")
+                        ),
+                        ArgType.NONE, false, "Benchmark Exclusive Option", "which").toExclusive())
+                .build();
+        tokens = switch (error) {
+            case "UNKNOWN_OPTION" -> List.of("--name", "x", "-a", "--unknown");
+            case "INVALID_INTEGER" -> List.of("--name", "x", "-a", "--port", "80a");
+            case "MISSING_ARGUMENT" -> List.of("--name", "x", "-a", "--port");
+            case "MISSING_REQUIRED" -> List.of("-a", "--port", "80");
+            case "EXCLUSIVE_CONFLICT" -> List.of("--name", "x", "-a", "-b");
+            default -> throw new IllegalArgumentException(error);
+        };
+        reuse = options.newResult();
+    }
+
+    @Benchmark
+    public OptionParseException parse() {
+        try {
+            options.parse(tokens);
+        } catch (OptionParseException e) {
+            return e;
+        }
+        throw new AssertionError("例外が発生しませんでした。");
+    }
+
+    /**
+     * 例外を生成しない場合。メッセージは組み立てない。
+     */
+    @Benchmark
+    public ParseOutcome tryParseInto() {
+        return options.tryParseInto(tokens, reuse);
+    }
+}
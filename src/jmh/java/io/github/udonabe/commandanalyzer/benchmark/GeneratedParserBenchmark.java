@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.ParsedOptions;
+import io.github.udonabe.commandanalyzer.command.ResultBinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * アノテーションから生成したパーサーと、同じ内容の{@link CommandOptions}のパース性能。
+ * {@link ServerCommand}を得るまでの、パース結果の詰め方ごとの性能も比べる。
+ */
+@State(Scope.Thread)
+public class GeneratedParserBenchmark {
+    private final CommandOptions options = ServerCommandParser.commandOptions();
+    private final ParsedOptions reuse = options.newResult();
+    private final ResultBinder<ServerCommand> binder = options.binder(ServerCommand.class, MethodHandles.lookup());
+    private final List<String> tokens = List.of("-p", "8080", "--host=localhost", "-vd", "--ratio", "0.75", "-t8", "target");
+
+    @Benchmark
+    public ServerCommand generated() throws OptionParseException {
+        return ServerCommandParser.parse(tokens);
+    }
+
+    @Benchmark
+    public Map<String, ParseResult> parse() throws OptionParseException {
+        return options.parse(tokens);
+    }
+
+    @Benchmark
+    public ParsedOptions parseInto() throws OptionParseException {
+        return options.parseInto(tokens, reuse);
+    }
+
+    /**
+     * 管理名で一つずつ取り出して詰める。
+     */
+    @Benchmark
+    public ServerCommand parseAndCopy() throws OptionParseException {
+        Map<String, ParseResult> result = options.parse(tokens);
+        return new ServerCommand(
+                result.get("port").rInt(),
+                result.containsKey("host") ? result.get("host").rString() : null,
+                result.containsKey("verbose") && result.get("verbose").rBoolean(),
+                result.containsKey("daemon") && result.get("daemon").rBoolean(),
+                result.containsKey("ratio") ? result.get("ratio").rDouble() : 0.0,
+                result.containsKey("threads") ? result.get("threads").rInt() : 0,
+                result.get("target").rString()
+        );
+    }
+
+    @Benchmark
+    public ServerCommand bind() throws OptionParseException {
+        return binder.parse(tokens, reuse);
+    }
+}
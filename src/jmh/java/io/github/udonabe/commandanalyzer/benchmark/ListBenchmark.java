@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.OptionKey;
+import io.github.udonabe.commandanalyzer.command.ParsedOptions;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 繰り返し指定された数値を、リスト型で受け取る性能。
+ * 文字列のリストで受け取ってから{@link Integer}のリストに変換する場合と比べる。
+ */
+@State(Scope.Thread)
+public class ListBenchmark {
+    @Param({"10", "1000"})
+    int count;
+
+    private List<String> tokens;
+    private CommandOptions ints;
+    private OptionKey<int[]> intKey;
+    private ParsedOptions intResult;
+    private CommandOptions strings;
+    private OptionKey<String[]> stringKey;
+    private ParsedOptions stringResult;
+
+    @Setup
+    public void setUp() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add("--id");
+            tokens.add(String.valueOf(i * 7919));
+        }
+        this.tokens = List.copyOf(tokens);
+
+        CommandOptions.Generator generator = CommandOptions.generator(null);
+        intKey = generator.optionKey(option(ArgType.INTEGER_LIST), int[].class);
+        ints = generator.build();
+        intResult = ints.newResult();
+
+        generator = CommandOptions.generator(null);
+        stringKey = generator.optionKey(option(ArgType.STRING_LIST), String[].class);
+        strings = generator.build();
+        stringResult = strings.newResult();
+    }
+
+    private static Option option(ArgType type) {
+        return Option.normalOption(Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "id")), type, false, null, "ids");
+    }
+
+    @Benchmark
+    public long intList() throws OptionParseException {
+        ints.parseInto(tokens, intResult);
+        long sum = 0;
+        for (int i = 0, n = intResult.size(intKey); i < n; i++) {
+            sum += intResult.getIntAt(intKey, i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long boxedList() throws OptionParseException {
+        strings.parseInto(tokens, stringResult);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0, n = stringResult.size(stringKey); i < n; i++) {
+            ids.add(Integer.parseInt(stringResult.getStringAt(stringKey, i)));
+        }
+        long sum = 0;
+        for (int id : ids) {
+            sum += id;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * サブコマンド・オプション・位置引数の組み合わせごとのパース性能。
+ */
+@State(Scope.Thread)
+public class MixBenchmark {
+    @Param({"SUBCOMMAND", "OPTIONS", "POSITIONAL", "MIXED"})
+    String mix;
+
+    private CommandOptions options;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() {
+        Option subCommand = Option.subCommand(Set.of("run", "exec"), "Benchmark Sub Command", "mode");
+        switch (mix) {
+            case "SUBCOMMAND" -> {
+                options = CommandOptions.generator(subCommand).build();
+                tokens = List.of("run");
+            }
+            case "OPTIONS" -> {
+                options = Schemas.options(10);
+                tokens = Schemas.tokens(10, 5);
+            }
+            case "POSITIONAL" -> {
+                CommandOptions.Generator generator = CommandOptions.generator(null);
+                for (int i = 0; i < 5; i++) {
+                    generator.argument(Option.argument(ArgType.STRING, "Benchmark Argument " + i, "arg" + i));
+                }
+                options = generator.build();
+                tokens = List.of("a", "b", "c", "d", "e");
+            }
+            case "MIXED" -> {
+                CommandOptions.Generator generator = CommandOptions.generator(subCommand);
+                for (int i = 0; i < 10; i++) {
+                    generator.option(Schemas.option(i));
+                }
+                generator.argument(Option.argument(ArgType.STRING, "Benchmark Source", "source"));
+                generator.argument(Option.argument(ArgType.INTEGER, "Benchmark Count", "count"));
+                options = generator.build();
+                tokens = List.of("exec", "-o0", "--option1", "8080", "-o2", "value", "--", "-source", "3");
+            }
+            default -> throw new IllegalArgumentException(mix);
+        }
+    }
+
+    @Benchmark
+    public Map<String, ParseResult> parse() throws OptionParseException {
+        return options.parse(tokens);
+    }
+}
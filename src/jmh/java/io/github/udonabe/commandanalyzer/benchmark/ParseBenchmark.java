@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.ParsedOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * スキーマの大きさと、指定するオプションの数ごとのパース性能。
+ */
+@State(Scope.Thread)
+public class ParseBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    int schemaSize;
+
+    @Param({"1", "8", "32"})
+    int suppliedOptions;
+
+    private CommandOptions options;
+    private List<String> tokens;
+    private String line;
+    private ParsedOptions reuse;
+
+    @Setup
+    public void setUp() {
+        options = Schemas.options(schemaSize);
+        tokens = Schemas.tokens(schemaSize, suppliedOptions);
+        line = String.join(" ", tokens);
+        reuse = options.newResult();
+    }
+
+    @Benchmark
+    public Map<String, ParseResult> parse() throws OptionParseException {
+        return options.parse(tokens);
+    }
+
+    @Benchmark
+    public ParsedOptions parseIndexed() throws OptionParseException {
+        return options.parseIndexed(tokens);
+    }
+
+    @Benchmark
+    public ParsedOptions parseInto() throws OptionParseException {
+        return options.parseInto(tokens, reuse);
+    }
+
+    @Benchmark
+    public ParsedOptions parseLineInto() throws OptionParseException {
+        return options.parseInto(line, reuse);
+    }
+}
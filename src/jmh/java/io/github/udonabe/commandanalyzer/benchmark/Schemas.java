@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ベンチマークで使うスキーマとトークン列を生成するクラス。
+ */
+final class Schemas {
+    private static final ArgType[] TYPES = {ArgType.NONE, ArgType.INTEGER, ArgType.STRING, ArgType.DOUBLE, ArgType.BOOLEAN};
+
+    private Schemas() {
+    }
+
+    static ArgType type(int index) {
+        return TYPES[index % TYPES.length];
+    }
+
+    /**
+     * 「-o{i}」「--option{i}」を表示名に持つオプションを生成する。型は順番に割り当てる。
+     */
+    static Option option(int index) {
+        return Option.normalOption(
+                Set.of(
+                        new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "o" + index),
+                        new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "option" + index)
+                ),
+                type(index),
+                false,
+                "Benchmark Option " + index,
+                "option" + index
+        );
+    }
+
+    /**
+     * @param count オプションの数。
+     * @return 普通のオプションだけを持つスキーマ
+     */
+    static CommandOptions options(int count) {
+        CommandOptions.Generator generator = CommandOptions.generator(null);
+        for (int i = 0; i < count; i++) {
+            generator.option(option(i));
+        }
+        return generator.build();
+    }
+
+    /**
+     * プラグインなどで大量のコマンドを登録する場合を想定した一覧を生成する。
+     * 各コマンドは、サブコマンド「cmd{i}」と、{@code optionCount}個のオプション、二つの位置引数を持つ。
+     *
+     * @param count       コマンドの数。
+     * @param optionCount コマンドごとのオプションの数。
+     * @return 生成した一覧
+     */
+    static List<CommandOptions> catalog(int count, int optionCount) {
+        List<CommandOptions> catalog = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            CommandOptions.Generator generator = CommandOptions.generator(
+                    Option.subCommand(Set.of("cmd" + c), "Benchmark Command " + c, "command"));
+            for (int i = 0; i < optionCount; i++) {
+                generator.option(option(i));
+            }
+            generator.argument(Option.argument(ArgType.STRING, "Benchmark Source", "source"));
+            generator.argument(Option.argument(ArgType.STRING, "Benchmark Target", "target"));
+            catalog.add(generator.build());
+        }
+        return catalog;
+    }
+
+    /**
+     * スキーマ全体に散らばるように、{@code supplied}個のオプションを指定するトークン列を生成する。
+     *
+     * @param count    スキーマのオプションの数。
+     * @param supplied 指定するオプションの数。{@code count}より大きい場合は{@code count}にする。
+     * @return 生成したトークン列
+     */
+    static List<String> tokens(int count, int supplied) {
+        int actual = Math.min(count, supplied);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < actual; i++) {
+            int index = (int) ((long) i * count / actual);
+            tokens.add((i & 1) == 0 ? "-o" + index : "--option" + index);
+            String value = value(type(index));
+            if (value != null) tokens.add(value);
+        }
+        return List.copyOf(tokens);
+    }
+
+    /**
+     * @return 型に合った引数の例。引数を取らない場合は{@code null}
+     */
+    static String value(ArgType type) {
+        return switch (type) {
+            case NONE -> null;
+            case INTEGER, INTEGER_LIST -> "8080";
+            case STRING, STRING_LIST -> "value";
+            case DOUBLE, DOUBLE_LIST -> "0.75";
+            case BOOLEAN -> "true";
+        };
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.annotation.ArgumentSpec;
+import io.github.udonabe.commandanalyzer.annotation.CommandSpec;
+import io.github.udonabe.commandanalyzer.annotation.OptionSpec;
+
+/**
+ * {@link GeneratedParserBenchmark}で使う、パーサーを生成するコマンド。
+ */
+@CommandSpec
+public record ServerCommand(
+        @OptionSpec(value = {"-p", "--port"}, required = true) int port,
+        @OptionSpec({"-H", "--host"}) String host,
+        @OptionSpec({"-v", "--verbose"}) boolean verbose,
+        @OptionSpec({"-d", "--daemon"}) boolean daemon,
+        @OptionSpec({"--ratio"}) double ratio,
+        @OptionSpec({"-t", "--threads"}) int threads,
+        @ArgumentSpec String target
+) {
+}
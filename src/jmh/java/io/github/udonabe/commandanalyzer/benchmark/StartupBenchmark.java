@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.SchemaImage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 起動時に大量のコマンドを用意する時間。
+ * JITによる最適化が効く前の時間を測るため、フォークごとに一回だけ実行する。
+ * build: {@link CommandOptions.Generator}で生成する。load: {@link SchemaImage}で保存したファイルから読み込む。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+    private static final int OPTION_COUNT = 20;
+
+    @Param({"100", "2000"})
+    int catalogSize;
+
+    private Path image;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) throws IOException, InterruptedException {
+        if (!params.getBenchmark().endsWith("load")) return;
+        image = Files.createTempFile("command-analyzer", ".bin");
+        // 同じフォークで書き込むとbuildの処理でクラスの読み込み・JITが済んでしまうため、別のJVMで書き込む
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                WriteImage.class.getName(), image.toString(), Integer.toString(catalogSize))
+                .inheritIO()
+                .start();
+        if (process.waitFor() != 0) throw new IOException("スキーマファイルを書き込めませんでした。");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (image != null) Files.delete(image);
+    }
+
+    @Benchmark
+    public List<CommandOptions> build() {
+        return Schemas.catalog(catalogSize, OPTION_COUNT);
+    }
+
+    @Benchmark
+    public List<CommandOptions> load() throws IOException {
+        return SchemaImage.load(image);
+    }
+
+    /**
+     * loadで読み込むファイルを、計測するフォークとは別のJVMで書き込む。
+     * 引数は、書き込み先とコマンドの数。
+     */
+    public static final class WriteImage {
+        public static void main(String[] args) throws IOException {
+            SchemaImage.write(Schemas.catalog(Integer.parseInt(args[1]), OPTION_COUNT), Path.of(args[0]));
+        }
+    }
+}
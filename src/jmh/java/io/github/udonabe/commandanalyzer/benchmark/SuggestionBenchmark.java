@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.benchmark;
+
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.ParseOutcome;
+import io.github.udonabe.commandanalyzer.command.ParsedOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+
+/**
+ * 不明なオプションに対して、近い表示名を探す性能。
+ * スキーマの表示名の数は、オプションの数の2倍になる。
+ */
+@State(Scope.Thread)
+public class SuggestionBenchmark {
+    @Param({"10", "100", "1000", "5000"})
+    int schemaSize;
+
+    /**
+     * TYPO: 表示名の一文字を入れ替えた入力。UNRELATED: どの表示名とも離れた入力。
+     */
+    @Param({"TYPO", "UNRELATED"})
+    String input;
+
+    private CommandOptions options;
+    private List<String> tokens;
+    private ParsedOptions reuse;
+
+    @Setup
+    public void setUp() {
+        options = Schemas.options(schemaSize);
+        reuse = options.newResult();
+        tokens = switch (input) {
+            case "TYPO" -> List.of("--optoin" + schemaSize / 2);
+            case "UNRELATED" -> List.of("--verbose-output");
+            default -> throw new IllegalArgumentException(input);
+        };
+    }
+
+    @Benchmark
+    public ParseError suggest() {
+        return ((ParseOutcome.Failure) options.tryParseInto(tokens, reuse)).error();
+    }
+}
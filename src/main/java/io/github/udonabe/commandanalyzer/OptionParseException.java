@@ -10,13 +10,40 @@ package io.github.udonabe.commandanalyzer;
 
 /**
  * 当てはまるOptionが見つからなかったことを表す例外。
+ * 入力の誤りは頻繁に起こるため、スタックトレースは取得しない。
  */
 public class OptionParseException extends Exception {
+    /**
+     * 失敗の理由。メッセージだけを指定して生成した場合は{@code null}。
+     */
+    private final ParseError error;
+
     public OptionParseException(String message) {
-        super(message);
+        this(message, null);
     }
 
     public OptionParseException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, true, false);
+        this.error = null;
+    }
+
+    /**
+     * メッセージは、{@link #getMessage()}で読み出されたときに生成する。
+     */
+    public OptionParseException(ParseError error) {
+        super(null, null, true, false);
+        this.error = error;
+    }
+
+    /**
+     * @return 失敗の理由。メッセージだけを指定して生成した場合は{@code null}。
+     */
+    public ParseError getError() {
+        return error;
+    }
+
+    @Override
+    public String getMessage() {
+        return error == null ? super.getMessage() : error.message();
     }
 }
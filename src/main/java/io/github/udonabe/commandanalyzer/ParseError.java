@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer;
+
+import io.github.udonabe.commandanalyzer.option.Option;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * パースに失敗した理由。
+ * メッセージは、{@link #message()}で読み出されたときに初めて生成する。
+ *
+ * @param code        失敗の種類。
+ * @param tokenIndex  原因になったトークンの位置。特定のトークンに依らない場合は-1。
+ * @param option      原因になったオプション。特定できない場合は{@code null}。
+ * @param input       原因になった入力値。無い場合は{@code null}。
+ * @param suggestions 入力値に近い表示名。近い順に並べる。
+ */
+public record ParseError(@NonNull Code code, int tokenIndex, Option option, String input, @NonNull List<String> suggestions) {
+    public ParseError {
+        suggestions = List.copyOf(suggestions);
+    }
+
+    public ParseError(Code code, int tokenIndex, Option option, String input) {
+        this(code, tokenIndex, option, input, List.of());
+    }
+
+    /**
+     * @return 利用者向けのメッセージ
+     */
+    public String message() {
+        return switch (code) {
+            case MISSING_SUBCOMMAND -> option != null
+                    ? "サブコマンドがありません。入力候補: " + option.displays() + suggestionMessage()
+                    : "サブコマンドがありません。" + (input == null ? "" : " 入力値: " + input) + suggestionMessage();
+            case UNEXPECTED_ARGUMENT -> "不要な引数があります。";
+            case EXCLUSIVE_CONFLICT -> "排他グループが重複指定されています: " + input;
+            case UNKNOWN_OPTION -> "不明なオプション:" + input + suggestionMessage();
+            case MISSING_ARGUMENT -> "引数がありません。 オプション: " + option.getFullDisplays();
+            case INVALID_ARGUMENT -> "引数にエラーがあります。入力値: " + input + ", 管理名: " + option.managementName();
+            case MISSING_POSITIONAL -> "全ての位置引数を指定してください。";
+            case MISSING_REQUIRED -> "必須オプションが指定されていません。";
+            case UNCLOSED_SINGLE_QUOTE -> "シングルクォートが閉じられていません。";
+            case UNCLOSED_DOUBLE_QUOTE -> "ダブルクォートが閉じられていません。";
+        };
+    }
+
+    private String suggestionMessage() {
+        return suggestions.isEmpty() ? "" : " もしかして: " + String.join(", ", suggestions);
+    }
+
+    /**
+     * @return この失敗を表す例外
+     */
+    public OptionParseException toException() {
+        return new OptionParseException(this);
+    }
+
+    public enum Code {
+        /**
+         * サブコマンドが一致しない。
+         */
+        MISSING_SUBCOMMAND,
+        /**
+         * 位置引数が多すぎる。
+         */
+        UNEXPECTED_ARGUMENT,
+        /**
+         * 排他グループの表示名が、複数指定された。
+         */
+        EXCLUSIVE_CONFLICT,
+        /**
+         * 表示名が一致しないか、同じオプションが複数指定された。
+         */
+        UNKNOWN_OPTION,
+        /**
+         * オプションの引数が無い。
+         */
+        MISSING_ARGUMENT,
+        /**
+         * 引数の型が異なる。
+         */
+        INVALID_ARGUMENT,
+        /**
+         * 位置引数が足りない。
+         */
+        MISSING_POSITIONAL,
+        /**
+         * 必須オプションが指定されていない。
+         */
+        MISSING_REQUIRED,
+        /**
+         * 一行のコマンドで、シングルクォートが閉じられていない。
+         */
+        UNCLOSED_SINGLE_QUOTE,
+        /**
+         * 一行のコマンドで、ダブルクォートが閉じられていない。
+         */
+        UNCLOSED_DOUBLE_QUOTE
+    }
+}
@@ -10,6 +10,9 @@ package io.github.udonabe.commandanalyzer;
 
 import lombok.Builder;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * オプションをパースした結果。
  * 不要なオプションは、代入されず初期値のままになる。
@@ -19,9 +22,42 @@ import lombok.Builder;
  * @param rDouble  オプションの引数として受け取った倍精度浮動小数点数。
  * @param rString  オプションの引数として受け取った文字列。
  * @param rWhich   オプションを選択した結果。選択されたオプションのnameが代入される。
+ * @param rInts    {@link io.github.udonabe.commandanalyzer.option.ArgType#INTEGER_LIST}で受け取った整数。指定された順に並ぶ。
+ * @param rDoubles {@link io.github.udonabe.commandanalyzer.option.ArgType#DOUBLE_LIST}で受け取った倍精度浮動小数点数。
+ * @param rStrings {@link io.github.udonabe.commandanalyzer.option.ArgType#STRING_LIST}で受け取った文字列。
+ *                 配列は生成時と読み出し時にコピーするため、読み出した配列を変更しても結果は変わらない。
  */
 @Builder
-public record ParseResult(int rInt, boolean rBoolean, double rDouble, String rString, String rWhich, String rSubCommand, boolean present) {
+public record ParseResult(int rInt, boolean rBoolean, double rDouble, String rString, String rWhich, String rSubCommand, boolean present,
+                          int[] rInts, double[] rDoubles, String[] rStrings) {
+    public ParseResult {
+        rInts = rInts == null ? null : rInts.clone();
+        rDoubles = rDoubles == null ? null : rDoubles.clone();
+        rStrings = rStrings == null ? null : rStrings.clone();
+    }
+
+    /**
+     * リスト型の値を持たない結果を生成する。
+     */
+    public ParseResult(int rInt, boolean rBoolean, double rDouble, String rString, String rWhich, String rSubCommand, boolean present) {
+        this(rInt, rBoolean, rDouble, rString, rWhich, rSubCommand, present, null, null, null);
+    }
+
+    @Override
+    public int[] rInts() {
+        return rInts == null ? null : rInts.clone();
+    }
+
+    @Override
+    public double[] rDoubles() {
+        return rDoubles == null ? null : rDoubles.clone();
+    }
+
+    @Override
+    public String[] rStrings() {
+        return rStrings == null ? null : rStrings.clone();
+    }
+
     public int orElseInt(int def) {
         return present() ? rInt : def;
     }
@@ -41,4 +77,43 @@ public record ParseResult(int rInt, boolean rBoolean, double rDouble, String rSt
     public String orElseSubCommand(String def) {
         return present() ? rSubCommand : def;
     }
+
+    public int[] orElseInts(int[] def) {
+        return present() ? rInts() : def;
+    }
+
+    public double[] orElseDoubles(double[] def) {
+        return present() ? rDoubles() : def;
+    }
+
+    public String[] orElseStrings(String[] def) {
+        return present() ? rStrings() : def;
+    }
+
+    /**
+     * 配列は、内容で比較する。
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ParseResult that)) return false;
+        return rInt == that.rInt && rBoolean == that.rBoolean && Double.compare(rDouble, that.rDouble) == 0
+               && present == that.present && Objects.equals(rString, that.rString) && Objects.equals(rWhich, that.rWhich)
+               && Objects.equals(rSubCommand, that.rSubCommand) && Arrays.equals(rInts, that.rInts)
+               && Arrays.equals(rDoubles, that.rDoubles) && Arrays.equals(rStrings, that.rStrings);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(rInt, rBoolean, rDouble, rString, rWhich, rSubCommand, present);
+        result = 31 * result + Arrays.hashCode(rInts);
+        result = 31 * result + Arrays.hashCode(rDoubles);
+        return 31 * result + Arrays.hashCode(rStrings);
+    }
+
+    @Override
+    public String toString() {
+        return "ParseResult[rInt=" + rInt + ", rBoolean=" + rBoolean + ", rDouble=" + rDouble + ", rString=" + rString
+               + ", rWhich=" + rWhich + ", rSubCommand=" + rSubCommand + ", present=" + present
+               + ", rInts=" + Arrays.toString(rInts) + ", rDoubles=" + Arrays.toString(rDoubles) + ", rStrings=" + Arrays.toString(rStrings) + "]";
+    }
 }
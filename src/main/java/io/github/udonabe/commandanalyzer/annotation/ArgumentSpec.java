@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 位置引数にする構成要素・フィールドに付ける。宣言した順に、位置引数の順番になる。
+ * 型は{@code int}・{@code double}・{@code String}・{@code boolean}のどれか。
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.RECORD_COMPONENT, ElementType.FIELD})
+public @interface ArgumentSpec {
+    String description() default "";
+}
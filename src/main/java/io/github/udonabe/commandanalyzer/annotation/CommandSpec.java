@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * コンパイル時にパーサーを生成するレコード・クラスに付ける。
+ * {@link CommandSpecProcessor}が、同じパッケージに「型名+Parser」という名前のパーサーを生成する。
+ * 入れ子の型の場合は、外側の型名と「_」でつなげた名前になる。
+ * <p>
+ * レコードの場合は、全ての構成要素に{@link OptionSpec}・{@link ArgumentSpec}・{@link SubCommandSpec}のどれかを付ける。
+ * クラスの場合は、引数の無いコンストラクタを持ち、これらを付けたフィールドが{@code private}・{@code final}でないこと。
+ * 生成したパーサーはリフレクションを使わないため、ネイティブイメージでもそのまま使える。
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface CommandSpec {
+}
@@ -0,0 +1,647 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.annotation;
+
+import io.github.udonabe.commandanalyzer.option.ArgType;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * {@link CommandSpec}を付けた型ごとに、専用のパーサーを生成するアノテーションプロセッサ。
+ * <p>
+ * 生成したパーサーは、表示名を{@code switch}で照合し、変換した値を直接フィールドに代入する。
+ * リフレクションや実行時のスキーマ構築は行わない。
+ * トークンの扱い・{@link ArgType}ごとの変換・失敗したときの{@link io.github.udonabe.commandanalyzer.ParseError}は、
+ * {@link io.github.udonabe.commandanalyzer.command.CommandOptions#parse(List)}と同じにしている。
+ * ただし、不明なオプションに近い表示名の候補は出さない。
+ * 同じ内容の{@link io.github.udonabe.commandanalyzer.command.CommandOptions}も、{@code commandOptions()}で生成できる。
+ */
+@SupportedAnnotationTypes("io.github.udonabe.commandanalyzer.annotation.CommandSpec")
+public class CommandSpecProcessor extends AbstractProcessor {
+    /**
+     * 指定済みのオプションを{@code long}のビット集合で記録するため、序数はこれ未満にする。
+     */
+    private static final int MAX_MEMBERS = 64;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (Element element : round.getElementsAnnotatedWith(CommandSpec.class)) {
+            if (element.getKind() != ElementKind.RECORD && element.getKind() != ElementKind.CLASS) {
+                error(element, "@CommandSpecは、レコードかクラスに付けてください。");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<Member> members = members(type);
+            if (members == null) continue;
+
+            try {
+                String name = parserName(type);
+                String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+                String qualified = packageName.isEmpty() ? name : packageName + "." + name;
+                try (Writer writer = processingEnv.getFiler().createSourceFile(qualified, type).openWriter()) {
+                    writer.write(new Source(type, packageName, name, members).generate());
+                }
+            } catch (IOException e) {
+                error(type, "パーサーを生成できませんでした: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 序数順に並べたメンバー。不正な場合はエラーを報告して{@code null}。
+     */
+    private List<Member> members(TypeElement type) {
+        if (!checkAccessible(type)) return null;
+
+        List<? extends Element> candidates;
+        if (type.getKind() == ElementKind.RECORD) {
+            candidates = type.getRecordComponents();
+        } else {
+            if (!checkConstructor(type)) return null;
+            candidates = ElementFilter.fieldsIn(type.getEnclosedElements());
+        }
+
+        Member subCommand = null;
+        List<Member> members = new ArrayList<>();
+        Set<String> displays = new HashSet<>();
+        boolean valid = true;
+        for (Element candidate : candidates) {
+            SubCommandSpec sub = candidate.getAnnotation(SubCommandSpec.class);
+            OptionSpec option = candidate.getAnnotation(OptionSpec.class);
+            ArgumentSpec argument = candidate.getAnnotation(ArgumentSpec.class);
+            int count = (sub == null ? 0 : 1) + (option == null ? 0 : 1) + (argument == null ? 0 : 1);
+            if (count == 0) {
+                if (type.getKind() == ElementKind.RECORD) {
+                    error(candidate, "レコードの全ての構成要素に、@OptionSpec・@ArgumentSpec・@SubCommandSpecのどれかを付けてください。");
+                    valid = false;
+                }
+                continue;
+            }
+            if (count > 1) {
+                error(candidate, "@OptionSpec・@ArgumentSpec・@SubCommandSpecは、一つだけ付けてください。");
+                valid = false;
+                continue;
+            }
+            if (type.getKind() == ElementKind.CLASS) {
+                Set<Modifier> modifiers = candidate.getModifiers();
+                if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+                    error(candidate, "フィールドは、private・final・staticにしないでください。");
+                    valid = false;
+                    continue;
+                }
+            }
+
+            String name = candidate.getSimpleName().toString();
+            String javaType = javaType(candidate.asType());
+            if (javaType == null) {
+                error(candidate, "型は、int・double・String・booleanのどれかにしてください。");
+                valid = false;
+                continue;
+            }
+
+            if (sub != null) {
+                if (subCommand != null) {
+                    error(candidate, "@SubCommandSpecは、一つの型に一つだけ付けられます。");
+                    valid = false;
+                } else if (!javaType.equals("String")) {
+                    error(candidate, "@SubCommandSpecを付ける場合、型はStringにしてください。");
+                    valid = false;
+                } else {
+                    valid &= checkDisplays(candidate, sub.value(), false, displays);
+                    subCommand = new Member(name, Kind.SUBCOMMAND, ArgType.NONE, javaType, true, sub.description(), List.of(sub.value()));
+                }
+            } else if (option != null) {
+                valid &= checkDisplays(candidate, option.value(), true, displays);
+                if (option.argument() && !javaType.equals("boolean")) {
+                    error(candidate, "argumentは、型がbooleanの場合だけ指定できます。");
+                    valid = false;
+                }
+                ArgType argType = switch (javaType) {
+                    case "int" -> ArgType.INTEGER;
+                    case "double" -> ArgType.DOUBLE;
+                    case "String" -> ArgType.STRING;
+                    default -> option.argument() ? ArgType.BOOLEAN : ArgType.NONE;
+                };
+                members.add(new Member(name, Kind.OPTION, argType, javaType, option.required(), option.description(), List.of(option.value())));
+            } else {
+                ArgType argType = switch (javaType) {
+                    case "int" -> ArgType.INTEGER;
+                    case "double" -> ArgType.DOUBLE;
+                    case "String" -> ArgType.STRING;
+                    default -> ArgType.BOOLEAN;
+                };
+                members.add(new Member(name, Kind.ARGUMENT, argType, javaType, true, argument.description(), List.of()));
+            }
+        }
+        if (subCommand != null) members.add(0, subCommand);
+
+        if (members.isEmpty()) {
+            error(type, "オプション・位置引数・サブコマンドが一つもありません。");
+            valid = false;
+        }
+        if (members.size() > MAX_MEMBERS) {
+            error(type, "オプション・位置引数・サブコマンドは、合わせて" + MAX_MEMBERS + "個までです。");
+            valid = false;
+        }
+        return valid ? members : null;
+    }
+
+    private boolean checkAccessible(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement t; e = e.getEnclosingElement()) {
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "@CommandSpecを付けた型と、それを囲む型は、privateにしないでください。");
+                return false;
+            }
+            if (t.getNestingKind() == NestingKind.MEMBER && t.getKind() == ElementKind.CLASS && !t.getModifiers().contains(Modifier.STATIC)) {
+                error(type, "入れ子のクラスは、staticにしてください。");
+                return false;
+            }
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                error(type, "ローカルクラス・匿名クラスには、@CommandSpecを付けられません。");
+                return false;
+            }
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(type, "抽象クラスには、@CommandSpecを付けられません。");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean checkConstructor(TypeElement type) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) return true;
+        }
+        error(type, "クラスには、privateでない引数の無いコンストラクタを用意してください。");
+        return false;
+    }
+
+    /**
+     * 表示名を検査する。
+     *
+     * @param prefixed プレフィックスが必要かどうか。
+     * @param seen     既に使われた表示名。
+     */
+    private boolean checkDisplays(Element element, String[] displays, boolean prefixed, Set<String> seen) {
+        if (displays.length == 0) {
+            error(element, "表示名を一つ以上指定してください。");
+            return false;
+        }
+        for (String display : displays) {
+            if (prefixed ? prefixLength(display) < 0 || prefixLength(display) == display.length() : display.isEmpty()) {
+                error(element, prefixed
+                        ? "表示名は、「-」「--」「/」のどれかと名前を続けてください。表示名: " + display
+                        : "サブコマンドの名前を空にしないでください。");
+                return false;
+            }
+            if (!seen.add(display)) {
+                error(element, "既に同じ表示名が使われています。表示名: " + display);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return プレフィックスの長さ。プレフィックスが無い場合は-1。
+     */
+    private static int prefixLength(String display) {
+        if (display.startsWith("--")) return 2;
+        if (display.startsWith("-") || display.startsWith("/")) return 1;
+        return -1;
+    }
+
+    /**
+     * @return ソースコードに書く型名。対応していない型の場合は{@code null}。
+     */
+    private static String javaType(TypeMirror type) {
+        return switch (type.getKind()) {
+            case INT -> "int";
+            case DOUBLE -> "double";
+            case BOOLEAN -> "boolean";
+            case DECLARED -> type.toString().equals("java.lang.String") ? "String" : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return 生成するパーサーの単純名。入れ子の型は、外側の型名と「_」でつなげる。
+     */
+    private static String parserName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); e instanceof TypeElement t; e = e.getEnclosingElement()) {
+            name.insert(0, t.getSimpleName() + "_");
+        }
+        return name.append("Parser").toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private enum Kind {
+        SUBCOMMAND,
+        OPTION,
+        ARGUMENT
+    }
+
+    /**
+     * @param name        構成要素・フィールドの名前。管理名にもなる。
+     * @param displays    プレフィックスを含む表示名。サブコマンドの場合は名前。
+     */
+    private record Member(String name, Kind kind, ArgType type, String javaType, boolean required,
+                          String description, List<String> displays) {
+    }
+
+    /**
+     * 一つの型のパーサーのソースコードを組み立てる。
+     */
+    private static final class Source {
+        private static final String OPTION = "io.github.udonabe.commandanalyzer.option.Option";
+        private static final String DISPLAY = "io.github.udonabe.commandanalyzer.option.OptionDisplay";
+        private static final String ARG_TYPE = "io.github.udonabe.commandanalyzer.option.ArgType";
+        private static final String CODE = "io.github.udonabe.commandanalyzer.ParseError.Code";
+        private static final String EXCEPTION = "io.github.udonabe.commandanalyzer.OptionParseException";
+
+        private final TypeElement type;
+        private final String packageName;
+        private final String name;
+        private final List<Member> members;
+        private final boolean hasSubCommand;
+        private final StringBuilder out = new StringBuilder();
+
+        Source(TypeElement type, String packageName, String name, List<Member> members) {
+            this.type = type;
+            this.packageName = packageName;
+            this.name = name;
+            this.members = members;
+            this.hasSubCommand = members.get(0).kind() == Kind.SUBCOMMAND;
+        }
+
+        String generate() {
+            String target = type.getQualifiedName().toString();
+            boolean hasOptions = members.stream().anyMatch(m -> m.kind() == Kind.OPTION);
+
+            line(0, "// " + CommandSpecProcessor.class.getName() + "が生成したファイルです。編集しないでください。");
+            if (!packageName.isEmpty()) line(0, "package " + packageName + ";");
+            line(0, "");
+            line(0, "/**");
+            line(0, " * {@link " + target + "}のパーサー。");
+            line(0, " */");
+            line(0, (type.getModifiers().contains(Modifier.PUBLIC) ? "public " : "") + "final class " + name + " {");
+
+            // 失敗した場合の理由と、commandOptions()で使うオプション。序数順に並べる
+            line(1, "private static final " + OPTION + "[] OPTIONS = {");
+            for (Member member : members) {
+                line(3, optionExpression(member) + ",");
+            }
+            line(1, "};");
+            line(1, "private static final int[] POSITIONAL = {" + String.join(", ", ordinals(m -> m.kind() == Kind.ARGUMENT)) + "};");
+            line(1, "private static final long REQUIRED = " + mask(m -> m.kind() == Kind.OPTION && m.required()) + "L;");
+            line(1, "private static final long FLAGS = " + mask(m -> m.kind() == Kind.OPTION && m.type() == ArgType.NONE) + "L;");
+            line(0, "");
+            line(1, "private final java.util.List<String> args;");
+            line(1, "private final io.github.udonabe.commandanalyzer.option.NumberParser numbers = new io.github.udonabe.commandanalyzer.option.NumberParser();");
+            line(1, "private int cursor;");
+            line(1, "private int positional;");
+            line(1, "private long seen;");
+            for (int i = 0; i < members.size(); i++) {
+                line(1, "private " + members.get(i).javaType() + " value" + i + ";");
+            }
+            line(0, "");
+            line(1, "private " + name + "(java.util.List<String> args) {");
+            line(2, "this.args = args;");
+            line(1, "}");
+            line(0, "");
+
+            // 公開メソッド
+            line(1, "/**");
+            line(1, " * @param args パースするトークン列。");
+            line(1, " * @return パース結果");
+            line(1, " */");
+            line(1, "public static " + target + " parse(java.util.List<String> args) throws " + EXCEPTION + " {");
+            line(2, name + " parser = new " + name + "(args);");
+            line(2, "parser.run();");
+            if (type.getKind() == ElementKind.RECORD) {
+                StringJoiner values = new StringJoiner(", ");
+                // レコードのコンストラクタは宣言順、値は序数順なので、名前で対応させる
+                for (RecordComponentElement component : type.getRecordComponents()) {
+                    values.add("parser.value" + ordinalOf(component.getSimpleName().toString()));
+                }
+                line(2, "return new " + target + "(" + values + ");");
+            } else {
+                line(2, target + " result = new " + target + "();");
+                for (int i = 0; i < members.size(); i++) {
+                    line(2, "result." + members.get(i).name() + " = parser.value" + i + ";");
+                }
+                line(2, "return result;");
+            }
+            line(1, "}");
+            line(0, "");
+            line(1, "/**");
+            line(1, " * @return 同じ内容の{@link io.github.udonabe.commandanalyzer.command.CommandOptions}");
+            line(1, " */");
+            line(1, "public static io.github.udonabe.commandanalyzer.command.CommandOptions commandOptions() {");
+            line(2, "io.github.udonabe.commandanalyzer.command.CommandOptions.Generator generator = io.github.udonabe.commandanalyzer.command.CommandOptions.generator(" + (hasSubCommand ? "OPTIONS[0]" : "null") + ");");
+            for (int i = hasSubCommand ? 1 : 0; i < members.size(); i++) {
+                line(2, "generator." + (members.get(i).kind() == Kind.ARGUMENT ? "argument" : "option") + "(OPTIONS[" + i + "]);");
+            }
+            line(2, "return generator.build();");
+            line(1, "}");
+            line(0, "");
+
+            // トークンを順番に読む
+            line(1, "private void run() throws " + EXCEPTION + " {");
+            if (hasSubCommand) line(2, "boolean subCommandConsumed = false;");
+            line(2, "boolean positionalMode = false;");
+            line(2, "while (cursor < args.size()) {");
+            line(3, "int token = cursor;");
+            line(3, "String arg = args.get(cursor++);");
+            if (hasSubCommand) {
+                line(3, "if (!subCommandConsumed) {");
+                line(4, "if (arg.equals(\"--\")) continue;");
+                line(4, "subCommandConsumed = true;");
+                line(4, "switch (arg) {");
+                line(5, "case " + labels(members.get(0).displays()) + " -> value0 = arg;");
+                line(5, "default -> throw error(" + CODE + ".MISSING_SUBCOMMAND, token, 0, arg);");
+                line(4, "}");
+                line(4, "seen |= 1L;");
+                line(4, "continue;");
+                line(3, "}");
+            }
+            line(3, "if (arg.equals(\"--\")) {");
+            line(4, "positionalMode = true;");
+            line(4, "continue;");
+            line(3, "}");
+            // サブコマンドがある場合は、普通のオプションが無くてもプレフィックスのあるトークンをオプションとして扱う
+            if (hasOptions || hasSubCommand) {
+                line(3, "if (!positionalMode && (arg.startsWith(\"-\") || arg.startsWith(\"/\"))) {");
+                line(4, "option(arg, token);");
+                line(4, "continue;");
+                line(3, "}");
+                line(3, "positionalMode = true;");
+            }
+            line(3, "argument(arg, token);");
+            line(2, "}");
+            line(2, "if (positional < POSITIONAL.length) throw error(" + CODE + ".MISSING_POSITIONAL, -1, POSITIONAL[positional], null);");
+            line(2, "long missing = REQUIRED & ~seen;");
+            line(2, "if (missing != 0) throw error(" + CODE + ".MISSING_REQUIRED, -1, Long.numberOfTrailingZeros(missing), null);");
+            line(1, "}");
+            line(0, "");
+
+            // 位置引数
+            line(1, "private void argument(String arg, int token) throws " + EXCEPTION + " {");
+            line(2, "if (positional >= POSITIONAL.length) throw error(" + CODE + ".UNEXPECTED_ARGUMENT, token, -1, arg);");
+            line(2, "int ordinal = POSITIONAL[positional++];");
+            line(2, "switch (ordinal) {");
+            for (int i = 0; i < members.size(); i++) {
+                if (members.get(i).kind() != Kind.ARGUMENT) continue;
+                line(3, "case " + i + " -> value" + i + " = " + convert(members.get(i), "arg", "token", i) + ";");
+            }
+            line(3, "default -> throw new AssertionError(ordinal);");
+            line(2, "}");
+            line(2, "seen |= 1L << ordinal;");
+            line(1, "}");
+            line(0, "");
+
+            // 普通のオプション
+            line(1, "private void option(String arg, int token) throws " + EXCEPTION + " {");
+            line(2, "int ordinal = lookup(arg);");
+            line(2, "if (ordinal >= 0) {");
+            line(3, "accept(ordinal, token, arg, null);");
+            line(3, "return;");
+            line(2, "}");
+            line(2, "int separator = arg.indexOf('=');");
+            line(2, "if (separator >= 0) {");
+            line(3, "ordinal = lookup(arg.substring(0, separator));");
+            line(3, "if (ordinal >= 0) {");
+            line(4, "checkDuplicate(ordinal, token, arg);");
+            line(4, "if ((FLAGS & 1L << ordinal) != 0) throw error(" + CODE + ".UNEXPECTED_ARGUMENT, token, ordinal, arg);");
+            line(4, "accept(ordinal, token, arg, arg.substring(separator + 1));");
+            line(4, "return;");
+            line(3, "}");
+            line(2, "}");
+            // -Dkey=valueは、まとめたショートオプションとして扱う
+            line(2, "if (arg.length() > 2 && arg.charAt(0) == '-' && arg.charAt(1) != '-') {");
+            line(3, "bundle(arg, token);");
+            line(3, "return;");
+            line(2, "}");
+            line(2, "throw error(" + CODE + ".UNKNOWN_OPTION, token, -1, arg);");
+            line(1, "}");
+            line(0, "");
+
+            // -xvfのようにまとめて指定されたショートオプション
+            line(1, "private void bundle(String arg, int token) throws " + EXCEPTION + " {");
+            line(2, "for (int i = 1; i < arg.length(); i++) {");
+            line(3, "int ordinal = lookupShort(arg.charAt(i));");
+            line(3, "if (ordinal < 0) throw error(" + CODE + ".UNKNOWN_OPTION, token, -1, arg);");
+            line(3, "if ((FLAGS & 1L << ordinal) != 0) {");
+            line(4, "accept(ordinal, token, arg, null);");
+            line(4, "continue;");
+            line(3, "}");
+            line(3, "accept(ordinal, token, arg, i + 1 < arg.length() ? arg.substring(i + 1) : null);");
+            line(3, "return;");
+            line(2, "}");
+            line(1, "}");
+            line(0, "");
+
+            // 一致したオプションに値を代入する
+            line(1, "/**");
+            line(1, " * @param attached トークンに続けて指定された引数。無い場合は次のトークンを引数にする。");
+            line(1, " */");
+            line(1, "private void accept(int ordinal, int token, String arg, String attached) throws " + EXCEPTION + " {");
+            line(2, "checkDuplicate(ordinal, token, arg);");
+            // 変換に失敗した場合は、引数を含むトークンを原因にする
+            line(2, "String value = attached;");
+            line(2, "int at = token;");
+            line(2, "if ((FLAGS & 1L << ordinal) == 0 && attached == null) {");
+            line(3, "at = cursor;");
+            line(3, "value = next(token, ordinal, arg);");
+            line(2, "}");
+            line(2, "switch (ordinal) {");
+            for (int i = 0; i < members.size(); i++) {
+                Member member = members.get(i);
+                if (member.kind() != Kind.OPTION) continue;
+                String value = member.type() == ArgType.NONE ? "true" : convert(member, "value", "at", i);
+                line(3, "case " + i + " -> value" + i + " = " + value + ";");
+            }
+            line(3, "default -> throw new AssertionError(ordinal);");
+            line(2, "}");
+            line(2, "seen |= 1L << ordinal;");
+            line(1, "}");
+            line(0, "");
+            line(1, "private void checkDuplicate(int ordinal, int token, String arg) throws " + EXCEPTION + " {");
+            line(2, "if ((seen & 1L << ordinal) != 0) throw error(" + CODE + ".UNKNOWN_OPTION, token, ordinal, arg);");
+            line(1, "}");
+            line(0, "");
+            line(1, "private String next(int token, int ordinal, String arg) throws " + EXCEPTION + " {");
+            line(2, "if (cursor >= args.size()) throw error(" + CODE + ".MISSING_ARGUMENT, token, ordinal, arg);");
+            line(2, "return args.get(cursor++);");
+            line(1, "}");
+            line(0, "");
+
+            // 表示名の照合
+            line(1, "private static int lookup(String display) {");
+            line(2, "return switch (display) {");
+            for (int i = 0; i < members.size(); i++) {
+                if (members.get(i).kind() != Kind.OPTION) continue;
+                line(3, "case " + labels(members.get(i).displays()) + " -> " + i + ";");
+            }
+            line(3, "default -> -1;");
+            line(2, "};");
+            line(1, "}");
+            line(0, "");
+            line(1, "private static int lookupShort(char c) {");
+            line(2, "return switch (c) {");
+            for (int i = 0; i < members.size(); i++) {
+                if (members.get(i).kind() != Kind.OPTION) continue;
+                List<String> chars = new ArrayList<>();
+                for (String display : members.get(i).displays()) {
+                    if (display.length() == 2 && display.charAt(0) == '-' && display.charAt(1) != '-') chars.add(charLiteral(display.charAt(1)));
+                }
+                if (!chars.isEmpty()) line(3, "case " + String.join(", ", chars) + " -> " + i + ";");
+            }
+            line(3, "default -> -1;");
+            line(2, "};");
+            line(1, "}");
+            line(0, "");
+
+            // ArgTypeと同じ変換
+            line(1, "private int toInt(String value, int token, int ordinal) throws " + EXCEPTION + " {");
+            line(2, "if (!numbers.parseInt(value)) throw error(" + CODE + ".INVALID_ARGUMENT, token, ordinal, value);");
+            line(2, "return numbers.intValue();");
+            line(1, "}");
+            line(0, "");
+            line(1, "private double toDouble(String value, int token, int ordinal) throws " + EXCEPTION + " {");
+            line(2, "if (!numbers.parseDouble(value)) throw error(" + CODE + ".INVALID_ARGUMENT, token, ordinal, value);");
+            line(2, "return numbers.doubleValue();");
+            line(1, "}");
+            line(0, "");
+            line(1, "private static " + EXCEPTION + " error(" + CODE + " code, int token, int ordinal, String input) {");
+            line(2, "return new io.github.udonabe.commandanalyzer.ParseError(code, token, ordinal < 0 ? null : OPTIONS[ordinal], input).toException();");
+            line(1, "}");
+            line(0, "}");
+            return out.toString();
+        }
+
+        private int ordinalOf(String memberName) {
+            for (int i = 0; i < members.size(); i++) {
+                if (members.get(i).name().equals(memberName)) return i;
+            }
+            throw new IllegalStateException(memberName);
+        }
+
+        private List<String> ordinals(java.util.function.Predicate<Member> filter) {
+            List<String> ordinals = new ArrayList<>();
+            for (int i = 0; i < members.size(); i++) {
+                if (filter.test(members.get(i))) ordinals.add(String.valueOf(i));
+            }
+            return ordinals;
+        }
+
+        private String mask(java.util.function.Predicate<Member> filter) {
+            long mask = 0;
+            for (int i = 0; i < members.size(); i++) {
+                if (filter.test(members.get(i))) mask |= 1L << i;
+            }
+            return "0x" + Long.toHexString(mask);
+        }
+
+        /**
+         * @return {@code value}を、メンバーの型に変換する式
+         */
+        private static String convert(Member member, String value, String token, int ordinal) {
+            return switch (member.type()) {
+                case INTEGER -> "toInt(" + value + ", " + token + ", " + ordinal + ")";
+                case DOUBLE -> "toDouble(" + value + ", " + token + ", " + ordinal + ")";
+                case BOOLEAN -> value + ".equalsIgnoreCase(\"true\")";
+                case STRING, NONE -> value;
+                // 型の対応付けで、リスト型は選ばれない
+                case INTEGER_LIST, DOUBLE_LIST, STRING_LIST -> throw new IllegalStateException(member.type().name());
+            };
+        }
+
+        private static String optionExpression(Member member) {
+            String description = member.description().isEmpty() ? "null" : literal(member.description());
+            String name = literal(member.name());
+            return switch (member.kind()) {
+                case SUBCOMMAND -> OPTION + ".subCommand(java.util.Set.of(" + String.join(", ", member.displays().stream().map(Source::literal).toList())
+                                   + "), " + description + ", " + name + ")";
+                case ARGUMENT -> OPTION + ".argument(" + ARG_TYPE + "." + member.type() + ", " + description + ", " + name + ")";
+                case OPTION -> {
+                    StringJoiner displays = new StringJoiner(", ");
+                    for (String display : member.displays()) {
+                        int length = prefixLength(display);
+                        String kind = length == 2 ? "LONG_OPTION" : display.charAt(0) == '-' ? "SHORT_OPTION" : "SLASH_OPTION";
+                        displays.add("new " + DISPLAY + "(" + DISPLAY + ".PrefixKind." + kind + ", " + literal(display.substring(length)) + ")");
+                    }
+                    yield OPTION + ".normalOption(java.util.Set.of(" + displays + "), " + ARG_TYPE + "." + member.type() + ", "
+                          + member.required() + ", " + description + ", " + name + ")";
+                }
+            };
+        }
+
+        private static String labels(List<String> displays) {
+            return String.join(", ", displays.stream().map(Source::literal).toList());
+        }
+
+        private static String literal(String s) {
+            StringBuilder literal = new StringBuilder("\"");
+            for (int i = 0; i < s.length(); i++) {
+                literal.append(escape(s.charAt(i), '"'));
+            }
+            return literal.append('"').toString();
+        }
+
+        private static String charLiteral(char c) {
+            return "'" + escape(c, '\'') + "'";
+        }
+
+        /*
+         * \\uXXXXはjavacが字句解析の前に元の文字に戻すため、改行などの制御文字には使えない。
+         */
+        private static String escape(char c, char quote) {
+            if (c == quote || c == '\\') return "\\" + c;
+            return switch (c) {
+                case '\b' -> "\\b";
+                case '\t' -> "\\t";
+                case '\n' -> "\\n";
+                case '\f' -> "\\f";
+                case '\r' -> "\\r";
+                default -> {
+                    if (c < 0x20 || c == 0x7F) yield String.format("\\%03o", (int) c);
+                    if (c > 0x7F) yield String.format("\\u%04x", (int) c);
+                    yield String.valueOf(c);
+                }
+            };
+        }
+
+        private void line(int indent, String text) {
+            out.append("    ".repeat(indent)).append(text).append('\n');
+        }
+    }
+}
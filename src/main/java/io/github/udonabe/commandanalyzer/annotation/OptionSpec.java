@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 普通のオプションにする構成要素・フィールドに付ける。
+ * 型は{@code int}・{@code double}・{@code String}・{@code boolean}のどれかで、
+ * それぞれ{@link io.github.udonabe.commandanalyzer.option.ArgType#INTEGER}・{@code DOUBLE}・{@code STRING}・{@code NONE}として扱う。
+ * {@code boolean}で{@link #argument()}を指定した場合は、{@code BOOLEAN}として扱う。
+ * 管理名は、構成要素・フィールドの名前になる。
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.RECORD_COMPONENT, ElementType.FIELD})
+public @interface OptionSpec {
+    /**
+     * @return プレフィックスを含む表示名。「-p」「--port」「/port」など。
+     */
+    String[] value();
+
+    boolean required() default false;
+
+    String description() default "";
+
+    /**
+     * @return {@code boolean}の場合に、フラグではなく「true」などの引数を受け取るかどうか
+     */
+    boolean argument() default false;
+}
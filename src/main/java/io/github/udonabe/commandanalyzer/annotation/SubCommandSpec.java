@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * サブコマンドを受け取る{@code String}の構成要素・フィールドに付ける。一つの型に一つだけ付けられる。
+ * 一致したサブコマンドの名前が入る。
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.RECORD_COMPONENT, ElementType.FIELD})
+public @interface SubCommandSpec {
+    /**
+     * @return サブコマンドの名前
+     */
+    String[] value();
+
+    String description() default "";
+}
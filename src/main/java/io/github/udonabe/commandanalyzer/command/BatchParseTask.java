@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.parser.InnerParser;
+import io.github.udonabe.commandanalyzer.parser.ParseContext;
+import io.github.udonabe.commandanalyzer.parser.ParsePlan;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 複数のトークン列を、範囲を分割しながら並列にパースするタスク。
+ * 葉タスクは一つの{@link ParseContext}を使い回し、失敗しても残りの入力のパースを続ける。
+ */
+final class BatchParseTask extends RecursiveAction {
+    /**
+     * これ以下の件数になったら、分割せずにパースする。
+     */
+    private static final int THRESHOLD = 256;
+
+    private final ParsePlan plan;
+    private final List<? extends List<String>> inputs;
+    private final BatchResult result;
+    private final int from;
+    private final int to;
+
+    BatchParseTask(ParsePlan plan, List<? extends List<String>> inputs, BatchResult result, int from, int to) {
+        this.plan = plan;
+        this.inputs = inputs;
+        this.result = result;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= THRESHOLD) {
+            ParseContext context = new ParseContext(plan);
+            for (int i = from; i < to; i++) {
+                if (InnerParser.tryParse(context, inputs.get(i))) {
+                    result.success(i, context.toResultMap());
+                } else {
+                    result.failure(i, context.error().toException());
+                }
+            }
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        invokeAll(
+                new BatchParseTask(plan, inputs, result, from, middle),
+                new BatchParseTask(plan, inputs, result, middle, to)
+        );
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseResult;
+
+import java.util.Map;
+
+/**
+ * {@link CommandOptions#parseAll(java.util.List)}の結果。
+ * 入力と同じ順番で、成功した場合はパース結果を、失敗した場合は例外を保持する。
+ */
+public final class BatchResult {
+    private final Map<String, ParseResult>[] results;
+    private final OptionParseException[] failures;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BatchResult(int size) {
+        this.results = new Map[size];
+        this.failures = new OptionParseException[size];
+    }
+
+    /*
+     * 葉タスクごとに書き込む範囲が重ならないため、同期は不要。
+     * 書き込みの可視性は、ForkJoinPool#invoke()の完了で保証される。
+     */
+
+    void success(int index, Map<String, ParseResult> result) {
+        results[index] = result;
+    }
+
+    void failure(int index, OptionParseException failure) {
+        failures[index] = failure;
+    }
+
+    /**
+     * @return 入力の数
+     */
+    public int size() {
+        return results.length;
+    }
+
+    public boolean isSuccess(int index) {
+        return failures[index] == null;
+    }
+
+    /**
+     * @param index 入力の位置。
+     * @return パース結果。失敗した場合は{@code null}。
+     */
+    public Map<String, ParseResult> result(int index) {
+        return results[index];
+    }
+
+    /**
+     * @param index 入力の位置。
+     * @return 発生した例外。成功した場合は{@code null}。
+     */
+    public OptionParseException failure(int index) {
+        return failures[index];
+    }
+
+    /**
+     * @return 失敗した入力の数
+     */
+    public int failureCount() {
+        int count = 0;
+        for (OptionParseException failure : failures) {
+            if (failure != null) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * 文字ごとに分岐するトライ木。
+ * {@link CharSequence}の一部分をそのままキーとして、キーの長さに比例する時間で検索できる。
+ * 子は文字の順に並べ、二分探索で引く。
+ * 前方一致する全てのキーも、前方一致する部分の長さと一致したキーの数に比例する時間で、文字順に列挙できる。
+ * 生成後に変更しなければ、複数のスレッドから同時に検索してよい。
+ *
+ * @param <V> 値の型
+ */
+final class CharTrie<V> {
+    private static final char[] NO_LABELS = new char[0];
+    private static final CharTrie<?>[] NO_CHILDREN = new CharTrie<?>[0];
+
+    private char[] labels = NO_LABELS;
+    private CharTrie<V>[] children = noChildren();
+    private V value;
+    /**
+     * 値がある場合の、その値のキー。前方一致の列挙で使う。
+     */
+    private String key;
+
+    @SuppressWarnings("unchecked")
+    private static <V> CharTrie<V>[] noChildren() {
+        return (CharTrie<V>[]) NO_CHILDREN;
+    }
+
+    /**
+     * @return 既に値がある場合は、それを変更せずに返す。無い場合は{@code value}を追加して{@code null}を返す。
+     */
+    V putIfAbsent(String key, V value) {
+        CharTrie<V> node = this;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node.value != null) return node.value;
+        node.value = value;
+        node.key = key;
+        return null;
+    }
+
+    V get(String key) {
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * @param source 検索する文字列を含む文字列。
+     * @param start  検索する部分の開始位置。
+     * @param end    検索する部分の終了位置。
+     * @return 見つかった値。無い場合は{@code null}。
+     */
+    V get(CharSequence source, int start, int end) {
+        CharTrie<V> node = this;
+        for (int i = start; i < end; i++) {
+            int index = Arrays.binarySearch(node.labels, source.charAt(i));
+            if (index < 0) return null;
+            node = node.children[index];
+        }
+        return node.value;
+    }
+
+    /**
+     * {@code prefix}で始まる全てのキーと値を、キーの文字順に渡す。
+     *
+     * @param prefix 前方一致させる文字列。空の場合は全てのキー。
+     * @param action キーと値を受け取る処理。
+     */
+    void forEachWithPrefix(CharSequence prefix, BiConsumer<String, V> action) {
+        CharTrie<V> node = this;
+        for (int i = 0; i < prefix.length(); i++) {
+            int index = Arrays.binarySearch(node.labels, prefix.charAt(i));
+            if (index < 0) return;
+            node = node.children[index];
+        }
+        node.forEach(action);
+    }
+
+    private void forEach(BiConsumer<String, V> action) {
+        if (value != null) action.accept(key, value);
+        for (CharTrie<V> child : children) {
+            child.forEach(action);
+        }
+    }
+
+    private CharTrie<V> child(char label) {
+        int index = Arrays.binarySearch(labels, label);
+        if (index >= 0) return children[index];
+
+        int insertion = -index - 1;
+        CharTrie<V> child = new CharTrie<>();
+        char[] newLabels = new char[labels.length + 1];
+        CharTrie<V>[] newChildren = Arrays.copyOf(children, children.length + 1);
+        System.arraycopy(labels, 0, newLabels, 0, insertion);
+        System.arraycopy(labels, insertion, newLabels, insertion + 1, labels.length - insertion);
+        System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+        newLabels[insertion] = label;
+        newChildren[insertion] = child;
+        labels = newLabels;
+        children = newChildren;
+        return child;
+    }
+}
@@ -10,22 +10,28 @@ package io.github.udonabe.commandanalyzer.command;
 
 import io.github.udonabe.commandanalyzer.OptionParseException;
 import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.metrics.ParseListener;
 import io.github.udonabe.commandanalyzer.option.Option;
 import io.github.udonabe.commandanalyzer.option.OptionDisplay;
 import io.github.udonabe.commandanalyzer.parser.InnerParser;
-import lombok.Getter;
+import io.github.udonabe.commandanalyzer.parser.ParseContext;
+import io.github.udonabe.commandanalyzer.parser.ParsePlan;
+import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
+import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * コマンドのオプションをまとめるクラス。
  * <b>このライブラリを使うときは、最初にこのクラスのインスタンスをBuilderを使って生成し、
  * parseしてください。</b>
  */
-@RequiredArgsConstructor
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 public class CommandOptions {
     /**
      * このCommandOptionsのサブコマンド。
@@ -39,9 +45,207 @@ public class CommandOptions {
      * 位置引数を格納する。これは、順序が重要なため、{@link #normalOptions}と違い、{@link List}にしています。
      */
     private final List<Option> positionalArgs;
+    /**
+     * {@link Generator#build()}時に生成した実行計画。パースは全てこれを通して行う。
+     */
+    private final ParsePlan plan;
+
+    /**
+     * 表示名の重複などを検査せずに生成する。通常は{@link #generator(Option)}を使ってください。
+     * 実行計画は、普通のオプション・位置引数の順に序数を割り当てて生成する。
+     *
+     * @param subCommand     サブコマンド。無い場合は{@code null}。
+     * @param normalOptions  普通のオプション。
+     * @param positionalArgs 位置引数。指定する順に並べる。
+     */
+    public CommandOptions(Option subCommand, @NonNull Set<Option> normalOptions, @NonNull List<Option> positionalArgs) {
+        this(subCommand, normalOptions, positionalArgs, ParsePlan.compile(subCommand,
+                Stream.concat(normalOptions.stream(), positionalArgs.stream()).toList(), positionalArgs));
+    }
 
     public Map<String, ParseResult> parse(List<String> commands) throws OptionParseException {
-        return InnerParser.parse(subCommand, normalOptions, positionalArgs, commands);
+        return InnerParser.parse(plan, commands);
+    }
+
+    /**
+     * パースし、序数で値を引く形式で結果を返す。
+     * 値は{@link Generator#optionKey(Option, Class)}などで得た{@link OptionKey}で読み出す。
+     *
+     * @param commands パースするトークン列。
+     * @return パース結果
+     */
+    public ParsedOptions parseIndexed(List<String> commands) throws OptionParseException {
+        return parseInto(commands, newResult());
+    }
+
+    /**
+     * 既存の{@link ParsedOptions}を使い回してパースする。前回の内容は消える。
+     * 同じ{@link ParsedOptions}を使い回せば、パース中にほとんどメモリを確保しない。
+     *
+     * @param commands パースするトークン列。
+     * @param reuse    このCommandOptionsの{@link #newResult()}で生成した結果。
+     * @return {@code reuse}
+     */
+    public ParsedOptions parseInto(List<String> commands, @NonNull ParsedOptions reuse) throws OptionParseException {
+        if (reuse.context().plan() != plan) throw new IllegalArgumentException("別のCommandOptionsの結果が指定されました。");
+        InnerParser.parse(reuse.context(), commands);
+        return reuse;
+    }
+
+    /**
+     * 例外を投げずにパースする。失敗した場合は、理由を{@link ParseOutcome.Failure}で返す。
+     * 不正な入力が多い場合でも、例外の生成やメッセージの組み立てにかかるコストが発生しない。
+     *
+     * @param commands パースするトークン列。
+     * @return 成功した場合は{@link ParseOutcome.Success}
+     */
+    public ParseOutcome tryParse(@NonNull List<String> commands) {
+        return tryParseInto(commands, newResult());
+    }
+
+    /**
+     * 既存の{@link ParsedOptions}を使い回して、例外を投げずにパースする。
+     *
+     * @param reuse このCommandOptionsの{@link #newResult()}で生成した結果。
+     * @see #tryParse(List)
+     * @see #parseInto(List, ParsedOptions)
+     */
+    public ParseOutcome tryParseInto(@NonNull List<String> commands, @NonNull ParsedOptions reuse) {
+        if (reuse.context().plan() != plan) throw new IllegalArgumentException("別のCommandOptionsの結果が指定されました。");
+        if (InnerParser.tryParse(reuse.context(), commands)) return new ParseOutcome.Success(reuse);
+        return new ParseOutcome.Failure(reuse.context().error());
+    }
+
+    /**
+     * 一行のコマンド(チャットのメッセージ・REPLの入力など)を、シェルと同じ規則で分割してパースする。
+     * 空白・タブで区切り、シングルクォート・ダブルクォート・バックスラッシュによるエスケープを解釈する。
+     *
+     * @param line パースする行。
+     * @return 管理名をキーにした結果
+     */
+    public Map<String, ParseResult> parse(@NonNull CharSequence line) throws OptionParseException {
+        return InnerParser.parse(plan, line);
+    }
+
+    /**
+     * 一行のコマンドを分割してパースし、序数で値を引く形式で結果を返す。
+     *
+     * @see #parse(CharSequence)
+     * @see #parseIndexed(List)
+     */
+    public ParsedOptions parseIndexed(@NonNull CharSequence line) throws OptionParseException {
+        return parseInto(line, newResult());
+    }
+
+    /**
+     * 既存の{@link ParsedOptions}を使い回して、一行のコマンドをパースする。
+     * オプションは行の中の位置のまま照合し、文字列の値は読み出されたときに初めて生成する。
+     * そのため、結果を読み終わるまで{@code line}の内容は変更しないこと。
+     *
+     * @param line  パースする行。
+     * @param reuse このCommandOptionsの{@link #newResult()}で生成した結果。
+     * @return {@code reuse}
+     */
+    public ParsedOptions parseInto(@NonNull CharSequence line, @NonNull ParsedOptions reuse) throws OptionParseException {
+        if (reuse.context().plan() != plan) throw new IllegalArgumentException("別のCommandOptionsの結果が指定されました。");
+        InnerParser.parse(reuse.context(), line);
+        return reuse;
+    }
+
+    /**
+     * 例外を投げずに、一行のコマンドを分割してパースする。
+     *
+     * @see #tryParse(List)
+     * @see #parse(CharSequence)
+     */
+    public ParseOutcome tryParse(@NonNull CharSequence line) {
+        return tryParseInto(line, newResult());
+    }
+
+    /**
+     * 既存の{@link ParsedOptions}を使い回して、例外を投げずに一行のコマンドをパースする。
+     *
+     * @see #tryParse(List)
+     * @see #parseInto(CharSequence, ParsedOptions)
+     */
+    public ParseOutcome tryParseInto(@NonNull CharSequence line, @NonNull ParsedOptions reuse) {
+        if (reuse.context().plan() != plan) throw new IllegalArgumentException("別のCommandOptionsの結果が指定されました。");
+        if (InnerParser.tryParse(reuse.context(), line)) return new ParseOutcome.Success(reuse);
+        return new ParseOutcome.Failure(reuse.context().error());
+    }
+
+    /**
+     * このCommandOptionsの結果を保持するキャッシュを生成する。
+     * 同じトークン列が繰り返しパースされる場合に使う。
+     *
+     * @param maximumSize 保持する成功した結果の上限。
+     * @return 新しいキャッシュ
+     */
+    public ParseCache withCache(int maximumSize) {
+        return new ParseCache(this, maximumSize);
+    }
+
+    /**
+     * 複数のトークン列を、{@link ForkJoinPool#commonPool()}で並列にパースする。
+     *
+     * @see #parseAll(List, ForkJoinPool)
+     */
+    public BatchResult parseAll(@NonNull List<? extends List<String>> inputs) {
+        return parseAll(inputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 複数のトークン列を並列にパースする。
+     * 一部の入力でパースに失敗しても例外は投げず、その入力の失敗として結果に記録する。
+     * 入力のリストは、ランダムアクセスが速いもの({@link ArrayList}など)を推奨します。
+     *
+     * @param inputs パースするトークン列の一覧。
+     * @param pool   パースに使うスレッドプール。
+     * @return 入力と同じ順番の結果
+     */
+    public BatchResult parseAll(@NonNull List<? extends List<String>> inputs, @NonNull ForkJoinPool pool) {
+        BatchResult result = new BatchResult(inputs.size());
+        pool.invoke(new BatchParseTask(plan, inputs, result, 0, inputs.size()));
+        return result;
+    }
+
+    /**
+     * {@link #parseInto(List, ParsedOptions)}で使う、空の結果を生成する。
+     *
+     * @return 生成した結果
+     */
+    public ParsedOptions newResult() {
+        return newResult(ParsedOptions.Conversion.EAGER);
+    }
+
+    /**
+     * パース結果を{@code type}のレコード・クラスに詰める{@link ResultBinder}を生成する。
+     * 構成要素・フィールドは、名前と同じ管理名のオプションに対応させる。
+     * 詰めるための{@link java.lang.invoke.MethodHandle}はここで組み立てるため、生成した{@link ResultBinder}は使い回すこと。
+     *
+     * @param type   詰める型。レコードの場合は全ての構成要素に、対応するオプションが必要になる。
+     *               クラスの場合は引数の無いコンストラクタが必要で、対応するオプションが無いフィールドは変更しない。
+     * @param lookup {@code type}のコンストラクタ・フィールドにアクセスできる{@link MethodHandles.Lookup}。
+     *               通常は、{@code type}を宣言したクラスの{@code MethodHandles.lookup()}を渡す。
+     * @return 生成したバインダー
+     * @throws IllegalArgumentException 対応するオプションが無い場合・型が異なる場合・アクセスできない場合
+     */
+    public <T> ResultBinder<T> binder(@NonNull Class<T> type, @NonNull MethodHandles.Lookup lookup) {
+        return new ResultBinder<>(this, type, lookup);
+    }
+
+    /**
+     * {@link #parseInto(List, ParsedOptions)}で使う、空の結果を生成する。
+     *
+     * @param conversion 引数を変換する時期。
+     * @return 生成した結果
+     */
+    public ParsedOptions newResult(@NonNull ParsedOptions.Conversion conversion) {
+        return new ParsedOptions(new ParseContext(plan, conversion == ParsedOptions.Conversion.LAZY));
+    }
+
+    ParsePlan plan() {
+        return plan;
     }
 
     public Option getSubCommand() {
@@ -71,10 +275,14 @@ public class CommandOptions {
         private final Option subCommand;
         private final Set<Option> normalOptions;
         private final List<Option> positionalArgs;
+        /**
+         * 追加した順に並べた全てのオプション。序数の割り当てに使う。
+         */
+        private final List<Option> declared = new ArrayList<>();
 
         private final Set<String> names = new HashSet<>();
         private final Set<String> displays = new HashSet<>();
-
+        private ParseListener listener;
 
         private Generator(Option subCommand) {
             if (subCommand != null &&
@@ -85,7 +293,7 @@ public class CommandOptions {
             }
 
             this.subCommand = subCommand;
-            this.normalOptions = new HashSet<>();
+            this.normalOptions = new LinkedHashSet<>();
             this.positionalArgs = new ArrayList<>();
         }
 
@@ -96,46 +304,108 @@ public class CommandOptions {
          */
         public Generator option(@NonNull Option add) {
             //引数をチェック
-            checkNonAdded(add.managementName(), add.displays().stream().map(OptionDisplay::getFullDisplay).collect(Collectors.toUnmodifiableSet()));
-
-            if (add.displays()
-                    .stream()
-                    .anyMatch(t -> t.prefix() == OptionDisplay.PrefixKind.SUBCOMMAND ||
-                                   t.prefix() == OptionDisplay.PrefixKind.ARGUMENT)) {
-                throw new IllegalArgumentException("option()メソッドでは、サブコマンドと位置引数は追加できません。");
+            Set<OptionDisplay> displays = add.displays();
+            for (OptionDisplay display : displays) {
+                if (display.prefix() == OptionDisplay.PrefixKind.SUBCOMMAND ||
+                    display.prefix() == OptionDisplay.PrefixKind.ARGUMENT) {
+                    throw new IllegalArgumentException("option()メソッドでは、サブコマンドと位置引数は追加できません。");
+                }
             }
+            checkNonAdded(add.managementName(), displays);
 
             normalOptions.add(add);
+            declared.add(add);
             return this;
         }
 
         public Generator argument(@NonNull Option add) {
             //引数をチェック
-            checkNonAdded(add.managementName(), add.displays().stream().map(OptionDisplay::getFullDisplay).collect(Collectors.toUnmodifiableSet()));
-
-            if (add.displays()
-                    .stream()
-                    .anyMatch(t -> t.prefix() != OptionDisplay.PrefixKind.ARGUMENT)) {
-                throw new IllegalArgumentException("argument()メソッドでは、位置引数以外は追加できません。");
+            Set<OptionDisplay> displays = add.displays();
+            for (OptionDisplay display : displays) {
+                if (display.prefix() != OptionDisplay.PrefixKind.ARGUMENT) {
+                    throw new IllegalArgumentException("argument()メソッドでは、位置引数以外は追加できません。");
+                }
             }
+            checkNonAdded(add.managementName(), displays);
 
             positionalArgs.add(add);
+            declared.add(add);
             return this;
         }
 
-        private void checkNonAdded(String managementName, Set<String> displays) {
+        private void checkNonAdded(String managementName, Set<OptionDisplay> displays) {
             if (!names.add(managementName)) throw new IllegalArgumentException("既に同じ管理名(managementName)のオプションが追加されています。");
-            for (String display : displays) {
-                if (!this.displays.add(display)) throw new IllegalArgumentException("既に同じ表示名(OptionDisplay#getFullDisplay())のオプションが追加されています。");
+            for (OptionDisplay display : displays) {
+                if (!this.displays.add(display.getFullDisplay())) throw new IllegalArgumentException("既に同じ表示名(OptionDisplay#getFullDisplay())のオプションが追加されています。");
             }
         }
 
+        /**
+         * 新規にオプションを追加し、その値を読み出すキーを返す。
+         *
+         * @param add       追加対象のオプション。
+         * @param valueType 値の型。
+         * @return 生成したキー
+         * @see #option(Option)
+         */
+        public <T> OptionKey<T> optionKey(@NonNull Option add, @NonNull Class<T> valueType) {
+            checkValueType(add, valueType);
+            option(add);
+            return new OptionKey<>(add, declared.size() - 1 + (subCommand == null ? 0 : 1));
+        }
+
+        /**
+         * 新規に位置引数を追加し、その値を読み出すキーを返す。
+         *
+         * @param add       追加対象の位置引数。
+         * @param valueType 値の型。
+         * @return 生成したキー
+         * @see #argument(Option)
+         */
+        public <T> OptionKey<T> argumentKey(@NonNull Option add, @NonNull Class<T> valueType) {
+            checkValueType(add, valueType);
+            argument(add);
+            return new OptionKey<>(add, declared.size() - 1 + (subCommand == null ? 0 : 1));
+        }
+
+        /**
+         * @return サブコマンドの名前を読み出すキー
+         */
+        public OptionKey<String> subCommandKey() {
+            if (subCommand == null) throw new IllegalStateException("サブコマンドが指定されていません。");
+            return new OptionKey<>(subCommand, 0);
+        }
+
+        private static void checkValueType(Option add, Class<?> valueType) {
+            Class<?> expected = OptionKey.valueType(add);
+            if (expected != valueType)
+                throw new IllegalArgumentException("値の型が異なります。期待型: " + expected.getSimpleName() + ", 指定された型: " + valueType.getSimpleName());
+        }
+
+        /**
+         * パースの経過を通知する相手を設定する。{@code null}の場合は通知しない。
+         * 生成した{@link CommandOptions}の全てのパースで、同じリスナーが呼び出される。
+         *
+         * @param listener 通知する相手。
+         * @return 自分自身
+         * @see io.github.udonabe.commandanalyzer.metrics.ParseMetrics
+         */
+        public Generator listener(ParseListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
         /**
          * 自身の内容から{@link CommandOptions}を生成する。
          * @return 生成した内容
          */
         public CommandOptions build() {
-            return new CommandOptions(subCommand, normalOptions, positionalArgs);
+            return new CommandOptions(
+                    subCommand,
+                    Collections.unmodifiableSet(new LinkedHashSet<>(normalOptions)),
+                    List.copyOf(positionalArgs),
+                    ParsePlan.compile(subCommand, declared, positionalArgs).withListener(listener)
+            );
         }
     }
 }
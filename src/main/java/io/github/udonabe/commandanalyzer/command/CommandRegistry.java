@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import io.github.udonabe.commandanalyzer.parser.SuggestionIndex;
+import lombok.NonNull;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 複数の{@link CommandOptions}を、サブコマンドの表示名で引けるようにまとめるクラス。
+ * 表示名はトライ木で管理するため、先頭のトークンの長さに比例する時間で、パースに使うCommandOptionsを決められる。
+ * 一致したCommandOptionsだけでパースするため、登録数が多くても他のCommandOptionsを試す必要が無い。
+ * <p>
+ * 「remote add」のような入れ子のサブコマンドは、親のトークン列を指定して登録する。
+ * パースは、一致した最も深いCommandOptionsのサブコマンドのトークンから始める。
+ * 生成後は変更されないため、複数のスレッドから同時にパースしてよい。
+ */
+public final class CommandRegistry {
+    private final CharTrie<Entry> root;
+    /**
+     * 最上位のサブコマンドの表示名の索引。一致しなかった場合に初めて構築する。
+     */
+    private volatile SuggestionIndex suggestions;
+
+    private CommandRegistry(CharTrie<Entry> root) {
+        this.root = root;
+    }
+
+    /**
+     * @return 最上位のサブコマンドの表示名をキーにしたトライ木
+     */
+    CharTrie<Entry> root() {
+        return root;
+    }
+
+    /**
+     * @param commands パースするトークン列。
+     * @return 先頭のトークンから一致したCommandOptions。無い場合は{@code null}。
+     */
+    public CommandOptions find(@NonNull List<String> commands) {
+        Match match = match(commands);
+        return match == null ? null : match.options();
+    }
+
+    /**
+     * 一致したCommandOptionsでパースする。
+     *
+     * @param commands パースするトークン列。
+     * @return 管理名をキーにした結果
+     * @throws OptionParseException 一致するサブコマンドが無い場合や、パースに失敗した場合
+     */
+    public Map<String, ParseResult> parse(@NonNull List<String> commands) throws OptionParseException {
+        return tryParse(commands).orElseThrow().toMap();
+    }
+
+    /**
+     * 例外を投げずに、一致したCommandOptionsでパースする。
+     * 失敗した場合のトークンの位置は、{@code commands}の先頭からの位置になる。
+     *
+     * @see CommandOptions#tryParse(List)
+     */
+    public ParseOutcome tryParse(@NonNull List<String> commands) {
+        Match match = match(commands);
+        if (match == null) return unknownSubCommand(commands.isEmpty() ? null : commands.get(0));
+
+        int offset = match.offset();
+        ParseOutcome outcome = match.options().tryParse(offset == 0 ? commands : commands.subList(offset, commands.size()));
+        return shift(outcome, offset);
+    }
+
+    /**
+     * 一行のコマンドを、一致したCommandOptionsでパースする。
+     * サブコマンドの照合には、引用符・エスケープを含まない空白区切りの単語だけを使う。
+     *
+     * @see CommandOptions#parse(CharSequence)
+     */
+    public Map<String, ParseResult> parse(@NonNull CharSequence line) throws OptionParseException {
+        return tryParse(line).orElseThrow().toMap();
+    }
+
+    /**
+     * 例外を投げずに、一行のコマンドを一致したCommandOptionsでパースする。
+     *
+     * @see #parse(CharSequence)
+     */
+    public ParseOutcome tryParse(@NonNull CharSequence line) {
+        CharTrie<Entry> node = root;
+        CommandOptions matched = null;
+        int matchedStart = 0;
+        int matchedWords = 0;
+        int words = 0;
+        int i = 0;
+        int length = line.length();
+        while (node != null) {
+            while (i < length && isSeparator(line.charAt(i))) i++;
+            int start = i;
+            while (i < length && !isSeparator(line.charAt(i))) i++;
+            if (start == i) break;
+
+            Entry entry = node.get(line, start, i);
+            if (entry == null) break;
+            if (entry.options != null) {
+                matched = entry.options;
+                matchedStart = start;
+                matchedWords = words;
+            }
+            node = entry.children;
+            words++;
+        }
+        if (matched == null) return unknownSubCommand(firstWord(line));
+
+        CharSequence rest = matchedStart == 0 ? line : CharBuffer.wrap(line, matchedStart, length);
+        return shift(matched.tryParse(rest), matchedWords);
+    }
+
+    /**
+     * 先頭のトークンから順に、入れ子のサブコマンドをたどる。
+     *
+     * @return 一致した最も深いCommandOptions。無い場合は{@code null}。
+     */
+    private Match match(List<String> commands) {
+        CharTrie<Entry> node = root;
+        Match match = null;
+        for (int i = 0; i < commands.size() && node != null; i++) {
+            Entry entry = node.get(commands.get(i));
+            if (entry == null) break;
+            if (entry.options != null) match = new Match(entry.options, i);
+            node = entry.children;
+        }
+        return match;
+    }
+
+    private ParseOutcome unknownSubCommand(String input) {
+        List<String> suggestions = input == null ? List.of() : suggestSubCommands(input);
+        return new ParseOutcome.Failure(new ParseError(ParseError.Code.MISSING_SUBCOMMAND, input == null ? -1 : 0, null, input, suggestions));
+    }
+
+    /**
+     * 一致しなかった最上位のサブコマンドに近い表示名を探す。
+     * 親としてだけ登録された表示名も、入れ子のサブコマンドをたどる入口になるため候補にする。
+     *
+     * @return 近い順に並べた表示名。入力が最上位の表示名そのものの場合は、空。
+     */
+    private List<String> suggestSubCommands(String input) {
+        if (root.get(input) != null) return List.of();
+        SuggestionIndex index = suggestions;
+        // 同時に構築されても結果は同じなので、ロックしない
+        if (index == null) {
+            List<String> displays = new ArrayList<>();
+            root.forEachWithPrefix("", (display, entry) -> displays.add(display));
+            suggestions = index = new SuggestionIndex(displays);
+        }
+        return index.suggest(input);
+    }
+
+    /**
+     * 読み飛ばした親のサブコマンドの分だけ、失敗したトークンの位置をずらす。
+     */
+    private static ParseOutcome shift(ParseOutcome outcome, int offset) {
+        if (offset == 0 || !(outcome instanceof ParseOutcome.Failure failure)) return outcome;
+
+        ParseError error = failure.error();
+        if (error.tokenIndex() < 0) return outcome;
+        return new ParseOutcome.Failure(new ParseError(error.code(), error.tokenIndex() + offset, error.option(), error.input(), error.suggestions()));
+    }
+
+    private static String firstWord(CharSequence line) {
+        int i = 0;
+        while (i < line.length() && isSeparator(line.charAt(i))) i++;
+        int start = i;
+        while (i < line.length() && !isSeparator(line.charAt(i))) i++;
+        return start == i ? null : line.subSequence(start, i).toString();
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private CharTrie<Entry> root = new CharTrie<>();
+
+        private Builder() {
+        }
+
+        /**
+         * サブコマンドを持つCommandOptionsを、最上位に登録する。
+         *
+         * @param options 登録するCommandOptions。サブコマンドの全ての表示名で引けるようになる。
+         * @return this
+         */
+        public Builder register(@NonNull CommandOptions options) {
+            return register(List.of(), options);
+        }
+
+        /**
+         * サブコマンドを持つCommandOptionsを、親のサブコマンドの下に登録する。
+         * 親は、登録済みのCommandOptionsの表示名でなくてもよい。
+         *
+         * @param parents 親のサブコマンドのトークン列。例えば「git remote add」の「add」を登録する場合は、{@code List.of("remote")}。
+         * @param options 登録するCommandOptions。
+         * @return this
+         */
+        public Builder register(@NonNull List<String> parents, @NonNull CommandOptions options) {
+            if (root == null) throw new IllegalStateException("既にbuild()されています。");
+            if (options.getSubCommand() == null) throw new IllegalArgumentException("サブコマンドの無いCommandOptionsは登録できません。");
+
+            CharTrie<Entry> node = root;
+            for (String parent : parents) {
+                Entry entry = entry(node, parent);
+                if (entry.children == null) entry.children = new CharTrie<>();
+                node = entry.children;
+            }
+            // 途中まで登録された状態にならないよう、先に重複を調べる
+            for (OptionDisplay display : options.getSubCommand().displays()) {
+                Entry entry = node.get(display.getFullDisplay());
+                if (entry != null && entry.options != null) {
+                    throw new IllegalArgumentException("既に同じサブコマンドが登録されています: " + display.getFullDisplay());
+                }
+            }
+            for (OptionDisplay display : options.getSubCommand().displays()) {
+                entry(node, display.getFullDisplay()).options = options;
+            }
+            return this;
+        }
+
+        private static Entry entry(CharTrie<Entry> node, String display) {
+            Entry created = new Entry();
+            Entry existing = node.putIfAbsent(display, created);
+            return existing == null ? created : existing;
+        }
+
+        /**
+         * 生成後は、このBuilderに登録できない。
+         */
+        public CommandRegistry build() {
+            if (root == null) throw new IllegalStateException("既にbuild()されています。");
+            CommandRegistry registry = new CommandRegistry(root);
+            root = null;
+            return registry;
+        }
+    }
+
+    /**
+     * トライ木の値。表示名に一致したCommandOptionsと、その下の入れ子のサブコマンド。
+     */
+    static final class Entry {
+        private CommandOptions options;
+        private CharTrie<Entry> children;
+
+        /**
+         * @return 表示名に一致したCommandOptions。入れ子のサブコマンドの親としてだけ登録された場合は{@code null}。
+         */
+        CommandOptions options() {
+            return options;
+        }
+
+        /**
+         * @return 入れ子のサブコマンド。無い場合は{@code null}。
+         */
+        CharTrie<Entry> children() {
+            return children;
+        }
+    }
+
+    private record Match(CommandOptions options, int offset) {
+    }
+}
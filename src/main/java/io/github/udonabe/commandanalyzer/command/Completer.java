@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.parser.ParsePlan;
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 入力途中のトークン列から、次に入力できるトークンの候補を返す補完エンジン。
+ * {@link #builder(CommandOptions)}・{@link #builder(CommandRegistry)}で生成する。
+ * <p>
+ * 候補は、サブコマンドの表示名・まだ指定されていないオプションの表示名・引数の値の三種類。
+ * 引数の値は、{@link ArgType#BOOLEAN}の「true」「false」と、{@link Builder#values(String, Collection)}で登録した値になる。
+ * 表示名はコマンドごとにトライ木にまとめるため、一回の補完は入力の長さと候補の数に比例する時間で終わり、登録したコマンドの数には依存しない。
+ * トライ木は、そのコマンドを初めて補完するときに生成して使い回す。
+ * <p>
+ * シェルからは、{@link #bashScript(String)}・{@link #zshScript(String)}で生成したスクリプトを通して呼び出す。
+ * 生成後は変更されないため、複数のスレッドから同時に使ってよい。
+ */
+public final class Completer {
+    /**
+     * シェルのスクリプトが補完を要求するときに、最初の引数として渡す文字列。
+     */
+    public static final String HOOK = "__complete";
+
+    private static final List<String> BOOLEAN_VALUES = List.of("false", "true");
+
+    private final CommandOptions options;
+    private final CommandRegistry registry;
+    /**
+     * 管理名ごとの、引数の値の候補。
+     */
+    private final Map<String, List<String>> values;
+    /**
+     * コマンドごとの、普通のオプションの表示名をキーにしたトライ木。
+     */
+    private final Map<ParsePlan, CharTrie<ParsePlan.Slot>> displays = new ConcurrentHashMap<>();
+
+    private Completer(CommandOptions options, CommandRegistry registry, Map<String, List<String>> values) {
+        this.options = options;
+        this.registry = registry;
+        this.values = values;
+    }
+
+    /**
+     * @param options 補完するコマンド。
+     * @return 生成したビルダー
+     */
+    public static Builder builder(@NonNull CommandOptions options) {
+        return new Builder(options, null);
+    }
+
+    /**
+     * @param registry 補完するコマンドの一覧。入れ子のサブコマンドも補完する。
+     * @return 生成したビルダー
+     */
+    public static Builder builder(@NonNull CommandRegistry registry) {
+        return new Builder(null, registry);
+    }
+
+    /**
+     * 入力途中のトークン列を補完する。
+     *
+     * @param tokens プログラム名を除いたトークン列。最後の要素が入力途中のトークンで、空文字列の場合は何も入力していない状態を表す。
+     *               空のリストは、{@code List.of("")}として扱う。
+     * @return 最後のトークンを置き換える候補。種類ごとに文字順に並ぶ。
+     */
+    public List<String> complete(@NonNull List<String> tokens) {
+        List<String> candidates = new ArrayList<>();
+        String partial = tokens.isEmpty() ? "" : tokens.get(tokens.size() - 1);
+        List<String> done = tokens.isEmpty() ? List.of() : tokens.subList(0, tokens.size() - 1);
+
+        if (registry != null) {
+            // 完成したトークンで、入れ子のサブコマンドをたどる
+            CharTrie<CommandRegistry.Entry> node = registry.root();
+            CommandOptions matched = null;
+            int offset = 0;
+            int i = 0;
+            for (; i < done.size() && node != null; i++) {
+                CommandRegistry.Entry entry = node.get(done.get(i));
+                if (entry == null) break;
+                if (entry.options() != null) {
+                    matched = entry.options();
+                    offset = i + 1;
+                }
+                node = entry.children();
+            }
+            if (i == done.size() && node != null) node.forEachWithPrefix(partial, (display, entry) -> candidates.add(display));
+            if (matched != null) completeOptions(matched.plan(), done.subList(offset, done.size()), partial, candidates);
+            return candidates;
+        }
+
+        ParsePlan plan = options.plan();
+        int offset = 0;
+        if (plan.hasSubCommand()) {
+            // サブコマンドより前の「--」は読み飛ばされる
+            while (offset < done.size() && done.get(offset).equals("--")) offset++;
+            if (offset == done.size()) {
+                for (String display : new TreeSet<>(plan.fullDisplays(0))) {
+                    if (display.startsWith(partial)) candidates.add(display);
+                }
+                return candidates;
+            }
+            offset++;
+        }
+        completeOptions(plan, done.subList(offset, done.size()), partial, candidates);
+        return candidates;
+    }
+
+    /**
+     * 一行のコマンドを補完する。シェルのスクリプトから呼び出すためのもので、空白・タブだけで区切り、引用符は解釈しない。
+     *
+     * @param line カーソルまでの行。最初の単語はプログラム名として読み飛ばす。空白で終わる場合は、新しいトークンを補完する。
+     * @return 最後の単語を置き換える候補
+     * @see #complete(List)
+     */
+    public List<String> completeLine(@NonNull CharSequence line) {
+        List<String> words = new ArrayList<>();
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isSeparator(line.charAt(i))) i++;
+            int start = i;
+            while (i < length && !isSeparator(line.charAt(i))) i++;
+            if (start < i) words.add(line.subSequence(start, i).toString());
+        }
+        if (length == 0 || isSeparator(line.charAt(length - 1))) words.add("");
+        return words.size() <= 1 ? List.of() : complete(words.subList(1, words.size()));
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * サブコマンドより後ろのトークンから、オプションの表示名・引数の値を補完する。
+     *
+     * @param done 入力済みのトークン。
+     */
+    private void completeOptions(ParsePlan plan, List<String> done, String partial, List<String> candidates) {
+        BitSet used = new BitSet(plan.size());
+        boolean positional = false;
+        ParsePlan.Slot pending = null;
+        for (String token : done) {
+            if (pending != null) {
+                pending = null;
+                continue;
+            }
+            if (positional) continue;
+            if (token.equals("--") || !hasPrefix(token)) {
+                positional = true;
+                continue;
+            }
+
+            ParsePlan.Slot slot = plan.lookupOption(token);
+            if (slot != null) {
+                used.set(slot.ordinal());
+                if (slot.option().type() != ArgType.NONE) pending = slot;
+                continue;
+            }
+            int separator = token.indexOf('=');
+            if (separator > 0 && (slot = plan.lookupOption(token.substring(0, separator))) != null) {
+                used.set(slot.ordinal());
+                continue;
+            }
+            if (isBundle(token)) pending = bundle(plan, token, used);
+        }
+
+        if (pending != null) {
+            addValues(pending, partial, "", candidates);
+            return;
+        }
+        if (positional || !(partial.isEmpty() || hasPrefix(partial))) return;
+
+        int separator = partial.indexOf('=');
+        if (separator > 0) {
+            ParsePlan.Slot slot = plan.lookupOption(partial.substring(0, separator));
+            if (slot != null) addValues(slot, partial.substring(separator + 1), partial.substring(0, separator + 1), candidates);
+            return;
+        }
+        displays(plan).forEachWithPrefix(partial, (display, slot) -> {
+            // 指定済みのオプションは、リスト型でなければもう指定できない
+            if (!used.get(slot.ordinal()) || slot.option().type().isList()) candidates.add(display);
+        });
+    }
+
+    /**
+     * 「-」と二文字以上からなるトークンは、一文字のショートオプションをまとめたものとして扱う。
+     */
+    private static boolean isBundle(String token) {
+        return token.length() > 2 && token.charAt(0) == '-' && token.charAt(1) != '-';
+    }
+
+    /**
+     * {@code -xvf}のようにまとめて指定されたショートオプションを、パースと同じ規則で{@code used}に記録する。
+     *
+     * @return 最後の文字が引数を取るオプションの場合、次のトークンを引数にするそのオプション
+     */
+    private static ParsePlan.Slot bundle(ParsePlan plan, String token, BitSet used) {
+        for (int i = 1; i < token.length(); i++) {
+            ParsePlan.Slot slot = plan.lookupShortOption(token.charAt(i));
+            if (slot == null) return null;
+            used.set(slot.ordinal());
+            // 引数を取るオプションは、トークンの残りか次のトークンを引数にする
+            if (slot.option().type() != ArgType.NONE) return i + 1 < token.length() ? null : slot;
+        }
+        return null;
+    }
+
+    /**
+     * @param head 候補の前に付ける文字列。「--name=」など。
+     */
+    private void addValues(ParsePlan.Slot slot, String partial, String head, List<String> candidates) {
+        List<String> list = values.get(slot.option().managementName());
+        if (list == null && slot.option().type() == ArgType.BOOLEAN) list = BOOLEAN_VALUES;
+        if (list == null) return;
+        for (String value : list) {
+            if (value.startsWith(partial)) candidates.add(head + value);
+        }
+    }
+
+    private static boolean hasPrefix(String token) {
+        return token.startsWith("-") || token.startsWith("/");
+    }
+
+    private CharTrie<ParsePlan.Slot> displays(ParsePlan plan) {
+        CharTrie<ParsePlan.Slot> trie = displays.get(plan);
+        if (trie != null) return trie;
+        return displays.computeIfAbsent(plan, p -> {
+            CharTrie<ParsePlan.Slot> created = new CharTrie<>();
+            for (int i = 0; i < p.normalCount(); i++) {
+                for (String display : p.fullDisplays(p.normalOrdinal(i))) {
+                    created.putIfAbsent(display, p.lookupOption(display));
+                }
+            }
+            return created;
+        });
+    }
+
+    /**
+     * bashの補完スクリプトを生成する。
+     * スクリプトは、カーソルまでの行を{@code program __complete <行>}として渡し、一行に一つずつ出力された候補を使う。
+     * プログラムは、最初の引数が{@link #HOOK}の場合に、次の引数を{@link #completeLine(CharSequence)}に渡して候補を出力すること。
+     *
+     * @param program プログラム名。
+     * @return {@code source}で読み込むスクリプト
+     */
+    public static String bashScript(@NonNull String program) {
+        String function = function(program);
+        return """
+                # %1$s のbash補完。source で読み込む。
+                %2$s() {
+                    local IFS=$'\\n'
+                    local line="${COMP_LINE:0:COMP_POINT}"
+                    local cur="${COMP_WORDS[COMP_CWORD]}"
+                    local word="${line##*[[:space:]]}"
+                    local candidates=($(%1$s %3$s "$line" 2>/dev/null))
+                    # 「--name=value」は「=」で別の単語に分けられるため、bashが置き換えない部分を取り除く
+                    local head="${word%%"$cur"}"
+                    COMPREPLY=("${candidates[@]#"$head"}")
+                }
+                complete -o default -F %2$s %1$s
+                """.formatted(program, function, HOOK);
+    }
+
+    /**
+     * zshの補完スクリプトを生成する。
+     *
+     * @param program プログラム名。
+     * @return {@code source}で読み込むか、{@code _<program>}として{@code fpath}に置くスクリプト
+     * @see #bashScript(String)
+     */
+    public static String zshScript(@NonNull String program) {
+        String function = function(program);
+        return """
+                #compdef %1$s
+                # %1$s のzsh補完。
+                %2$s() {
+                    local -a candidates
+                    candidates=("${(@f)$(%1$s %3$s "${(j: :)words[1,CURRENT]}" 2>/dev/null)}")
+                    compadd -Q -U -- "${candidates[@]}"
+                }
+                compdef %2$s %1$s
+                """.formatted(program, function, HOOK);
+    }
+
+    /**
+     * @return スクリプトで使う関数名
+     */
+    private static String function(String program) {
+        if (program.isEmpty() || !program.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.')) {
+            throw new IllegalArgumentException("プログラム名には、英数字・「-」「_」「.」だけを使ってください。");
+        }
+        return "_" + program.replaceAll("[-.]", "_") + "_complete";
+    }
+
+    /**
+     * {@link Completer}のビルダー。
+     */
+    public static final class Builder {
+        private final CommandOptions options;
+        private final CommandRegistry registry;
+        private final Map<String, List<String>> values = new HashMap<>();
+
+        private Builder(CommandOptions options, CommandRegistry registry) {
+            this.options = options;
+            this.registry = registry;
+        }
+
+        /**
+         * 引数の値の候補を登録する。
+         *
+         * @param managementName 候補を登録するオプションの管理名。同じ管理名の全てのコマンドのオプションで使う。
+         * @param values         値の候補。
+         * @return 自分自身
+         */
+        public Builder values(@NonNull String managementName, @NonNull Collection<String> values) {
+            this.values.put(managementName, List.copyOf(new TreeSet<>(values)));
+            return this;
+        }
+
+        public Completer build() {
+            return new Completer(options, registry, Map.copyOf(values));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.option.Option;
+
+/**
+ * {@link ParsedOptions}から値を読み出すための、型付きのキー。
+ * {@link CommandOptions.Generator}がオプションを追加するときに生成する。
+ * 序数を直接持っているため、読み出し時に文字列のハッシュ計算やボクシングが発生しない。
+ *
+ * @param <T> 値の型。{@link Integer}・{@link Double}・{@link Boolean}・{@link String}のいずれか。
+ *            リスト型のオプションは、{@code int[]}・{@code double[]}・{@code String[]}のいずれか。
+ */
+public final class OptionKey<T> {
+    private final Option option;
+    private final int ordinal;
+
+    OptionKey(Option option, int ordinal) {
+        this.option = option;
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * オプションの値の型を調べる。
+     * 排他オプション・サブコマンドは選ばれた表示名を、NONEのオプションは指定されたかどうかを値とする。
+     *
+     * @param option 調べるオプション。
+     * @return 値の型
+     */
+    static Class<?> valueType(Option option) {
+        // サブコマンドも排他として生成される
+        if (option.exclusive()) return String.class;
+        return switch (option.type()) {
+            case NONE, BOOLEAN -> Boolean.class;
+            case STRING -> String.class;
+            case INTEGER -> Integer.class;
+            case DOUBLE -> Double.class;
+            case INTEGER_LIST -> int[].class;
+            case DOUBLE_LIST -> double[].class;
+            case STRING_LIST -> String[].class;
+        };
+    }
+
+    Option option() {
+        return option;
+    }
+
+    /**
+     * @return オプションの序数
+     */
+    public int ordinal() {
+        return ordinal;
+    }
+
+    public String managementName() {
+        return option.managementName();
+    }
+
+    @Override
+    public String toString() {
+        return "OptionKey{" + "managementName='" + option.managementName() + '\'' + ", ordinal=" + ordinal + '}';
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * トークン列をキーにして、パース結果を保持するキャッシュ。
+ * 同じトークン列が繰り返しパースされる場合、二回目以降はパースせずに前回の結果を返す。
+ * 結果は変更できない{@link Map}で返すため、呼び出し元の間で共有してよい。
+ * {@link ParseResult}のリスト型の値は読み出すたびにコピーされるため、読み出した配列を変更しても保持している結果は変わらない。
+ * <p>
+ * 保持する件数には上限があり、超えた場合は最も長く使われていないものから捨てる(LRU)。
+ * 競合を減らすため、キーのハッシュ値で分割した区画ごとにロックする。
+ * 失敗した結果も保持するが、成功した結果とは別の小さい上限を設けるため、不正な入力が続いても成功した結果は捨てられない。
+ * 複数のスレッドから同時にパースしてよい。
+ */
+public final class ParseCache {
+    /**
+     * 区画の最大数。
+     */
+    private static final int MAX_SEGMENTS = 16;
+    /**
+     * 失敗した結果の上限の、成功した結果の上限に対する割合の逆数。
+     */
+    private static final int FAILURE_RATIO = 8;
+
+    private final CommandOptions options;
+    private final Segment<Map<String, ParseResult>>[] successes;
+    private final Segment<ParseError>[] failures;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    ParseCache(CommandOptions options, int maximumSize) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("上限は1以上にしてください。");
+        this.options = options;
+        this.successes = segments(maximumSize);
+        this.failures = segments(Math.max(1, maximumSize / FAILURE_RATIO));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <V> Segment<V>[] segments(int maximumSize) {
+        // 区画が小さくなりすぎないよう、一区画あたり16件以上にする
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maximumSize / 16)));
+        Segment<V>[] segments = new Segment[count];
+        int capacity = (maximumSize + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(capacity);
+        }
+        return segments;
+    }
+
+    /**
+     * @param commands パースするトークン列。
+     * @return 管理名をキーにした、変更できない結果
+     * @see CommandOptions#parse(List)
+     */
+    public Map<String, ParseResult> parse(List<String> commands) throws OptionParseException {
+        int hash = commands.hashCode();
+        Segment<Map<String, ParseResult>> success = segment(successes, hash);
+        Map<String, ParseResult> cached = success.find(commands);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        Segment<ParseError> failure = segment(failures, hash);
+        ParseError error = failure.find(commands);
+        if (error != null) {
+            hits.increment();
+            throw error.toException();
+        }
+
+        misses.increment();
+        // 呼び出し元がトークン列を変更しても影響しないよう、複製してキーにする
+        List<String> key = List.copyOf(commands);
+        switch (options.tryParse(key)) {
+            case ParseOutcome.Success s -> {
+                Map<String, ParseResult> result = Collections.unmodifiableMap(s.options().toMap());
+                success.store(key, result);
+                return result;
+            }
+            case ParseOutcome.Failure f -> {
+                failure.store(key, f.error());
+                throw f.error().toException();
+            }
+        }
+    }
+
+    private static <V> Segment<V> segment(Segment<V>[] segments, int hash) {
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * @return 保持していた結果を返した回数。失敗した結果を含む。
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return 保持していなかったため、パースした回数
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return 現在保持している結果の数。失敗した結果を含む。
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<?> segment : successes) size += segment.count();
+        for (Segment<?> segment : failures) size += segment.count();
+        return size;
+    }
+
+    /**
+     * 保持している結果を全て捨てる。回数は変わらない。
+     */
+    public void clear() {
+        for (Segment<?> segment : successes) segment.clearAll();
+        for (Segment<?> segment : failures) segment.clearAll();
+    }
+
+    /**
+     * 一区画。アクセス順の{@link LinkedHashMap}で、上限を超えたら最も古いものを捨てる。
+     */
+    private static final class Segment<V> extends LinkedHashMap<List<String>, V> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, V> eldest) {
+            return size() > capacity;
+        }
+
+        synchronized V find(List<String> key) {
+            return get(key);
+        }
+
+        synchronized void store(List<String> key, V value) {
+            put(key, value);
+        }
+
+        synchronized int count() {
+            return size();
+        }
+
+        synchronized void clearAll() {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import lombok.NonNull;
+
+/**
+ * {@link CommandOptions#tryParse(java.util.List)}などの結果。成功か失敗のどちらか。
+ * 失敗しても例外を生成しないため、不正な入力が多い場合に使う。
+ */
+public sealed interface ParseOutcome permits ParseOutcome.Success, ParseOutcome.Failure {
+    boolean isSuccess();
+
+    /**
+     * @return 成功した場合は結果
+     * @throws OptionParseException 失敗した場合
+     */
+    ParsedOptions orElseThrow() throws OptionParseException;
+
+    /**
+     * @param options パースした結果。
+     */
+    record Success(@NonNull ParsedOptions options) implements ParseOutcome {
+        @Override
+        public boolean isSuccess() {
+            return true;
+        }
+
+        @Override
+        public ParsedOptions orElseThrow() {
+            return options;
+        }
+    }
+
+    /**
+     * @param error 失敗の理由。
+     */
+    record Failure(@NonNull ParseError error) implements ParseOutcome {
+        @Override
+        public boolean isSuccess() {
+            return false;
+        }
+
+        @Override
+        public ParsedOptions orElseThrow() throws OptionParseException {
+            throw error.toException();
+        }
+    }
+}
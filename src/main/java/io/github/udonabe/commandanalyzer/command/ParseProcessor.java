@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+
+/**
+ * 上流から受け取った入力をパースし、{@link ParseOutcome}として下流に流す{@link Flow.Processor}。
+ * {@link #builder(CommandOptions)}で生成する。
+ * <p>
+ * パースは最大{@link Builder#parallelism(int)}個のタスクで並列に行うが、結果は入力と同じ順番で下流に渡す。
+ * 上流には、下流が要求した数を超えて要求しない。また、パース中・下流に渡す前の入力は{@link Builder#bufferSize(int)}個までに抑えるため、
+ * 下流が遅くても結果が際限なく溜まることはない。
+ * <p>
+ * 購読できる下流は一つだけ。二つ目以降の購読者には、{@link IllegalStateException}を{@code onError}で通知する。
+ * 上流が{@code onError}で終了した場合は、それまでに受け取った入力の結果を全て渡してから通知する。
+ *
+ * @param <T> 入力の型。トークン列か一行のコマンド。
+ */
+public final class ParseProcessor<T> implements Flow.Processor<T, ParseOutcome> {
+    private final CommandOptions options;
+    private final BiFunction<CommandOptions, T, ParseOutcome> parser;
+    private final Executor executor;
+    private final int parallelism;
+    private final int bufferSize;
+
+    /**
+     * パースを待つ入力。
+     */
+    private final Queue<Task<T>> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * 下流に渡す前の結果。入力の番号を{@link #bufferSize}で割った余りの位置に置く。
+     */
+    private final AtomicReferenceArray<ParseOutcome> results;
+    /**
+     * 実行中のタスクの数。
+     */
+    private final AtomicInteger workers = new AtomicInteger();
+    /**
+     * {@link #drain()}の呼び出し回数。{@code 0}でなければ、他のスレッドが下流に渡している。
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+    /**
+     * 下流が要求し、まだ渡していない数。
+     */
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    private final AtomicReference<Flow.Subscriber<? super ParseOutcome>> subscribed = new AtomicReference<>();
+    /**
+     * {@code onSubscribe}を呼び終えた下流。
+     */
+    private volatile Flow.Subscriber<? super ParseOutcome> downstream;
+
+    /**
+     * 上流から受け取った入力の数。{@link #onNext(Object)}だけが書き込む。
+     */
+    private volatile long received;
+    private volatile boolean done;
+    private volatile Throwable upstreamError;
+    /**
+     * パースやスケジュールの失敗、下流の不正な要求。結果の順番を待たずに、すぐに下流に通知する。
+     */
+    private volatile Throwable failure;
+    private volatile boolean cancelled;
+
+    // 以下は drain() の中だけで読み書きする
+    /**
+     * 下流に渡した数。
+     */
+    private long delivered;
+    /**
+     * 上流に要求し、まだ下流に渡していない数。
+     */
+    private long outstanding;
+
+    private ParseProcessor(Builder builder, BiFunction<CommandOptions, T, ParseOutcome> parser) {
+        this.options = builder.options;
+        this.parser = parser;
+        this.executor = builder.executor;
+        this.parallelism = builder.parallelism;
+        this.bufferSize = builder.bufferSize;
+        this.results = new AtomicReferenceArray<>(bufferSize);
+    }
+
+    /**
+     * @param options パースに使うコマンド。
+     * @return 生成したビルダー
+     */
+    public static Builder builder(@NonNull CommandOptions options) {
+        return new Builder(options);
+    }
+
+    @Override
+    public void subscribe(@NonNull Flow.Subscriber<? super ParseOutcome> subscriber) {
+        if (!subscribed.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("ParseProcessorを購読できるのは一つだけです。"));
+            return;
+        }
+        subscriber.onSubscribe(new Output());
+        downstream = subscriber;
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(@NonNull Flow.Subscription subscription) {
+        if (!upstream.compareAndSet(null, subscription) || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(T item) {
+        Objects.requireNonNull(item, "item");
+        if (done || cancelled) return;
+        long index = received;
+        queue.offer(new Task<>(index, item));
+        received = index + 1;
+        schedule();
+    }
+
+    @Override
+    public void onError(@NonNull Throwable throwable) {
+        if (done) return;
+        upstreamError = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    /**
+     * 実行中のタスクが{@link #parallelism}より少なければ、新しいタスクを開始する。
+     */
+    private void schedule() {
+        int count;
+        while ((count = workers.get()) < parallelism) {
+            if (!workers.compareAndSet(count, count + 1)) continue;
+            try {
+                executor.execute(this::work);
+            } catch (RejectedExecutionException e) {
+                workers.decrementAndGet();
+                fail(e);
+            }
+            return;
+        }
+    }
+
+    private void work() {
+        Task<T> task;
+        while (!cancelled && (task = queue.poll()) != null) {
+            ParseOutcome outcome;
+            try {
+                outcome = Objects.requireNonNull(parser.apply(options, task.input()), "outcome");
+            } catch (RuntimeException | Error e) {
+                workers.decrementAndGet();
+                fail(e);
+                return;
+            }
+            results.set((int) (task.index() % bufferSize), outcome);
+            drain();
+        }
+        workers.decrementAndGet();
+        // 終了を決めてから減らすまでの間に追加された入力を拾う
+        if (!cancelled && !queue.isEmpty()) schedule();
+    }
+
+    private void fail(Throwable throwable) {
+        if (failure == null) failure = throwable;
+        drain();
+    }
+
+    /**
+     * 順番が来た結果を下流に渡し、空いた分だけ上流に要求する。
+     * 同時に一つのスレッドだけが実行し、実行中に呼ばれた分は実行中のスレッドがやり直す。
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) return;
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super ParseOutcome> subscriber = downstream;
+            if (subscriber != null && !cancelled) {
+                Throwable failure = this.failure;
+                if (failure != null) {
+                    cancel();
+                    subscriber.onError(failure);
+                } else {
+                    deliver(subscriber);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void deliver(Flow.Subscriber<? super ParseOutcome> subscriber) {
+        long demand = requested.get();
+        long emitted = 0;
+        while (emitted < demand && !cancelled) {
+            int slot = (int) (delivered % bufferSize);
+            ParseOutcome outcome = results.get(slot);
+            if (outcome == null) break;
+            results.set(slot, null);
+            delivered++;
+            outstanding--;
+            emitted++;
+            subscriber.onNext(outcome);
+        }
+        if (emitted > 0 && demand != Long.MAX_VALUE) demand = requested.addAndGet(-emitted);
+        if (cancelled) return;
+
+        // receivedはdoneより前に書き込まれるため、doneを先に読む
+        if (done) {
+            if (delivered == received) {
+                cancelled = true;
+                Throwable error = upstreamError;
+                if (error != null) subscriber.onError(error);
+                else subscriber.onComplete();
+            }
+            return;
+        }
+        Flow.Subscription subscription = upstream.get();
+        long n = Math.min(demand, bufferSize) - outstanding;
+        if (subscription != null && n > 0) {
+            outstanding += n;
+            subscription.request(n);
+        }
+    }
+
+    private void cancel() {
+        cancelled = true;
+        Flow.Subscription subscription = upstream.get();
+        if (subscription != null) subscription.cancel();
+        queue.clear();
+    }
+
+    /**
+     * @param index 入力の番号。
+     * @param input 入力。
+     */
+    private record Task<T>(long index, T input) {
+    }
+
+    /**
+     * 下流に渡す購読。
+     */
+    private final class Output implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("要求する数は正の数にしてください。要求された数: " + n));
+                return;
+            }
+            requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            ParseProcessor.this.cancel();
+        }
+    }
+
+    /**
+     * {@link ParseProcessor}のビルダー。
+     */
+    public static final class Builder {
+        private final CommandOptions options;
+        private Executor executor = ForkJoinPool.commonPool();
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int bufferSize = Flow.defaultBufferSize();
+
+        private Builder(CommandOptions options) {
+            this.options = options;
+        }
+
+        /**
+         * @param executor パースを実行するスレッドプール。デフォルトは{@link ForkJoinPool#commonPool()}。
+         * @return 自分自身
+         */
+        public Builder executor(@NonNull Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param parallelism 同時にパースする最大の数。デフォルトは利用できるプロセッサの数。
+         * @return 自分自身
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) throw new IllegalArgumentException("並列数は正の数にしてください。");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param bufferSize パース中・下流に渡す前の入力の上限。デフォルトは{@link Flow#defaultBufferSize()}。
+         *                   並列数より小さい場合は、並列数まで同時にパースできない。
+         * @return 自分自身
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize <= 0) throw new IllegalArgumentException("バッファの大きさは正の数にしてください。");
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * @return トークン列を{@link CommandOptions#tryParse(List)}でパースするプロセッサ
+         */
+        public ParseProcessor<List<String>> tokens() {
+            return new ParseProcessor<>(this, CommandOptions::tryParse);
+        }
+
+        /**
+         * @return 一行のコマンドを{@link CommandOptions#tryParse(CharSequence)}でパースするプロセッサ
+         */
+        public ParseProcessor<CharSequence> lines() {
+            return new ParseProcessor<>(this, CommandOptions::tryParse);
+        }
+    }
+}
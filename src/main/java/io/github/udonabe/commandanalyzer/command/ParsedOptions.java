@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.parser.ParseContext;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 序数で値を引くパース結果。
+ * 値はオプションの序数ごとの基本型の配列に格納されており、{@link OptionKey}で読み出す。
+ * {@link CommandOptions#parseInto(List, ParsedOptions)}で使い回すことができるが、スレッド間では共有しないこと。
+ * パース中に例外が発生した場合、内容は不定になる。
+ * {@link Conversion#LAZY}で生成した場合、引数は初めて読み出されたときに変換され、
+ * 型が異なる場合は読み出し時に{@link IllegalStateException}が発生する。
+ * リスト型のオプションの値は、{@link Conversion#LAZY}の場合もパース時に変換する。
+ */
+public final class ParsedOptions {
+    private final ParseContext context;
+
+    ParsedOptions(ParseContext context) {
+        this.context = context;
+    }
+
+    ParseContext context() {
+        return context;
+    }
+
+    /**
+     * @param key 調べるオプションのキー。
+     * @return オプションが指定されたかどうか
+     */
+    public boolean isPresent(@NonNull OptionKey<?> key) {
+        return context.consumed(ordinal(key));
+    }
+
+    public int getInt(@NonNull OptionKey<Integer> key) {
+        return getInt(key, 0);
+    }
+
+    public int getInt(@NonNull OptionKey<Integer> key, int def) {
+        int ordinal = ordinal(key);
+        return context.consumed(ordinal) ? context.getInt(ordinal) : def;
+    }
+
+    public double getDouble(@NonNull OptionKey<Double> key) {
+        return getDouble(key, 0.0);
+    }
+
+    public double getDouble(@NonNull OptionKey<Double> key, double def) {
+        int ordinal = ordinal(key);
+        return context.consumed(ordinal) ? context.getDouble(ordinal) : def;
+    }
+
+    public boolean getBoolean(@NonNull OptionKey<Boolean> key) {
+        return getBoolean(key, false);
+    }
+
+    public boolean getBoolean(@NonNull OptionKey<Boolean> key, boolean def) {
+        int ordinal = ordinal(key);
+        return context.consumed(ordinal) ? context.getBoolean(ordinal) : def;
+    }
+
+    /**
+     * 文字列の値を読み出す。排他オプションでは選ばれた表示名、サブコマンドでは指定された名前を返す。
+     */
+    public String getString(@NonNull OptionKey<String> key) {
+        return getString(key, null);
+    }
+
+    public String getString(@NonNull OptionKey<String> key, String def) {
+        int ordinal = ordinal(key);
+        return context.consumed(ordinal) ? context.getString(ordinal) : def;
+    }
+
+    /**
+     * @param key 調べるリスト型のオプションのキー。
+     * @return 受け取った値の数。指定されていない場合は0。
+     */
+    public int size(@NonNull OptionKey<?> key) {
+        return context.listSize(ordinal(key));
+    }
+
+    /**
+     * @return 受け取った値をコピーした配列。指定されていない場合は空の配列。
+     */
+    public int[] getInts(@NonNull OptionKey<int[]> key) {
+        return context.getInts(ordinal(key));
+    }
+
+    /**
+     * 受け取った値を、配列をコピーせずに一つ読み出す。
+     *
+     * @param index 指定された順での位置。
+     * @throws IndexOutOfBoundsException {@code index}が{@link #size(OptionKey)}以上の場合
+     */
+    public int getIntAt(@NonNull OptionKey<int[]> key, int index) {
+        return context.getInt(ordinal(key), index);
+    }
+
+    public double[] getDoubles(@NonNull OptionKey<double[]> key) {
+        return context.getDoubles(ordinal(key));
+    }
+
+    public double getDoubleAt(@NonNull OptionKey<double[]> key, int index) {
+        return context.getDouble(ordinal(key), index);
+    }
+
+    public String[] getStrings(@NonNull OptionKey<String[]> key) {
+        return context.getStrings(ordinal(key));
+    }
+
+    public String getStringAt(@NonNull OptionKey<String[]> key, int index) {
+        return context.getString(ordinal(key), index);
+    }
+
+    /**
+     * {@link CommandOptions#parse(List)}と同じ形式に変換する。
+     *
+     * @return 管理名をキーにした結果
+     */
+    public Map<String, ParseResult> toMap() {
+        return context.toResultMap();
+    }
+
+    /**
+     * 引数を変換する時期。
+     */
+    public enum Conversion {
+        /**
+         * パース時に全ての引数を変換する。型が異なる場合は、パース時に{@link io.github.udonabe.commandanalyzer.OptionParseException}が発生する。
+         */
+        EAGER,
+        /**
+         * パース時にはトークンの位置だけを記録し、初めて読み出されたときに変換する。変換結果は記録され、二回目以降は変換しない。
+         * 読み出さないオプションの変換は行われないため、指定されたオプションの組み合わせだけを検証したい場合に向く。
+         */
+        LAZY
+    }
+
+    private int ordinal(OptionKey<?> key) {
+        int ordinal = key.ordinal();
+        if (ordinal >= context.plan().size() || context.plan().option(ordinal) != key.option()) {
+            throw new IllegalArgumentException("別のCommandOptionsのキーが指定されました。キー: " + key);
+        }
+        return ordinal;
+    }
+}
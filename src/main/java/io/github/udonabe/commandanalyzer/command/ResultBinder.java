@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.parser.ParseContext;
+import io.github.udonabe.commandanalyzer.parser.ParsePlan;
+import lombok.NonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * パース結果を、利用者のレコード・クラスに直接詰める。
+ * {@link CommandOptions#binder(Class, MethodHandles.Lookup)}で生成する。
+ * <p>
+ * レコードの構成要素・クラスのフィールドは、名前が同じ管理名のオプションに対応させる。
+ * 生成時に、対応する序数から値を読み出してコンストラクタ・フィールドに渡す{@link MethodHandle}を一つに組み立てておく。
+ * そのため、詰めるときに管理名での検索・リフレクション・ボクシングは発生しない。
+ * 指定されなかったオプションは、{@code 0}・{@code false}・{@code null}、リスト型の場合は空の配列になる。
+ * <p>
+ * 生成後は変更されないため、複数のスレッドから同時に使ってよい。
+ *
+ * @param <T> 詰める型。
+ */
+public final class ResultBinder<T> {
+    /**
+     * 値の型ごとの、{@code (ParseContext, int)}で序数の値を読み出すハンドル。
+     */
+    private static final Map<Class<?>, MethodHandle> GETTERS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            GETTERS = Map.of(
+                    int.class, getter(lookup, "intValue", int.class),
+                    double.class, getter(lookup, "doubleValue", double.class),
+                    boolean.class, getter(lookup, "booleanValue", boolean.class),
+                    String.class, getter(lookup, "stringValue", String.class),
+                    int[].class, getter(lookup, "intValues", int[].class),
+                    double[].class, getter(lookup, "doubleValues", double[].class),
+                    String[].class, getter(lookup, "stringValues", String[].class)
+            );
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle getter(MethodHandles.Lookup lookup, String name, Class<?> type) throws ReflectiveOperationException {
+        return lookup.findStatic(ResultBinder.class, name, MethodType.methodType(type, ParseContext.class, int.class));
+    }
+
+    private final CommandOptions options;
+    private final Class<T> type;
+    /**
+     * {@code (ParseContext)Object}。結果から{@link #type}のインスタンスを生成する。
+     */
+    private final MethodHandle factory;
+
+    ResultBinder(CommandOptions options, Class<T> type, MethodHandles.Lookup lookup) {
+        this.options = options;
+        this.type = type;
+        try {
+            MethodHandle factory = type.isRecord() ? recordFactory(options.plan(), type, lookup) : classFactory(options.plan(), type, lookup);
+            this.factory = factory.asType(MethodType.methodType(Object.class, ParseContext.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(type.getName() + "に値を詰められません。", e);
+        }
+    }
+
+    /**
+     * パースし、結果を詰めたインスタンスを返す。
+     *
+     * @param commands パースするトークン列。
+     * @return 結果を詰めたインスタンス
+     */
+    public T parse(List<String> commands) throws OptionParseException {
+        return bind(options.parseIndexed(commands));
+    }
+
+    /**
+     * 既存の{@link ParsedOptions}を使い回してパースし、結果を詰めたインスタンスを返す。
+     *
+     * @param commands パースするトークン列。
+     * @param reuse    同じ{@link CommandOptions}の{@link CommandOptions#newResult()}で生成した結果。
+     * @return 結果を詰めたインスタンス
+     * @see CommandOptions#parseInto(List, ParsedOptions)
+     */
+    public T parse(List<String> commands, @NonNull ParsedOptions reuse) throws OptionParseException {
+        return bind(options.parseInto(commands, reuse));
+    }
+
+    /**
+     * パース済みの結果を詰める。
+     *
+     * @param parsed 同じ{@link CommandOptions}でパースした結果。
+     * @return 結果を詰めたインスタンス
+     */
+    public T bind(@NonNull ParsedOptions parsed) {
+        ParseContext context = parsed.context();
+        if (context.plan() != options.plan()) throw new IllegalArgumentException("別のCommandOptionsの結果が指定されました。");
+        try {
+            return type.cast((Object) factory.invokeExact(context));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(type.getName() + "の生成に失敗しました。", e);
+        }
+    }
+
+    /**
+     * 構成要素ごとの値を読み出して、標準コンストラクタに渡すハンドルを組み立てる。
+     *
+     * @return {@code (ParseContext)T}
+     */
+    private static MethodHandle recordFactory(ParsePlan plan, Class<?> type, MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameters = new Class<?>[components.length];
+        MethodHandle[] values = new MethodHandle[components.length];
+        for (int i = 0; i < components.length; i++) {
+            parameters[i] = components[i].getType();
+            int ordinal = ordinal(plan, components[i].getName());
+            if (ordinal < 0) throw new IllegalArgumentException("管理名が" + components[i].getName() + "のオプションがありません。");
+            values[i] = value(plan, ordinal, parameters[i]);
+        }
+
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameters));
+        // (ParseContext, ParseContext, ...)T を、同じ結果を全ての引数に渡す(ParseContext)Tにする
+        MethodHandle filtered = MethodHandles.filterArguments(constructor, 0, values);
+        return MethodHandles.permuteArguments(filtered, MethodType.methodType(type, ParseContext.class), new int[components.length]);
+    }
+
+    /**
+     * 引数の無いコンストラクタで生成し、管理名と同じ名前のフィールドに値を代入するハンドルを組み立てる。
+     * 対応するオプションが無いフィールド・staticなフィールドは変更しない。
+     *
+     * @return {@code (ParseContext)T}
+     */
+    private static MethodHandle classFactory(ParsePlan plan, Class<?> type, MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+        // (T, ParseContext)void。代入を順番に行う
+        MethodHandle assign = null;
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            int ordinal = ordinal(plan, field.getName());
+            if (ordinal < 0) continue;
+
+            MethodHandle setter = lookup.findSetter(type, field.getName(), field.getType());
+            setter = MethodHandles.filterArguments(setter, 1, value(plan, ordinal, field.getType()));
+            assign = assign == null ? setter : MethodHandles.foldArguments(setter, assign);
+        }
+
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+        MethodHandle instance = MethodHandles.dropArguments(MethodHandles.identity(type), 1, ParseContext.class);
+        if (assign != null) instance = MethodHandles.foldArguments(instance, assign);
+        return MethodHandles.collectArguments(instance, 0, constructor);
+    }
+
+    /**
+     * @return 管理名が{@code name}のオプションの序数。無い場合は-1。
+     */
+    private static int ordinal(ParsePlan plan, String name) {
+        for (int i = 0; i < plan.size(); i++) {
+            if (plan.option(i).managementName().equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return {@code (ParseContext)valueType}。序数{@code ordinal}の値を読み出す。
+     */
+    private static MethodHandle value(ParsePlan plan, int ordinal, Class<?> valueType) {
+        Class<?> expected = OptionKey.valueType(plan.option(ordinal));
+        Class<?> primitive = expected == Integer.class ? int.class
+                : expected == Double.class ? double.class
+                : expected == Boolean.class ? boolean.class
+                : expected;
+        if (valueType != primitive) {
+            throw new IllegalArgumentException("値の型が異なります。管理名: " + plan.option(ordinal).managementName()
+                                               + ", 期待型: " + primitive.getSimpleName() + ", 指定された型: " + valueType.getSimpleName());
+        }
+        MethodHandle getter = GETTERS.get(valueType);
+        return MethodHandles.insertArguments(getter, 1, ordinal);
+    }
+
+    private static int intValue(ParseContext context, int ordinal) {
+        return context.consumed(ordinal) ? context.getInt(ordinal) : 0;
+    }
+
+    private static double doubleValue(ParseContext context, int ordinal) {
+        return context.consumed(ordinal) ? context.getDouble(ordinal) : 0.0;
+    }
+
+    private static boolean booleanValue(ParseContext context, int ordinal) {
+        return context.consumed(ordinal) && context.getBoolean(ordinal);
+    }
+
+    private static String stringValue(ParseContext context, int ordinal) {
+        return context.consumed(ordinal) ? context.getString(ordinal) : null;
+    }
+
+    private static int[] intValues(ParseContext context, int ordinal) {
+        return context.getInts(ordinal);
+    }
+
+    private static double[] doubleValues(ParseContext context, int ordinal) {
+        return context.getDoubles(ordinal);
+    }
+
+    private static String[] stringValues(ParseContext context, int ordinal) {
+        return context.getStrings(ordinal);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import io.github.udonabe.commandanalyzer.parser.ParsePlan;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * 生成済みの{@link CommandOptions}の一覧を保存・読み込みする、小さいバイナリ形式。
+ * 大量のコマンドを起動時に生成する場合、{@link CommandOptions.Generator}による検査やオブジェクトの生成に時間がかかる。
+ * 一度生成して検査を通った一覧を保存しておけば、次からは検査を省略して、実行計画の形で直接読み込める。
+ * 表示名の重複だけは、読み込み時にも検査する。
+ * <p>
+ * 形式は、先頭に識別子とバージョン、続いて重複を除いた文字列の表、最後に序数順に並べた各コマンドのオプションを書く。
+ * 数値は可変長で書き、文字列は表の番号で参照するため、同じ文字列は一度しか書かない。
+ * {@link CommandOptions.Generator#listener(io.github.udonabe.commandanalyzer.metrics.ParseListener)}で設定したリスナーは保存しない。
+ */
+public final class SchemaImage {
+    /**
+     * ファイルの先頭に書く識別子。「CASI」。
+     */
+    private static final int MAGIC = 0x43415349;
+    private static final int VERSION = 1;
+
+    private static final int HAS_SUBCOMMAND = 1;
+
+    private static final int KIND_SUBCOMMAND = 0;
+    private static final int KIND_OPTION = 1;
+    private static final int KIND_ARGUMENT = 2;
+
+    private static final int REQUIRED = 1;
+    private static final int EXCLUSIVE = 1 << 1;
+    private static final int HAS_DESCRIPTION = 1 << 2;
+
+    private static final ArgType[] TYPES = ArgType.values();
+    private static final OptionDisplay.PrefixKind[] PREFIXES = OptionDisplay.PrefixKind.values();
+
+    private SchemaImage() {
+    }
+
+    /**
+     * {@code schemas}をファイルに保存する。既にある場合は上書きする。
+     *
+     * @param schemas 保存するコマンドの一覧。
+     * @param file    保存先。
+     */
+    public static void write(@NonNull Collection<CommandOptions> schemas, @NonNull Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(schemas, out);
+        }
+    }
+
+    /**
+     * {@code schemas}を書き込む。{@code out}は閉じない。
+     *
+     * @param schemas 保存するコマンドの一覧。
+     * @param out     書き込み先。
+     */
+    public static void write(@NonNull Collection<CommandOptions> schemas, @NonNull OutputStream out) throws IOException {
+        // 文字列の表を先に書くため、本体は一度メモリに書く
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeVarInt(body, schemas.size());
+        for (CommandOptions schema : schemas) {
+            writeSchema(body, schema.plan(), strings);
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        writeVarInt(data, strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(data, bytes.length);
+            data.write(bytes);
+        }
+        body.writeTo(data);
+        data.flush();
+    }
+
+    private static void writeSchema(OutputStream out, ParsePlan plan, Map<String, Integer> strings) throws IOException {
+        boolean[] positional = new boolean[plan.size()];
+        for (int i = 0; i < plan.positionalCount(); i++) {
+            positional[plan.positionalOrdinal(i)] = true;
+        }
+
+        out.write(plan.hasSubCommand() ? HAS_SUBCOMMAND : 0);
+        writeVarInt(out, plan.size());
+        for (int ordinal = 0; ordinal < plan.size(); ordinal++) {
+            Option option = plan.option(ordinal);
+            int kind = plan.hasSubCommand() && ordinal == 0 ? KIND_SUBCOMMAND : positional[ordinal] ? KIND_ARGUMENT : KIND_OPTION;
+            out.write(kind);
+            out.write(option.type().ordinal());
+            out.write((option.required() ? REQUIRED : 0)
+                      | (option.exclusive() ? EXCLUSIVE : 0)
+                      | (option.description() != null ? HAS_DESCRIPTION : 0));
+            writeVarInt(out, string(strings, option.managementName()));
+            if (option.description() != null) writeVarInt(out, string(strings, option.description()));
+
+            Set<OptionDisplay> displays = option.displays();
+            writeVarInt(out, displays.size());
+            for (OptionDisplay display : displays) {
+                out.write(display.prefix().ordinal());
+                writeVarInt(out, string(strings, display.display()));
+            }
+        }
+    }
+
+    /**
+     * @return 文字列の表での番号。無い場合は追加する。
+     */
+    private static int string(Map<String, Integer> strings, String string) {
+        Integer index = strings.get(string);
+        if (index != null) return index;
+        strings.put(string, strings.size());
+        return strings.size() - 1;
+    }
+
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * ファイルをメモリにマップして読み込む。
+     *
+     * @param file {@link #write(Collection, Path)}で保存したファイル。
+     * @return 保存した順に並べたコマンドの一覧
+     * @throws IOException ファイルを読めない場合・形式が異なる場合
+     */
+    public static List<CommandOptions> load(@NonNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * {@code buffer}の現在位置から読み込む。{@code buffer}の位置は変更しない。
+     *
+     * @param buffer {@link #write(Collection, OutputStream)}で書き込んだ内容。
+     * @return 保存した順に並べたコマンドの一覧
+     * @throws IOException 形式が異なる場合
+     */
+    public static List<CommandOptions> load(@NonNull ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        try {
+            if (in.getInt() != MAGIC) throw new IOException("スキーマファイルではありません。");
+            int version = in.getShort();
+            if (version != VERSION) throw new IOException("対応していないバージョンです。バージョン: " + version);
+
+            String[] strings = new String[readCount(in)];
+            byte[] bytes = new byte[64];
+            for (int i = 0; i < strings.length; i++) {
+                int length = readCount(in);
+                if (length > bytes.length) bytes = new byte[Math.max(length, bytes.length << 1)];
+                in.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+
+            int count = readCount(in);
+            List<CommandOptions> schemas = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                schemas.add(readSchema(in, strings));
+            }
+            return Collections.unmodifiableList(schemas);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException |
+                 IllegalStateException e) {
+            throw new IOException("スキーマファイルが壊れています。", e);
+        }
+    }
+
+    private static CommandOptions readSchema(ByteBuffer in, String[] strings) throws IOException {
+        boolean hasSubCommand = (in.get() & HAS_SUBCOMMAND) != 0;
+        int size = readCount(in);
+        Option[] options = new Option[size];
+        boolean[] positional = new boolean[size];
+        String[][] displays = new String[size][];
+        String[][] fullDisplays = new String[size][];
+
+        Option subCommand = null;
+        Set<Option> normalOptions = new LinkedHashSet<>();
+        List<Option> positionalArgs = new ArrayList<>();
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int kind = in.get();
+            if ((kind == KIND_SUBCOMMAND) != (hasSubCommand && ordinal == 0)) throw new IOException("スキーマファイルが壊れています。");
+            ArgType type = TYPES[in.get()];
+            int flags = in.get();
+            if ((flags & EXCLUSIVE) != 0 && kind == KIND_OPTION && type != ArgType.NONE) throw new IOException("スキーマファイルが壊れています。");
+            String managementName = strings[readVarInt(in)];
+            String description = (flags & HAS_DESCRIPTION) != 0 ? strings[readVarInt(in)] : null;
+
+            int count = readCount(in);
+            OptionDisplay[] optionDisplays = new OptionDisplay[count];
+            displays[ordinal] = new String[count];
+            fullDisplays[ordinal] = new String[count];
+            for (int i = 0; i < count; i++) {
+                OptionDisplay.PrefixKind prefix = PREFIXES[in.get()];
+                String display = strings[readVarInt(in)];
+                optionDisplays[i] = new OptionDisplay(prefix, display);
+                displays[ordinal][i] = display;
+                fullDisplays[ordinal][i] = prefix.getPrefix() + display;
+            }
+
+            // 保存前に検査済みのため、CommandOptions.Generatorを通さない
+            Option option = switch (kind) {
+                case KIND_SUBCOMMAND -> subCommand = Option.subCommand(Set.of(displays[ordinal]), description, managementName);
+                case KIND_OPTION -> {
+                    Option normal = Option.normalOption(Set.of(optionDisplays), type, (flags & REQUIRED) != 0, description, managementName);
+                    if ((flags & EXCLUSIVE) != 0) normal = normal.toExclusive();
+                    normalOptions.add(normal);
+                    yield normal;
+                }
+                case KIND_ARGUMENT -> {
+                    Option argument = Option.argument(type, description, managementName);
+                    positional[ordinal] = true;
+                    positionalArgs.add(argument);
+                    yield argument;
+                }
+                default -> throw new IOException("スキーマファイルが壊れています。");
+            };
+            options[ordinal] = option;
+        }
+
+        ParsePlan plan = ParsePlan.link(options, hasSubCommand, positional, displays, fullDisplays);
+        return new CommandOptions(subCommand, Collections.unmodifiableSet(normalOptions), List.copyOf(positionalArgs), plan);
+    }
+
+    /**
+     * 続く要素の数・バイト数を読み込む。一つの要素は1バイト以上になるため、残りのバイト数を超える数は不正とする。
+     */
+    private static int readCount(ByteBuffer in) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0 || count > in.remaining()) throw new IOException("スキーマファイルが壊れています。");
+        return count;
+    }
+
+    private static int readVarInt(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("スキーマファイルが壊れています。");
+    }
+}
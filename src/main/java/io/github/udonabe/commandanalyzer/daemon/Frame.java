@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.daemon;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * デーモンとクライアントの間でやり取りする、一つの要求・応答。
+ * 先頭の4バイトに続く内容の長さを書き、内容の数値は可変長、文字列はUTF-8のバイト数と内容で書く。
+ * 同じインスタンスを、書き込み・読み込みに繰り返し使う。
+ */
+final class Frame {
+    /**
+     * 受け付ける内容の長さの上限。
+     */
+    static final int MAX_LENGTH = 16 << 20;
+
+    private static final int HEADER = 4;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+
+    /**
+     * 書き込みを始める。前の内容は捨てる。
+     */
+    void clear() {
+        buffer.clear();
+        buffer.position(HEADER);
+    }
+
+    void writeByte(int value) {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+
+    void writeVarInt(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * 負の数も短く書けるように、ジグザグ符号化して書く。
+     */
+    void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    void writeDouble(double value) {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * 書き込んだ内容を送る。
+     */
+    void send(WritableByteChannel channel) throws IOException {
+        buffer.putInt(0, buffer.position() - HEADER);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 一つの要求・応答を受け取り、読み込みを始める。
+     *
+     * @return 受け取った場合は{@code true}、先頭で接続が閉じられた場合は{@code false}
+     * @throws IOException 途中で接続が閉じられた場合・長さが不正な場合
+     */
+    boolean receive(ReadableByteChannel channel) throws IOException {
+        buffer.clear().limit(HEADER);
+        if (!readFully(channel) && buffer.position() == 0) return false;
+        if (buffer.hasRemaining()) throw new EOFException();
+
+        int length = buffer.getInt(0);
+        if (length < 0 || length > MAX_LENGTH) throw new IOException("不正な長さです。長さ: " + length);
+        if (buffer.capacity() < length) buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() << 1));
+        buffer.clear().limit(length);
+        if (!readFully(channel)) throw new EOFException();
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * @return 上限まで読み込めた場合は{@code true}
+     */
+    private boolean readFully(ReadableByteChannel channel) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) return false;
+        }
+        return true;
+    }
+
+    int readByte() throws IOException {
+        try {
+            return buffer.get() & 0xFF;
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("不正な数値です。");
+    }
+
+    /**
+     * 続く要素の数を読み込む。一つの要素は1バイト以上になるため、残りのバイト数を超える数は不正とする。
+     *
+     * @return 0以上の要素の数
+     * @throws IOException 数が負の場合・残りのバイト数を超える場合
+     */
+    int readCount() throws IOException {
+        int count = readVarInt();
+        if (count < 0 || count > buffer.remaining()) throw new IOException("不正な要素数です。要素数: " + count);
+        return count;
+    }
+
+    int readSignedVarInt() throws IOException {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    double readDouble() throws IOException {
+        try {
+            return buffer.getDouble();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    String readString() throws IOException {
+        int length = readVarInt();
+        if (length < 0) throw new IOException("不正な長さです。長さ: " + length);
+        if (length > buffer.remaining()) throw new EOFException();
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private void ensure(int size) {
+        if (buffer.remaining() >= size) return;
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() << 1, buffer.position() + size));
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
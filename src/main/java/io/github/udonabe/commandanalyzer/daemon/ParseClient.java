@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.daemon;
+
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import lombok.NonNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.udonabe.commandanalyzer.daemon.ParseDaemon.*;
+
+/**
+ * {@link ParseDaemon}に接続し、パースを依頼するクライアント。
+ * 一つの接続で何度でも依頼できる。スキーマを読み込まないため、生成はソケットを開くだけで済む。
+ * 複数のスレッドから同時に使わないこと。
+ */
+public final class ParseClient implements AutoCloseable {
+    private static final ParseError.Code[] CODES = ParseError.Code.values();
+
+    private final SocketChannel channel;
+    private final Frame frame = new Frame();
+
+    private ParseClient(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @param socket デーモンが待ち受けているソケットのパス。
+     * @return 接続したクライアント
+     * @throws IOException 接続できない場合
+     */
+    public static ParseClient connect(@NonNull Path socket) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new ParseClient(channel);
+    }
+
+    /**
+     * トークン列のパースを依頼する。
+     *
+     * @param schema デーモンに登録したスキーマ名。
+     * @param tokens パースするトークン列。
+     * @return パースの結果
+     * @throws IOException              通信に失敗した場合
+     * @throws IllegalArgumentException スキーマ名が登録されていない場合
+     */
+    public ParseReply parse(@NonNull String schema, @NonNull List<String> tokens) throws IOException {
+        frame.clear();
+        frame.writeByte(KIND_TOKENS);
+        frame.writeString(schema);
+        frame.writeVarInt(tokens.size());
+        for (String token : tokens) {
+            frame.writeString(token);
+        }
+        return exchange();
+    }
+
+    /**
+     * 一行のコマンドのパースを依頼する。
+     *
+     * @param schema デーモンに登録したスキーマ名。
+     * @param line   パースする一行のコマンド。
+     * @return パースの結果
+     * @throws IOException              通信に失敗した場合
+     * @throws IllegalArgumentException スキーマ名が登録されていない場合
+     * @see io.github.udonabe.commandanalyzer.command.CommandOptions#tryParse(CharSequence)
+     */
+    public ParseReply parse(@NonNull String schema, @NonNull CharSequence line) throws IOException {
+        frame.clear();
+        frame.writeByte(KIND_LINE);
+        frame.writeString(schema);
+        frame.writeString(line.toString());
+        return exchange();
+    }
+
+    private ParseReply exchange() throws IOException {
+        frame.send(channel);
+        if (!frame.receive(channel)) throw new EOFException("デーモンが接続を閉じました。");
+
+        int status = frame.readByte();
+        switch (status) {
+            case STATUS_SUCCESS -> {
+                int count = frame.readCount();
+                Map<String, ParseResult> results = new HashMap<>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    String name = frame.readString();
+                    results.put(name, readResult());
+                }
+                return new ParseReply(results, null, -1, null, null);
+            }
+            case STATUS_FAILURE -> {
+                int code = frame.readByte();
+                if (code >= CODES.length) throw new IOException("不正な応答です。");
+                int tokenIndex = frame.readSignedVarInt();
+                String input = frame.readByte() != 0 ? frame.readString() : null;
+                return new ParseReply(null, CODES[code], tokenIndex, input, frame.readString());
+            }
+            case STATUS_REJECTED -> throw new IllegalArgumentException(frame.readString());
+            default -> throw new IOException("不正な応答です。状態: " + status);
+        }
+    }
+
+    private ParseResult readResult() throws IOException {
+        int flags = frame.readByte();
+        ParseResult.ParseResultBuilder builder = ParseResult.builder()
+                .rBoolean((flags & RESULT_BOOLEAN) != 0)
+                .present((flags & RESULT_PRESENT) != 0)
+                .rInt(frame.readSignedVarInt())
+                .rDouble(frame.readDouble());
+        if ((flags & RESULT_STRING) != 0) builder.rString(frame.readString());
+        if ((flags & RESULT_WHICH) != 0) builder.rWhich(frame.readString());
+        if ((flags & RESULT_SUBCOMMAND) != 0) builder.rSubCommand(frame.readString());
+        if ((flags & RESULT_INTS) != 0) {
+            int[] values = new int[frame.readCount()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = frame.readSignedVarInt();
+            }
+            builder.rInts(values);
+        }
+        if ((flags & RESULT_DOUBLES) != 0) {
+            double[] values = new double[frame.readCount()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = frame.readDouble();
+            }
+            builder.rDoubles(values);
+        }
+        if ((flags & RESULT_STRINGS) != 0) {
+            String[] values = new String[frame.readCount()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = frame.readString();
+            }
+            builder.rStrings(values);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
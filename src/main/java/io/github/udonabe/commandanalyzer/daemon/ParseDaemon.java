@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.daemon;
+
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.ParseOutcome;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 生成済みの{@link CommandOptions}を保持し続け、Unixドメインソケットで受けた要求をパースするデーモン。
+ * {@link #builder(Path)}で生成し、{@link ParseClient}から接続する。
+ * <p>
+ * 小さいツールを何度も起動する場合、起動のたびにスキーマを生成・検査する時間を省ける。
+ * 接続ごとに仮想スレッドを一つ使い、一つの接続で要求を繰り返し受け付ける。
+ * <p>
+ * 要求・応答は{@link Frame}の形式で、要求は種類・スキーマ名に続けてトークン列か一行のコマンドを書く。
+ * 応答は状態に続けて、成功した場合は管理名ごとの結果、失敗した場合は{@link ParseError}の内容を書く。
+ */
+public final class ParseDaemon implements AutoCloseable {
+    static final int KIND_TOKENS = 0;
+    static final int KIND_LINE = 1;
+
+    static final int STATUS_SUCCESS = 0;
+    static final int STATUS_FAILURE = 1;
+    /**
+     * スキーマが無いなど、パースできない要求。
+     */
+    static final int STATUS_REJECTED = 2;
+
+    static final int RESULT_BOOLEAN = 1;
+    static final int RESULT_PRESENT = 1 << 1;
+    static final int RESULT_STRING = 1 << 2;
+    static final int RESULT_WHICH = 1 << 3;
+    static final int RESULT_SUBCOMMAND = 1 << 4;
+    static final int RESULT_INTS = 1 << 5;
+    static final int RESULT_DOUBLES = 1 << 6;
+    static final int RESULT_STRINGS = 1 << 7;
+
+    /**
+     * 接続を受け付けられなかった場合に、再試行するまでの間隔(ミリ秒)。失敗が続くごとに倍にする。
+     */
+    private static final long MIN_BACKOFF_MILLIS = 10;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final Path socket;
+    private final Map<String, CommandOptions> schemas;
+    private final ServerSocketChannel server;
+    private final Thread acceptor;
+    private final Set<SocketChannel> clients = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    private ParseDaemon(Path socket, Map<String, CommandOptions> schemas) throws IOException {
+        this.socket = socket;
+        this.schemas = schemas;
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        this.acceptor = Thread.ofVirtual().name("parse-daemon-acceptor").start(this::accept);
+    }
+
+    /**
+     * @param socket 待ち受けるソケットのパス。既にファイルがある場合は、開始に失敗する。
+     * @return 生成したビルダー
+     */
+    public static Builder builder(@NonNull Path socket) {
+        return new Builder(socket);
+    }
+
+    private void accept() {
+        long backoff = 0;
+        while (!closed) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (IOException e) {
+                if (!server.isOpen()) return;
+                // ファイル記述子が足りない場合など、すぐに再試行しても失敗し続けるため、間隔を空ける
+                backoff = Math.min(Math.max(backoff << 1, MIN_BACKOFF_MILLIS), MAX_BACKOFF_MILLIS);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            backoff = 0;
+            clients.add(client);
+            if (closed) {
+                close(client);
+                return;
+            }
+            Thread.ofVirtual().name("parse-daemon-client").start(() -> serve(client));
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        Frame in = new Frame();
+        Frame out = new Frame();
+        try {
+            while (in.receive(client)) {
+                handle(in, out);
+                out.send(client);
+            }
+        } catch (IOException e) {
+            // 不正な要求・切断は、その接続だけを閉じる
+        } finally {
+            close(client);
+        }
+    }
+
+    private void handle(Frame in, Frame out) throws IOException {
+        out.clear();
+        int kind = in.readByte();
+        String name = in.readString();
+        CommandOptions options = schemas.get(name);
+        if (options == null || (kind != KIND_TOKENS && kind != KIND_LINE)) {
+            out.writeByte(STATUS_REJECTED);
+            out.writeString(options == null ? "スキーマがありません。スキーマ名: " + name : "不正な要求です。種類: " + kind);
+            return;
+        }
+
+        ParseOutcome outcome;
+        if (kind == KIND_TOKENS) {
+            String[] tokens = new String[in.readCount()];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = in.readString();
+            }
+            outcome = options.tryParse(Arrays.asList(tokens));
+        } else {
+            outcome = options.tryParse(in.readString());
+        }
+
+        switch (outcome) {
+            case ParseOutcome.Success success -> {
+                out.writeByte(STATUS_SUCCESS);
+                Map<String, ParseResult> results = success.options().toMap();
+                out.writeVarInt(results.size());
+                for (Map.Entry<String, ParseResult> entry : results.entrySet()) {
+                    out.writeString(entry.getKey());
+                    writeResult(out, entry.getValue());
+                }
+            }
+            case ParseOutcome.Failure failure -> {
+                ParseError error = failure.error();
+                out.writeByte(STATUS_FAILURE);
+                out.writeByte(error.code().ordinal());
+                out.writeSignedVarInt(error.tokenIndex());
+                out.writeByte(error.input() != null ? 1 : 0);
+                if (error.input() != null) out.writeString(error.input());
+                out.writeString(error.message());
+            }
+        }
+    }
+
+    /**
+     * 値が入っている項目を先頭のビットで示し、その項目だけを書く。
+     */
+    private static void writeResult(Frame out, ParseResult result) {
+        out.writeByte((result.rBoolean() ? RESULT_BOOLEAN : 0)
+                      | (result.present() ? RESULT_PRESENT : 0)
+                      | (result.rString() != null ? RESULT_STRING : 0)
+                      | (result.rWhich() != null ? RESULT_WHICH : 0)
+                      | (result.rSubCommand() != null ? RESULT_SUBCOMMAND : 0)
+                      | (result.rInts() != null ? RESULT_INTS : 0)
+                      | (result.rDoubles() != null ? RESULT_DOUBLES : 0)
+                      | (result.rStrings() != null ? RESULT_STRINGS : 0));
+        out.writeSignedVarInt(result.rInt());
+        out.writeDouble(result.rDouble());
+        if (result.rString() != null) out.writeString(result.rString());
+        if (result.rWhich() != null) out.writeString(result.rWhich());
+        if (result.rSubCommand() != null) out.writeString(result.rSubCommand());
+        if (result.rInts() != null) {
+            out.writeVarInt(result.rInts().length);
+            for (int value : result.rInts()) {
+                out.writeSignedVarInt(value);
+            }
+        }
+        if (result.rDoubles() != null) {
+            out.writeVarInt(result.rDoubles().length);
+            for (double value : result.rDoubles()) {
+                out.writeDouble(value);
+            }
+        }
+        if (result.rStrings() != null) {
+            out.writeVarInt(result.rStrings().length);
+            for (String value : result.rStrings()) {
+                out.writeString(value);
+            }
+        }
+    }
+
+    /**
+     * @return 待ち受けているソケットのパス
+     */
+    public Path socket() {
+        return socket;
+    }
+
+    /**
+     * {@link #close()}されるまで待つ。
+     * 仮想スレッドはJVMの終了を妨げないため、デーモンとして動かす場合はmainスレッドで呼ぶ。
+     */
+    public void join() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * 待ち受けをやめ、全ての接続を閉じて、ソケットのファイルを削除する。
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            server.close();
+            for (SocketChannel client : clients) {
+                close(client);
+            }
+        } finally {
+            Files.deleteIfExists(socket);
+        }
+    }
+
+    private void close(SocketChannel client) {
+        clients.remove(client);
+        try {
+            client.close();
+        } catch (IOException e) {
+            // 閉じるだけなので無視する
+        }
+    }
+
+    /**
+     * {@link ParseDaemon}のビルダー。
+     */
+    public static final class Builder {
+        private final Path socket;
+        private final Map<String, CommandOptions> schemas = new HashMap<>();
+
+        private Builder(Path socket) {
+            this.socket = socket;
+        }
+
+        /**
+         * @param name    クライアントが指定するスキーマ名。
+         * @param options パースに使うコマンド。
+         * @return 自分自身
+         */
+        public Builder schema(@NonNull String name, @NonNull CommandOptions options) {
+            if (schemas.putIfAbsent(name, options) != null) throw new IllegalArgumentException("スキーマ名が重複しています。スキーマ名: " + name);
+            return this;
+        }
+
+        /**
+         * ソケットを開き、待ち受けを始める。
+         *
+         * @return 開始したデーモン
+         * @throws IOException ソケットを開けない場合
+         */
+        public ParseDaemon start() throws IOException {
+            return new ParseDaemon(socket, Map.copyOf(schemas));
+        }
+    }
+}
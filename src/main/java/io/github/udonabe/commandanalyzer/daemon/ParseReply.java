@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.daemon;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+
+import java.util.Map;
+
+/**
+ * {@link ParseClient}が受け取ったパースの結果。成功した場合は{@link #results()}、失敗した場合はそれ以外に値が入る。
+ *
+ * @param results    管理名ごとの結果。{@link io.github.udonabe.commandanalyzer.command.CommandOptions#parse(java.util.List)}と同じ内容。失敗した場合は{@code null}。
+ * @param code       失敗の種類。成功した場合は{@code null}。
+ * @param tokenIndex 失敗したトークンの位置。
+ * @param input      失敗したトークン・値。
+ * @param message    デーモンで生成した、失敗の説明。
+ */
+public record ParseReply(Map<String, ParseResult> results, ParseError.Code code, int tokenIndex, String input, String message) {
+    public boolean isSuccess() {
+        return code == null;
+    }
+
+    /**
+     * @return 成功した場合は結果
+     * @throws OptionParseException 失敗した場合。メッセージはデーモンで生成したもの。
+     */
+    public Map<String, ParseResult> orElseThrow() throws OptionParseException {
+        if (code != null) throw new OptionParseException(message);
+        return results;
+    }
+}
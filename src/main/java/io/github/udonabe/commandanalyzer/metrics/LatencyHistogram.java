@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 所要時間(ナノ秒)の分布を記録するヒストグラム。
+ * 2の累乗ごとの区間を、さらに{@value #SUB_BUCKETS}個に等分した区間で数えるため、
+ * 値の大きさに関わらず誤差は1/{@value #SUB_BUCKETS}以下になる。
+ * 区間ごとに{@link LongAdder}で数えるため、複数のスレッドから同時に記録してもロックしない。
+ */
+public final class LatencyHistogram {
+    /**
+     * 2の累乗ごとの区間を分割する数。
+     */
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    /**
+     * 正の{@code long}を全て収める区間の数。
+     */
+    private static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return {@code value}を数える区間の番号
+     */
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @return 区間の番号が{@code index}である区間の、最小の値
+     */
+    private static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+    }
+
+    /**
+     * 所要時間を記録する。
+     *
+     * @param nanos 所要時間。負の値は0として扱う。
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[index(value)].increment();
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return 記録した数
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return 記録した値の平均。記録が無い場合は0。
+     */
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * @return 記録した値の最大値。記録が無い場合は0。
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * 記録した値のパーセンタイルを、区間の上限で近似して返す。
+     *
+     * @param percentile 0以上100以下のパーセンタイル。
+     * @return {@code percentile}%の値が収まる区間の上限。記録が無い場合は0。
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("パーセンタイルは0以上100以下にしてください。");
+        // 記録中の値も含めて数えるため、区間の合計を使う
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            n += counts[i];
+        }
+        if (n == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max.get(), i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE);
+        }
+        return max.get();
+    }
+
+    /**
+     * 記録を全て消す。記録中に呼び出した場合、その記録が残るかどうかは決まらない。
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.metrics;
+
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.option.Option;
+
+/**
+ * パースの経過を受け取るリスナー。
+ * {@link io.github.udonabe.commandanalyzer.command.CommandOptions.Generator#listener(ParseListener)}で設定する。
+ * 設定しない場合、通知のための処理は一切行わない。
+ * <p>
+ * 一つのリスナーは、複数のスレッドのパースから同時に呼び出される。
+ * 各メソッドはパースの途中で呼び出されるため、時間のかかる処理は行わないこと。
+ * 必要なメソッドだけを実装すればよい。
+ *
+ * @see ParseMetrics
+ */
+public interface ParseListener {
+    /**
+     * パースを始めたときに呼び出される。
+     *
+     * @param startNanos 開始時刻({@link System#nanoTime()})。
+     */
+    default void parseStarted(long startNanos) {
+    }
+
+    /**
+     * トークンをどの種類として扱うかを決めたときに呼び出される。
+     *
+     * @param token トークンの番号。
+     * @param mode  決めた種類。
+     */
+    default void modeDecided(int token, Mode mode) {
+    }
+
+    /**
+     * オプション・位置引数・サブコマンドが指定されたときに呼び出される。
+     *
+     * @param option 指定されたオプション。
+     */
+    default void optionMatched(Option option) {
+    }
+
+    /**
+     * 引数を型に従って変換したときに呼び出される。遅延変換で読み出すまで変換しない場合は、呼び出されない。
+     *
+     * @param option    引数を受け取ったオプション。
+     * @param converted 変換に成功したかどうか。
+     */
+    default void argumentConverted(Option option, boolean converted) {
+    }
+
+    /**
+     * パースに失敗したときに、{@link #parseFinished(long, long, boolean)}の前に呼び出される。
+     *
+     * @param code  失敗の種類。
+     * @param token 原因になったトークンの番号。無い場合は-1。
+     */
+    default void parseFailed(ParseError.Code code, int token) {
+    }
+
+    /**
+     * パースを終えたときに呼び出される。
+     *
+     * @param startNanos 開始時刻({@link System#nanoTime()})。
+     * @param endNanos   終了時刻({@link System#nanoTime()})。
+     * @param success    成功したかどうか。
+     */
+    default void parseFinished(long startNanos, long endNanos, boolean success) {
+    }
+
+    /**
+     * トークンの種類。
+     */
+    enum Mode {
+        SUBCOMMAND,
+        NORMAL_OPTION,
+        POSITIONAL_ARGUMENT
+    }
+}
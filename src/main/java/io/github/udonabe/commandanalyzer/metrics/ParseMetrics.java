@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.metrics;
+
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.option.Option;
+import lombok.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * パースの経過を集計する{@link ParseListener}。
+ * 回数は{@link LongAdder}で、所要時間は{@link LatencyHistogram}で数えるため、
+ * 複数のスレッドのパースから同時に呼び出されてもロックしない。
+ * 集計した値は、外部の監視システムなどへ出力するために読み出す。
+ */
+public final class ParseMetrics implements ParseListener {
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder[] failuresByCode = adders(ParseError.Code.values().length);
+    private final LongAdder[] modes = adders(Mode.values().length);
+    private final LongAdder conversions = new LongAdder();
+    private final LongAdder conversionFailures = new LongAdder();
+    /**
+     * 管理名ごとの、指定された回数。
+     */
+    private final Map<String, LongAdder> matches = new ConcurrentHashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram failureLatency = new LatencyHistogram();
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    @Override
+    public void modeDecided(int token, Mode mode) {
+        modes[mode.ordinal()].increment();
+    }
+
+    @Override
+    public void optionMatched(Option option) {
+        LongAdder adder = matches.get(option.managementName());
+        if (adder == null) adder = matches.computeIfAbsent(option.managementName(), k -> new LongAdder());
+        adder.increment();
+    }
+
+    @Override
+    public void argumentConverted(Option option, boolean converted) {
+        conversions.increment();
+        if (!converted) conversionFailures.increment();
+    }
+
+    @Override
+    public void parseFailed(ParseError.Code code, int token) {
+        failuresByCode[code.ordinal()].increment();
+    }
+
+    @Override
+    public void parseFinished(long startNanos, long endNanos, boolean success) {
+        parses.increment();
+        if (success) {
+            latency.record(endNanos - startNanos);
+        } else {
+            failures.increment();
+            failureLatency.record(endNanos - startNanos);
+        }
+    }
+
+    /**
+     * @return パースした回数。失敗した回数も含む。
+     */
+    public long parseCount() {
+        return parses.sum();
+    }
+
+    /**
+     * @return パースに失敗した回数
+     */
+    public long failureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @param code 失敗の種類。
+     * @return {@code code}で失敗した回数
+     */
+    public long failureCount(@NonNull ParseError.Code code) {
+        return failuresByCode[code.ordinal()].sum();
+    }
+
+    /**
+     * @param mode トークンの種類。
+     * @return {@code mode}として扱ったトークンの数
+     */
+    public long modeCount(@NonNull Mode mode) {
+        return modes[mode.ordinal()].sum();
+    }
+
+    /**
+     * @return パース中に引数を変換した回数。失敗した回数も含む。
+     */
+    public long conversionCount() {
+        return conversions.sum();
+    }
+
+    /**
+     * @return パース中に引数の変換に失敗した回数
+     */
+    public long conversionFailureCount() {
+        return conversionFailures.sum();
+    }
+
+    /**
+     * @param managementName オプションの管理名。
+     * @return そのオプションが指定された回数
+     */
+    public long matchCount(@NonNull String managementName) {
+        LongAdder adder = matches.get(managementName);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * @return 管理名をキーにした、オプションが指定された回数。一度も指定されていないオプションは含まない。
+     */
+    public Map<String, Long> matchCounts() {
+        return matches.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> e.getValue().sum()));
+    }
+
+    /**
+     * @return 成功したパースの所要時間
+     */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    /**
+     * @return 失敗したパースの所要時間
+     */
+    public LatencyHistogram failureLatency() {
+        return failureLatency;
+    }
+
+    /**
+     * 集計を全て消す。
+     */
+    public void reset() {
+        parses.reset();
+        failures.reset();
+        for (LongAdder adder : failuresByCode) adder.reset();
+        for (LongAdder adder : modes) adder.reset();
+        conversions.reset();
+        conversionFailures.reset();
+        matches.clear();
+        latency.reset();
+        failureLatency.reset();
+    }
+}
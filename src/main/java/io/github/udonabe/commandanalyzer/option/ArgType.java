@@ -11,27 +11,64 @@ package io.github.udonabe.commandanalyzer.option;
 import io.github.udonabe.commandanalyzer.OptionParseException;
 import io.github.udonabe.commandanalyzer.ParseResult;
 
-import java.util.Iterator;
-import java.util.Optional;
 import java.util.function.Function;
 
 public enum ArgType {
     NONE(arg -> ParseResult.builder().present(true).rBoolean(true).build()),
     STRING(arg -> ParseResult.builder().present(true).rString(arg).build()),
-    INTEGER(arg -> ParseResult.builder().present(true).rInt(Integer.parseInt(arg)).build()),
-    DOUBLE(arg -> ParseResult.builder().present(true).rDouble(Double.parseDouble(arg)).build()),
-    BOOLEAN(arg -> ParseResult.builder().present(true).rBoolean(Boolean.parseBoolean(arg)).build());
+    INTEGER(arg -> {
+        NumberParser parser = new NumberParser();
+        return parser.parseInt(arg) ? ParseResult.builder().present(true).rInt(parser.intValue()).build() : null;
+    }),
+    DOUBLE(arg -> {
+        NumberParser parser = new NumberParser();
+        return parser.parseDouble(arg) ? ParseResult.builder().present(true).rDouble(parser.doubleValue()).build() : null;
+    }),
+    BOOLEAN(arg -> ParseResult.builder().present(true).rBoolean(Boolean.parseBoolean(arg)).build()),
+    /**
+     * 整数のリスト。オプションを繰り返し指定するごとに、値を一つずつ追加する。
+     * 最後の位置引数の場合は、残りの位置引数を全て受け取る。
+     */
+    INTEGER_LIST(arg -> {
+        NumberParser parser = new NumberParser();
+        return parser.parseInt(arg) ? ParseResult.builder().present(true).rInts(new int[]{parser.intValue()}).build() : null;
+    }),
+    /**
+     * 倍精度浮動小数点数のリスト。
+     *
+     * @see #INTEGER_LIST
+     */
+    DOUBLE_LIST(arg -> {
+        NumberParser parser = new NumberParser();
+        return parser.parseDouble(arg) ? ParseResult.builder().present(true).rDoubles(new double[]{parser.doubleValue()}).build() : null;
+    }),
+    /**
+     * 文字列のリスト。
+     *
+     * @see #INTEGER_LIST
+     */
+    STRING_LIST(arg -> ParseResult.builder().present(true).rStrings(new String[]{arg}).build());
+    /**
+     * 引数を変換する。型が異なる場合は、例外を投げずに{@code null}を返す。
+     */
     private final Function<String, ParseResult> parser;
 
     ArgType(Function<String, ParseResult> parser) {
         this.parser = parser;
     }
 
+    /**
+     * @return 繰り返し指定でき、値をリストとして受け取る型かどうか
+     */
+    public boolean isList() {
+        return this == INTEGER_LIST || this == DOUBLE_LIST || this == STRING_LIST;
+    }
+
     public ParseResult parse(String arg) throws OptionParseException {
-        try {
-            return this.parser.apply(arg);
-        } catch (RuntimeException e) {
-            throw new OptionParseException("引数が不足しているか、型が異なります。期待型: " + this, e);
+        ParseResult result = this.parser.apply(arg);
+        if (result == null) {
+            throw new OptionParseException("引数が不足しているか、型が異なります。期待型: " + this);
         }
+        return result;
     }
 }
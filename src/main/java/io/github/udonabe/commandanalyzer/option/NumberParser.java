@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.option;
+
+/**
+ * 例外を使わずに数値を解析するクラス。
+ * 解析に成功したかどうかを戻り値で返し、成功した場合の値は{@link #intValue()}などで読み出す。
+ * 受け付ける書式は{@link Integer#parseInt(String)}・{@link Long#parseLong(String)}・{@link Double#parseDouble(String)}と同じ。
+ * 不正な入力が多くても、例外の生成(スタックトレースの取得)にかかるコストが発生しない。
+ * このクラスのインスタンスは、スレッド間で共有しないこと。
+ */
+public final class NumberParser {
+    /**
+     * 正確に表せる10の累乗。
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * 仮数部に保持する最大の桁数。これを超える桁は、指数に反映して丸める。
+     */
+    private static final int MAX_SIGNIFICANT_DIGITS = 18;
+    /**
+     * 倍精度浮動小数点数の仮数部(53ビット)で正確に表せる最大の桁数。
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private int intValue;
+    private long longValue;
+    private double doubleValue;
+
+    public int intValue() {
+        return intValue;
+    }
+
+    public long longValue() {
+        return longValue;
+    }
+
+    public double doubleValue() {
+        return doubleValue;
+    }
+
+    /**
+     * @param s 解析する文字列。{@code null}の場合は失敗する。
+     * @return 成功したかどうか
+     */
+    public boolean parseInt(CharSequence s) {
+        return s != null && parseInt(s, 0, s.length());
+    }
+
+    /**
+     * {@code s}の{@code start}から{@code end}までを、10進数の{@code int}として解析する。
+     *
+     * @return 成功したかどうか
+     */
+    public boolean parseInt(CharSequence s, int start, int end) {
+        if (!parseInteger(s, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE)) return false;
+        intValue = (int) longValue;
+        return true;
+    }
+
+    public boolean parseLong(CharSequence s) {
+        return s != null && parseLong(s, 0, s.length());
+    }
+
+    /**
+     * {@code s}の{@code start}から{@code end}までを、10進数の{@code long}として解析する。
+     *
+     * @return 成功したかどうか
+     */
+    public boolean parseLong(CharSequence s, int start, int end) {
+        return parseInteger(s, start, end, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * {@link Long#parseLong(String)}と同じく、負の方向に累積してあふれを検出する。
+     */
+    private boolean parseInteger(CharSequence s, int start, int end, long min, long max) {
+        if (start >= end) return false;
+
+        int i = start;
+        boolean negative = false;
+        char first = s.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) return false;
+        }
+
+        long limit = negative ? min : -max;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        while (i < end) {
+            int digit = Character.digit(s.charAt(i++), 10);
+            if (digit < 0 || result < multiplyLimit) return false;
+            result *= 10;
+            if (result < limit + digit) return false;
+            result -= digit;
+        }
+        longValue = negative ? result : -result;
+        return true;
+    }
+
+    public boolean parseDouble(CharSequence s) {
+        return s != null && parseDouble(s, 0, s.length());
+    }
+
+    /**
+     * {@code s}の{@code start}から{@code end}までを、{@code double}として解析する。
+     * 桁数の少ない10進数は直接計算し、それ以外は書式を検証した上で{@link Double#parseDouble(String)}に任せる。
+     *
+     * @return 成功したかどうか
+     */
+    public boolean parseDouble(CharSequence s, int start, int end) {
+        // Double#parseDouble(String)と同じく、前後の空白を無視する
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        if (start == end) return false;
+
+        int i = start;
+        boolean negative = false;
+        char first = s.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (regionEquals(s, i, end, "NaN")) {
+            doubleValue = Double.NaN;
+            return true;
+        }
+        if (regionEquals(s, i, end, "Infinity")) {
+            doubleValue = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            return true;
+        }
+        if (end - i > 1 && s.charAt(i) == '0' && (s.charAt(i + 1) == 'x' || s.charAt(i + 1) == 'X')) {
+            if (!isHexFloat(s, i + 2, end)) return false;
+            doubleValue = Double.parseDouble(s.subSequence(start, end).toString());
+            return true;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean truncated = false;
+
+        // 整数部
+        for (; i < end && isAsciiDigit(s.charAt(i)); i++) {
+            anyDigit = true;
+            int digit = s.charAt(i) - '0';
+            if (mantissa == 0 && digit == 0) continue;
+            if (digits < MAX_SIGNIFICANT_DIGITS) {
+                mantissa = mantissa * 10 + digit;
+                digits++;
+            } else {
+                exponent++;
+                truncated |= digit != 0;
+            }
+        }
+        // 小数部
+        if (i < end && s.charAt(i) == '.') {
+            for (i++; i < end && isAsciiDigit(s.charAt(i)); i++) {
+                anyDigit = true;
+                int digit = s.charAt(i) - '0';
+                if (digits < MAX_SIGNIFICANT_DIGITS) {
+                    if (mantissa != 0 || digit != 0) {
+                        mantissa = mantissa * 10 + digit;
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    truncated |= digit != 0;
+                }
+            }
+        }
+        if (!anyDigit) return false;
+
+        // 指数部
+        if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                negativeExponent = s.charAt(i) == '-';
+                i++;
+            }
+            if (i >= end || !isAsciiDigit(s.charAt(i))) return false;
+            int explicit = 0;
+            for (; i < end && isAsciiDigit(s.charAt(i)); i++) {
+                // 十分大きい指数は、これ以上増やしても結果が変わらない
+                if (explicit < 100_000) explicit = explicit * 10 + (s.charAt(i) - '0');
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        // 型の接尾辞
+        if (i < end && isFloatSuffix(s.charAt(i))) i++;
+        if (i != end) return false;
+
+        if (mantissa == 0) {
+            doubleValue = negative ? -0.0 : 0.0;
+            return true;
+        }
+        // 仮数部と10の累乗が正確に表せる場合、一回の演算で正しく丸められる
+        if (!truncated && digits <= MAX_EXACT_DIGITS && exponent >= -22 && exponent <= 22) {
+            double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            doubleValue = negative ? -value : value;
+            return true;
+        }
+        // 書式は検証済みのため、例外は発生しない
+        doubleValue = Double.parseDouble(s.subSequence(start, end).toString());
+        return true;
+    }
+
+    /**
+     * 「0x」より後ろが、16進数の浮動小数点数の書式になっているか調べる。
+     */
+    private static boolean isHexFloat(CharSequence s, int i, int end) {
+        boolean anyDigit = false;
+        for (; i < end && Character.digit(s.charAt(i), 16) >= 0 && s.charAt(i) < 0x80; i++) anyDigit = true;
+        if (i < end && s.charAt(i) == '.') {
+            for (i++; i < end && Character.digit(s.charAt(i), 16) >= 0 && s.charAt(i) < 0x80; i++) anyDigit = true;
+        }
+        if (!anyDigit || i >= end || (s.charAt(i) != 'p' && s.charAt(i) != 'P')) return false;
+        i++;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) i++;
+        if (i >= end || !isAsciiDigit(s.charAt(i))) return false;
+        while (i < end && isAsciiDigit(s.charAt(i))) i++;
+        if (i < end && isFloatSuffix(s.charAt(i))) i++;
+        return i == end;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isFloatSuffix(char c) {
+        return c == 'f' || c == 'F' || c == 'd' || c == 'D';
+    }
+
+    private static boolean regionEquals(CharSequence s, int start, int end, String expected) {
+        if (end - start != expected.length()) return false;
+        for (int i = 0; i < expected.length(); i++) {
+            if (s.charAt(start + i) != expected.charAt(i)) return false;
+        }
+        return true;
+    }
+}
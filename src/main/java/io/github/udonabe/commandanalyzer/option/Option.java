@@ -30,8 +30,7 @@ public sealed class Option implements Cloneable {
                    String description,
                    @NonNull String managementName,
                    boolean exclusive) {
-        Set<OptionDisplay> displaySeen = new HashSet<>();
-        if (displays.stream().anyMatch(t -> !displaySeen.add(t))) throw new IllegalArgumentException("表示が重複しています。");
+        // Setに重複は無いため、表示の重複は検査しなくてよい
         this.displays = displays;
         this.type = type;
         this.required = required;
@@ -41,11 +40,14 @@ public sealed class Option implements Cloneable {
     }
 
     public static Option subCommand(Set<String> displays, String description, String managementName) {
-        Set<OptionDisplay> converted = displays.stream()
-                .map(t -> new OptionDisplay(OptionDisplay.PrefixKind.SUBCOMMAND, t))
-                .collect(Collectors.toUnmodifiableSet());
+        // 大量に生成される場合に備え、ストリームを使わない
+        OptionDisplay[] converted = new OptionDisplay[displays.size()];
+        int i = 0;
+        for (String display : displays) {
+            converted[i++] = new OptionDisplay(OptionDisplay.PrefixKind.SUBCOMMAND, display);
+        }
         return new Option(
-                converted,
+                Set.of(converted),
                 ArgType.NONE,
                 true,
                 description,
@@ -55,10 +57,12 @@ public sealed class Option implements Cloneable {
     }
 
     public static Option normalOption(Set<OptionDisplay> displays, ArgType arg, boolean required, String description, String managementName) {
-        if (displays.stream().anyMatch(t -> t.prefix() != OptionDisplay.PrefixKind.SHORT_OPTION &&
-                                            t.prefix() != OptionDisplay.PrefixKind.LONG_OPTION &&
-                                            t.prefix() != OptionDisplay.PrefixKind.SLASH_OPTION)) {
-            throw new IllegalArgumentException("normalOption()では、ショートオプション・ロングオプション・スラッシュオプション以外生成できません。");
+        for (OptionDisplay display : displays) {
+            if (display.prefix() != OptionDisplay.PrefixKind.SHORT_OPTION &&
+                display.prefix() != OptionDisplay.PrefixKind.LONG_OPTION &&
+                display.prefix() != OptionDisplay.PrefixKind.SLASH_OPTION) {
+                throw new IllegalArgumentException("normalOption()では、ショートオプション・ロングオプション・スラッシュオプション以外生成できません。");
+            }
         }
         return new Option(
                 displays,
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.parser;
+
+import java.util.Map;
+
+/**
+ * 表示名から{@link ParsePlan.Slot}を引く、オープンアドレス法のハッシュ表。
+ * {@link CharSequence}の一部分をそのままキーとして検索できるため、検索のために文字列を切り出す必要が無い。
+ * 生成後は変更しないため、複数のスレッドから同時に検索してよい。
+ */
+final class DisplayIndex {
+    private final String[] keys;
+    private final ParsePlan.Slot[] slots;
+    private final int mask;
+
+    DisplayIndex(Map<String, ParsePlan.Slot> entries) {
+        int capacity = Integer.highestOneBit(Math.max(2, entries.size() * 2 - 1)) << 1;
+        this.keys = new String[capacity];
+        this.slots = new ParsePlan.Slot[capacity];
+        this.mask = capacity - 1;
+
+        for (Map.Entry<String, ParsePlan.Slot> entry : entries.entrySet()) {
+            int i = spread(entry.getKey().hashCode()) & mask;
+            while (keys[i] != null) i = (i + 1) & mask;
+            keys[i] = entry.getKey();
+            slots[i] = entry.getValue();
+        }
+    }
+
+    ParsePlan.Slot get(String key) {
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * @param source 検索する文字列を含む文字列。
+     * @param start  検索する部分の開始位置。
+     * @param end    検索する部分の終了位置。
+     * @return 見つかったスロット。無い場合は{@code null}。
+     */
+    ParsePlan.Slot get(CharSequence source, int start, int end) {
+        // String#hashCode()と同じ計算をする
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) return null;
+            if (regionEquals(key, source, start, end)) return slots[i];
+        }
+    }
+
+    private static boolean regionEquals(String key, CharSequence source, int start, int end) {
+        if (key.length() != end - start) return false;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != source.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
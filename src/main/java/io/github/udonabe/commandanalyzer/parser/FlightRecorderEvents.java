@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.parser;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+
+/**
+ * Java Flight Recorderのイベントを記録するかどうかを判定する。
+ * イベントは、記録する場合にだけ生成する。一度でも記録した後のイベントクラスは、
+ * 生成を省略できなくなるため、{@code new}してから{@link Event#isEnabled()}で判定すると、記録していない間もメモリを確保してしまう。
+ */
+final class FlightRecorderEvents {
+    /*
+     * Java Flight Recorderが使えないJVMでは、どちらもnull。
+     * jdk.jfrモジュールが無い場合はイベントクラスも読み込めないため、クラスの参照も含めて例外を捕まえる。
+     */
+    private static final EventType PARSE;
+    private static final EventType ERROR;
+
+    static {
+        EventType parse = null;
+        EventType error = null;
+        try {
+            parse = EventType.getEventType(ParseEvent.class);
+            error = EventType.getEventType(ParseErrorEvent.class);
+        } catch (InternalError | NoClassDefFoundError e) {
+            parse = null;
+            error = null;
+        }
+        PARSE = parse;
+        ERROR = error;
+    }
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * @return {@link ParseEvent}を記録するかどうか
+     */
+    static boolean parseEnabled() {
+        return PARSE != null && PARSE.isEnabled();
+    }
+
+    /**
+     * @return {@link ParseErrorEvent}を記録するかどうか
+     */
+    static boolean errorEnabled() {
+        return ERROR != null && ERROR.isEnabled();
+    }
+}
@@ -10,94 +10,213 @@ package io.github.udonabe.commandanalyzer.parser;
 
 import io.github.udonabe.commandanalyzer.OptionParseException;
 import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.metrics.ParseListener;
+import io.github.udonabe.commandanalyzer.metrics.ParseListener.Mode;
 import io.github.udonabe.commandanalyzer.option.Option;
 import io.github.udonabe.commandanalyzer.option.OptionDisplay;
 import lombok.NonNull;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class InnerParser {
+    /**
+     * プレフィックス一覧。トークンごとに計算しないよう、事前に配列にしておく。
+     */
+    private static final String[] PREFIXES = OptionDisplay.PrefixKind.getPrefixes().toArray(String[]::new);
+
     public static Map<String, ParseResult> parse(
             Option subCommand,
             @NonNull Set<Option> rawOptions,
             @NonNull List<Option> rawPositionalArgs,
             @NonNull List<String> args
     ) throws OptionParseException {
-        Map<String, ParseResult> result = new HashMap<>();
+        List<Option> declared = new ArrayList<>(rawOptions);
+        declared.addAll(rawPositionalArgs);
+        return parse(ParsePlan.compile(subCommand, declared, rawPositionalArgs), args);
+    }
 
-        // コレクションを変更する可能性があるため、
-        // コピーする
-        var options = rawOptions.stream()
-                .map(Option::clone)
-                .collect(Collectors.toList());
-        var positionalArgs = rawPositionalArgs.stream()
-                .map(Option::clone)
-                .collect(Collectors.toList());
+    public static Map<String, ParseResult> parse(
+            @NonNull ParsePlan plan,
+            @NonNull List<String> args
+    ) throws OptionParseException {
+        // 実行計画は共有されるため、パース中の状態は全てこちらに持たせる
+        ParseContext context = new ParseContext(plan);
+        parse(context, args);
+        return context.toResultMap();
+    }
 
-        CurrentMode mode = currentModeSetUp(subCommand != null, !options.isEmpty(), !positionalArgs.isEmpty());
+    /**
+     * 一行のコマンドを、引用符・エスケープを解釈しながら分割してパースする。
+     *
+     * @see #parse(ParseContext, CharSequence)
+     */
+    public static Map<String, ParseResult> parse(
+            @NonNull ParsePlan plan,
+            @NonNull CharSequence line
+    ) throws OptionParseException {
+        ParseContext context = new ParseContext(plan);
+        parse(context, line);
+        return context.toResultMap();
+    }
 
-        ValidationChecker validation = new ValidationChecker(options, positionalArgs);
-        validation.checkStart();
+    /**
+     * {@code context}を使ってパースし、結果を{@code context}に書き込む。
+     * 同じ{@code context}を使い回せば、パース中にほとんどメモリを確保しない。
+     *
+     * @param context パースの状態。前回の内容は消える。
+     * @param args    パースするトークン列。
+     */
+    public static void parse(
+            @NonNull ParseContext context,
+            @NonNull List<String> args
+    ) throws OptionParseException {
+        if (!tryParse(context, args)) throw context.error().toException();
+    }
 
-        Iterator<String> it = args.iterator();
+    /**
+     * 例外を投げない{@link #parse(ParseContext, List)}。
+     * 失敗した場合、理由は{@link ParseContext#error()}で読み出す。
+     *
+     * @return 成功したかどうか
+     */
+    public static boolean tryParse(
+            @NonNull ParseContext context,
+            @NonNull List<String> args
+    ) {
+        ParseListener listener = context.plan().listener();
+        ParseEvent event = FlightRecorderEvents.parseEnabled() ? new ParseEvent() : null;
+        if (listener == null && event == null) {
+            context.reset(args);
+            return parseTokens(context);
+        }
 
-        boolean subCommandConsumed = (subCommand == null);
-        while (it.hasNext()) {
-            String cmd = it.next();
-            Map<String, ParseResult> parsed;
+        long start = start(listener, event);
+        context.reset(args);
+        return finish(listener, event, context, start, parseTokens(context));
+    }
 
-            mode = currentModeUpdate(cmd, mode, subCommandConsumed);
-            if (cmd.equals("--")) continue;
+    /**
+     * 一行のコマンドを分割し、{@code context}を使ってパースする。
+     * 引用符・エスケープを含まないトークンは、元の行の位置だけを使って照合するため、文字列を生成しない。
+     * 文字列の値は、読み出されたときに初めて生成する。そのため、結果を読み終わるまで{@code line}の内容は変更しないこと。
+     *
+     * @param context パースの状態。前回の内容は消える。
+     * @param line    パースする行。
+     */
+    public static void parse(
+            @NonNull ParseContext context,
+            @NonNull CharSequence line
+    ) throws OptionParseException {
+        if (!tryParse(context, line)) throw context.error().toException();
+    }
 
-            if (!subCommandConsumed) subCommandConsumed = true;
+    /**
+     * 例外を投げない{@link #parse(ParseContext, CharSequence)}。
+     * 失敗した場合、理由は{@link ParseContext#error()}で読み出す。
+     *
+     * @return 成功したかどうか
+     */
+    public static boolean tryParse(
+            @NonNull ParseContext context,
+            @NonNull CharSequence line
+    ) {
+        ParseListener listener = context.plan().listener();
+        ParseEvent event = FlightRecorderEvents.parseEnabled() ? new ParseEvent() : null;
+        if (listener == null && event == null) return context.reset(line) && parseTokens(context);
+
+        long start = start(listener, event);
+        return finish(listener, event, context, start, context.reset(line) && parseTokens(context));
+    }
+
+    /**
+     * パースの開始を通知し、Java Flight Recorderのイベントの計測を始める。
+     *
+     * @param listener 通知する相手。無い場合は{@code null}。
+     * @param event    記録するイベント。記録しない場合は{@code null}。
+     * @return 開始時刻
+     */
+    private static long start(ParseListener listener, ParseEvent event) {
+        if (event != null) event.begin();
+        if (listener == null) return 0;
+
+        long start = System.nanoTime();
+        listener.parseStarted(start);
+        return start;
+    }
 
-            try {
-                switch (mode) {
-                    case SUBCOMMAND -> parsed = Parsers.subCommand.parse(Collections.singletonList(subCommand), cmd, it);
-                    case NORMAL_OPTION -> parsed = Parsers.option.parse(options, cmd, it);
-                    case POSITIONAL_ARGUMENT -> parsed = Parsers.argument.parse(Collections.singletonList(positionalArgs.removeFirst()), cmd, it);
-                    default -> throw new UnsupportedOperationException("Not implemented.");
-                }
-            } catch (NoSuchElementException e) {
-                throw new OptionParseException("不要な引数があります。");
-            }
-
-            result.putAll(parsed);
+    /**
+     * パースの終了を通知し、Java Flight Recorderのイベントを記録する。失敗した場合は、その理由も通知する。
+     *
+     * @param listener 通知する相手。無い場合は{@code null}。
+     * @param event    記録するイベント。記録しない場合は{@code null}。
+     * @return {@code parsed}
+     */
+    private static boolean finish(ParseListener listener, ParseEvent event, ParseContext context, long start, boolean parsed) {
+        if (event != null && event.shouldCommit()) {
+            event.schemaId = context.plan().schemaId();
+            event.tokenCount = context.tokenCount();
+            event.outcome = parsed ? "SUCCESS" : context.errorCode().name();
+            event.commit();
         }
 
-        validation.checkEnd();
+        if (listener == null) return parsed;
+        if (!parsed) listener.parseFailed(context.errorCode(), context.errorToken());
+        listener.parseFinished(start, System.nanoTime(), parsed);
+        return parsed;
+    }
+
+    private static boolean parseTokens(ParseContext context) {
+        ParsePlan plan = context.plan();
+
+        ParseListener listener = plan.listener();
+        Mode mode = currentModeSetUp(plan.hasSubCommand(), plan.hasNormalOptions(), plan.hasPositionalArgs());
 
-        for (Option opt : options) {
-            result.put(opt.managementName(), ParseResult.builder().build());
+        ValidationChecker validation = context.validation();
+        if (!validation.checkStart()) return false;
+
+        boolean subCommandConsumed = !plan.hasSubCommand();
+        while (context.hasNext()) {
+            int token = context.next();
+
+            mode = currentModeUpdate(context, token, mode, subCommandConsumed);
+            if (listener != null) listener.modeDecided(token, mode);
+            if (context.tokenEquals(token, "--")) continue;
+
+            if (!subCommandConsumed) subCommandConsumed = true;
+
+            boolean parsed = switch (mode) {
+                case SUBCOMMAND -> Parsers.subCommand.parse(context, token);
+                case NORMAL_OPTION -> Parsers.option.parse(context, token);
+                case POSITIONAL_ARGUMENT -> Parsers.argument.parse(context, token);
+            };
+            if (!parsed) return false;
         }
 
-        return result;
+        return validation.checkEnd();
     }
 
-    private static CurrentMode currentModeSetUp(boolean subCommandFound,
+    private static Mode currentModeSetUp(boolean subCommandFound,
                                                 boolean normalOptionFound,
                                                 boolean positionalArgumentFound) {
-        if (subCommandFound) return CurrentMode.SUBCOMMAND;
-        if (normalOptionFound) return CurrentMode.NORMAL_OPTION;
-        if (positionalArgumentFound) return CurrentMode.POSITIONAL_ARGUMENT;
+        if (subCommandFound) return Mode.SUBCOMMAND;
+        if (normalOptionFound) return Mode.NORMAL_OPTION;
+        if (positionalArgumentFound) return Mode.POSITIONAL_ARGUMENT;
         throw new IllegalStateException("パース開始位置を見つけられませんでした。全ての要素が空です。");
     }
 
-    private static CurrentMode currentModeUpdate(String cmd, CurrentMode mode, boolean subCommandConsumed) {
-        //プレフィックスがあるかチェックする
-        Set<String> prefixes = OptionDisplay.PrefixKind.getPrefixes();
-
-        if (!subCommandConsumed) return CurrentMode.SUBCOMMAND;
-        if (mode == CurrentMode.POSITIONAL_ARGUMENT) return CurrentMode.POSITIONAL_ARGUMENT;
-        if (prefixes.stream().noneMatch(cmd::startsWith)) return CurrentMode.POSITIONAL_ARGUMENT;
-        if (cmd.equals("--")) return CurrentMode.POSITIONAL_ARGUMENT;
-        return CurrentMode.NORMAL_OPTION;
+    private static Mode currentModeUpdate(ParseContext context, int token, Mode mode, boolean subCommandConsumed) {
+        if (!subCommandConsumed) return Mode.SUBCOMMAND;
+        if (mode == Mode.POSITIONAL_ARGUMENT) return Mode.POSITIONAL_ARGUMENT;
+        if (!hasPrefix(context, token)) return Mode.POSITIONAL_ARGUMENT;
+        if (context.tokenEquals(token, "--")) return Mode.POSITIONAL_ARGUMENT;
+        return Mode.NORMAL_OPTION;
     }
 
-    private enum CurrentMode {
-        SUBCOMMAND,
-        NORMAL_OPTION,
-        POSITIONAL_ARGUMENT;
+    //プレフィックスがあるかチェックする
+    private static boolean hasPrefix(ParseContext context, int token) {
+        for (String prefix : PREFIXES) {
+            if (context.tokenStartsWith(token, prefix)) return true;
+        }
+        return false;
     }
 }
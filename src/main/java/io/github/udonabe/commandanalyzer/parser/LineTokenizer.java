@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.parser;
+
+import io.github.udonabe.commandanalyzer.ParseError;
+
+/**
+ * 一行のコマンドを、シェルと同じ規則でトークンに分割するクラス。
+ * 空白・タブで区切り、シングルクォート・ダブルクォート・バックスラッシュによるエスケープを解釈する。
+ * 引用符やエスケープを含まないトークンは、元の行の位置(開始・終了)だけを渡し、文字列を生成しない。
+ * 一行のパースとログの読み込みで同じ規則を使うため、分割はこのクラスだけで行う。
+ * このクラスのインスタンスは、スレッド間で共有しないこと。
+ */
+public final class LineTokenizer {
+    private final StringBuilder unescaped = new StringBuilder();
+    /**
+     * 閉じられていない引用符の種類。
+     */
+    private ParseError.Code unclosedQuote;
+
+    /**
+     * {@code line}を分割し、トークンを{@code sink}に渡す。
+     *
+     * @return 成功したかどうか。引用符が閉じられていない場合は失敗し、理由は{@link #unclosedQuote()}で取得できる。
+     */
+    public boolean tokenize(CharSequence line, Sink sink) {
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            char c = line.charAt(i);
+            if (c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+
+            // 引用符・エスケープが出てくるまでは、元の行の位置だけを記録する
+            int start = i;
+            while (i < length && !isSeparator(c = line.charAt(i)) && !isQuoteOrEscape(c)) i++;
+            if (i == length || isSeparator(c)) {
+                sink.token(line, start, i);
+                continue;
+            }
+
+            unescaped.setLength(0);
+            unescaped.append(line, start, i);
+            i = unescape(line, i);
+            if (i < 0) return false;
+            String token = unescaped.toString();
+            sink.token(token, 0, token.length());
+        }
+        return true;
+    }
+
+    /**
+     * 引用符・エスケープを解釈しながら、トークンの終わりまで{@link #unescaped}に追加する。
+     *
+     * @return トークンの次の位置。引用符が閉じられていない場合は-1。
+     */
+    private int unescape(CharSequence line, int i) {
+        int length = line.length();
+        while (i < length) {
+            char c = line.charAt(i++);
+            switch (c) {
+                case ' ', '\t' -> {
+                    return i;
+                }
+                case '\'' -> {
+                    while (true) {
+                        if (i >= length) return unclosed(ParseError.Code.UNCLOSED_SINGLE_QUOTE);
+                        char quoted = line.charAt(i++);
+                        if (quoted == '\'') break;
+                        unescaped.append(quoted);
+                    }
+                }
+                case '"' -> {
+                    while (true) {
+                        if (i >= length) return unclosed(ParseError.Code.UNCLOSED_DOUBLE_QUOTE);
+                        char quoted = line.charAt(i++);
+                        if (quoted == '"') break;
+                        // ダブルクォートの中では、特定の文字だけをエスケープできる
+                        if (quoted == '\\' && i < length && isEscapableInDoubleQuote(line.charAt(i))) quoted = line.charAt(i++);
+                        unescaped.append(quoted);
+                    }
+                }
+                case '\\' -> {
+                    if (i < length) unescaped.append(line.charAt(i++));
+                }
+                default -> unescaped.append(c);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return 直前の{@link #tokenize(CharSequence, Sink)}で閉じられていなかった引用符の種類
+     */
+    public ParseError.Code unclosedQuote() {
+        return unclosedQuote;
+    }
+
+    private int unclosed(ParseError.Code code) {
+        this.unclosedQuote = code;
+        return -1;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isQuoteOrEscape(char c) {
+        return c == '\'' || c == '"' || c == '\\';
+    }
+
+    private static boolean isEscapableInDoubleQuote(char c) {
+        return c == '"' || c == '\\' || c == '$' || c == '`';
+    }
+
+    /**
+     * 分割したトークンを受け取る。
+     */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * @param source トークンを含む文字列。元の行か、エスケープを解釈したトークンそのもの。
+         * @param start  トークンの開始位置。
+         * @param end    トークンの終了位置。
+         */
+        void token(CharSequence source, int start, int end);
+    }
+}
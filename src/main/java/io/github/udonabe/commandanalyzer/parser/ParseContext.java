@@ -0,0 +1,598 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.parser;
+
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.metrics.ParseListener;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.NumberParser;
+import io.github.udonabe.commandanalyzer.option.Option;
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * 一回のパースの間だけ使う状態をまとめるクラス。
+ * {@link ParsePlan}は複数のスレッドから共有されるため、パース中に変化する状態は全てこちらに持たせる。
+ * 消費状況はビット集合、位置引数とトークンの進み具合は整数のカーソル、値は序数ごとの配列で記録するため、
+ * 同じインスタンスを使い回せば、パース中にほとんどメモリを確保しない。
+ * このクラスのインスタンスは、スレッド間で共有しないこと。
+ */
+public final class ParseContext {
+    private static final int INITIAL_LIST_CAPACITY = 8;
+
+    private final ParsePlan plan;
+    /**
+     * {@link ParsePlan#listener()}。通知しない場合は{@code null}。
+     */
+    private final ParseListener listener;
+    private final ValidationChecker validation;
+    /**
+     * 序数ごとの、消費済みかどうか。ビット集合になっている。
+     */
+    private final long[] consumed;
+    private final int[] ints;
+    private final double[] doubles;
+    private final boolean[] booleans;
+    /**
+     * 文字列の値。{@link ParseResult#rString()}・{@link ParseResult#rWhich()}・{@link ParseResult#rSubCommand()}のどれになるかは、
+     * 序数のオプションの種類で決まる。
+     * トークンの位置だけを記録しておき、{@link #getString(int)}で初めて読み出されたときに文字列を生成する。
+     */
+    private final CharSequence[] texts;
+    private final int[] textStarts;
+    private final int[] textEnds;
+    /**
+     * リスト型の値。序数ごとに初めて値を追加するときに確保し、足りなくなったら倍に広げる。
+     * パースをまたいで使い回すため、数値を大量に受け取っても一つずつボクシングしない。
+     */
+    private final int[][] intLists;
+    private final double[][] doubleLists;
+    private final String[][] stringLists;
+    /**
+     * 序数ごとの、リスト型の値の数。
+     */
+    private final int[] listSizes;
+    /**
+     * 遅延変換を使うかどうか。
+     */
+    private final boolean lazy;
+    /**
+     * 遅延変換で、まだ変換していない序数のビット集合。
+     */
+    private final long[] pending;
+    /**
+     * 数値の変換に使う。例外を使わずに解析するため、不正な入力でもスタックトレースを取得しない。
+     */
+    private final NumberParser numbers = new NumberParser();
+
+    /*
+     * トークン列。トークンごとに、元の文字列とその中での位置を記録する。
+     */
+    private CharSequence[] tokenSources = new CharSequence[16];
+    private int[] tokenStarts = new int[16];
+    private int[] tokenEnds = new int[16];
+    private int tokenCount;
+    private LineTokenizer tokenizer;
+    private final LineTokenizer.Sink tokenSink = this::addToken;
+
+    private int cursor;
+    private int positionalCursor;
+
+    /*
+     * 失敗の理由。例外を生成せずに記録し、必要になったときに{@link ParseError}にする。
+     */
+    private ParseError.Code errorCode;
+    private int errorToken;
+    private int errorOrdinal;
+
+    public ParseContext(@NonNull ParsePlan plan) {
+        this(plan, false);
+    }
+
+    /**
+     * @param plan 実行計画。
+     * @param lazy 遅延変換を使うかどうか。使う場合、引数はパース時には変換せずトークンの位置だけを記録し、
+     *             初めて読み出されたときに変換する。型が異なる場合も、読み出すまで検出されない。
+     */
+    public ParseContext(@NonNull ParsePlan plan, boolean lazy) {
+        this.plan = plan;
+        this.listener = plan.listener();
+        this.lazy = lazy;
+        this.pending = new long[ParsePlan.words(plan.size())];
+        this.validation = new ValidationChecker(this);
+        this.consumed = new long[ParsePlan.words(plan.size())];
+        this.ints = new int[plan.size()];
+        this.doubles = new double[plan.size()];
+        this.booleans = new boolean[plan.size()];
+        this.texts = new CharSequence[plan.size()];
+        this.textStarts = new int[plan.size()];
+        this.textEnds = new int[plan.size()];
+        this.intLists = new int[plan.size()][];
+        this.doubleLists = new double[plan.size()][];
+        this.stringLists = new String[plan.size()][];
+        this.listSizes = new int[plan.size()];
+    }
+
+    public ParsePlan plan() {
+        return plan;
+    }
+
+    /**
+     * 前回のパースの状態を消し、新しいトークン列で使えるようにする。
+     */
+    void reset(List<String> args) {
+        clear();
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            addToken(arg, 0, arg.length());
+        }
+    }
+
+    /**
+     * 前回のパースの状態を消し、{@code line}を分割したトークン列で使えるようにする。
+     * 結果を読み終わるまで、{@code line}の内容は変更しないこと。
+     *
+     * @return 成功したかどうか。引用符が閉じられていない場合は失敗する。
+     */
+    boolean reset(CharSequence line) {
+        clear();
+        if (tokenizer == null) tokenizer = new LineTokenizer();
+        if (!tokenizer.tokenize(line, tokenSink)) return fail(tokenizer.unclosedQuote(), -1, -1);
+        return true;
+    }
+
+    private void clear() {
+        Arrays.fill(consumed, 0L);
+        Arrays.fill(pending, 0L);
+        Arrays.fill(texts, null);
+        for (int i = 0; i < stringLists.length; i++) {
+            if (stringLists[i] != null) Arrays.fill(stringLists[i], 0, listSizes[i], null);
+        }
+        Arrays.fill(listSizes, 0);
+        Arrays.fill(tokenSources, 0, tokenCount, null);
+        this.tokenCount = 0;
+        this.cursor = 0;
+        this.positionalCursor = 0;
+        this.errorCode = null;
+    }
+
+    void addToken(CharSequence source, int start, int end) {
+        if (tokenCount == tokenSources.length) {
+            int capacity = tokenCount << 1;
+            tokenSources = Arrays.copyOf(tokenSources, capacity);
+            tokenStarts = Arrays.copyOf(tokenStarts, capacity);
+            tokenEnds = Arrays.copyOf(tokenEnds, capacity);
+        }
+        tokenSources[tokenCount] = source;
+        tokenStarts[tokenCount] = start;
+        tokenEnds[tokenCount] = end;
+        tokenCount++;
+    }
+
+    /**
+     * 失敗の理由を記録する。
+     *
+     * @param token   原因になったトークンの番号。無い場合は-1。
+     * @param ordinal 原因になったオプションの序数。無い場合は-1。
+     * @return 常に{@code false}
+     */
+    boolean fail(ParseError.Code code, int token, int ordinal) {
+        this.errorCode = code;
+        this.errorToken = token;
+        this.errorOrdinal = ordinal;
+
+        if (FlightRecorderEvents.errorEnabled()) {
+            ParseErrorEvent event = new ParseErrorEvent();
+            event.schemaId = plan.schemaId();
+            event.code = code.name();
+            event.tokenIndex = token;
+            event.commit();
+        }
+        return false;
+    }
+
+    /**
+     * 記録した失敗の理由を返す。次のパースを始める前に呼び出すこと。
+     *
+     * @return 失敗の理由。失敗していない場合は{@code null}。
+     */
+    public ParseError error() {
+        if (errorCode == null) return null;
+
+        Option option = errorOrdinal < 0 ? null : plan.option(errorOrdinal);
+        String input;
+        if (errorCode == ParseError.Code.INVALID_ARGUMENT) {
+            input = toString(texts[errorOrdinal], textStarts[errorOrdinal], textEnds[errorOrdinal]);
+        } else {
+            input = errorToken < 0 ? null : tokenString(errorToken);
+        }
+        // 近い表示名は、一致する表示名が無かった場合だけ探す
+        List<String> suggestions = List.of();
+        if (input != null && errorCode == ParseError.Code.UNKNOWN_OPTION && errorOrdinal < 0) {
+            suggestions = plan.suggestOptions(input);
+        } else if (input != null && errorCode == ParseError.Code.MISSING_SUBCOMMAND) {
+            suggestions = plan.suggestSubCommands(input);
+        }
+        return new ParseError(errorCode, errorToken, option, input, suggestions);
+    }
+
+    ParseError.Code errorCode() {
+        return errorCode;
+    }
+
+    int errorToken() {
+        return errorToken;
+    }
+
+    ValidationChecker validation() {
+        return validation;
+    }
+
+    /**
+     * @return トークンの数
+     */
+    int tokenCount() {
+        return tokenCount;
+    }
+
+    boolean hasNext() {
+        return cursor < tokenCount;
+    }
+
+    /**
+     * 次のトークンを取り出す。
+     *
+     * @return 次のトークンの番号
+     * @throws NoSuchElementException トークンが残っていない場合
+     */
+    int next() {
+        if (cursor >= tokenCount) throw new NoSuchElementException();
+        return cursor++;
+    }
+
+    CharSequence tokenSource(int token) {
+        return tokenSources[token];
+    }
+
+    int tokenStart(int token) {
+        return tokenStarts[token];
+    }
+
+    int tokenEnd(int token) {
+        return tokenEnds[token];
+    }
+
+    /**
+     * トークンを文字列にする。トークンが元の文字列全体の場合は、新しい文字列を生成しない。
+     */
+    String tokenString(int token) {
+        return toString(tokenSources[token], tokenStarts[token], tokenEnds[token]);
+    }
+
+    boolean tokenEquals(int token, String s) {
+        return regionEquals(tokenSources[token], tokenStarts[token], tokenEnds[token], false, s);
+    }
+
+    boolean tokenStartsWith(int token, String prefix) {
+        int start = tokenStarts[token];
+        return tokenEnds[token] - start >= prefix.length()
+               && regionEquals(tokenSources[token], start, start + prefix.length(), false, prefix);
+    }
+
+    private static boolean regionEquals(CharSequence source, int start, int end, boolean ignoreCase, String s) {
+        if (end - start != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            char a = source.charAt(start + i);
+            char b = s.charAt(i);
+            if (a != b && !(ignoreCase && Character.toLowerCase(a) == Character.toLowerCase(b))) return false;
+        }
+        return true;
+    }
+
+    private static String toString(CharSequence source, int start, int end) {
+        if (start == 0 && end == source.length() && source instanceof String s) return s;
+        return source.subSequence(start, end).toString();
+    }
+
+    int positionalCursor() {
+        return positionalCursor;
+    }
+
+    /**
+     * 位置引数のカーソルを進める。
+     *
+     * @return 進める前のカーソル
+     */
+    int advancePositional() {
+        return positionalCursor++;
+    }
+
+    public boolean consumed(int ordinal) {
+        return (consumed[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    void consume(int ordinal) {
+        consumed[ordinal >>> 6] |= 1L << ordinal;
+        if (listener != null) listener.optionMatched(plan.option(ordinal));
+    }
+
+    /**
+     * @param mask 調べる序数のビット集合。
+     * @return {@code mask}の序数が、全て消費済みかどうか
+     */
+    boolean consumedAll(long[] mask) {
+        return firstUnconsumed(mask) < 0;
+    }
+
+    /**
+     * @return {@code mask}のうち、消費されていない最小の序数。全て消費済みの場合は-1。
+     */
+    int firstUnconsumed(long[] mask) {
+        for (int i = 0; i < mask.length; i++) {
+            long missing = mask[i] & ~consumed[i];
+            if (missing != 0) return (i << 6) + Long.numberOfTrailingZeros(missing);
+        }
+        return -1;
+    }
+
+    void setInt(int ordinal, int value) {
+        ints[ordinal] = value;
+    }
+
+    void setDouble(int ordinal, double value) {
+        doubles[ordinal] = value;
+    }
+
+    void setBoolean(int ordinal, boolean value) {
+        booleans[ordinal] = value;
+    }
+
+    void setString(int ordinal, String value) {
+        setText(ordinal, value, 0, value.length());
+    }
+
+    /**
+     * 文字列の値を、元の文字列とその中での位置として記録する。
+     */
+    void setText(int ordinal, CharSequence source, int start, int end) {
+        texts[ordinal] = source;
+        textStarts[ordinal] = start;
+        textEnds[ordinal] = end;
+    }
+
+    private void addInt(int ordinal, int value) {
+        int[] values = intLists[ordinal];
+        int size = listSizes[ordinal];
+        if (values == null) {
+            values = intLists[ordinal] = new int[INITIAL_LIST_CAPACITY];
+        } else if (size == values.length) {
+            values = intLists[ordinal] = Arrays.copyOf(values, size << 1);
+        }
+        values[size] = value;
+        listSizes[ordinal] = size + 1;
+    }
+
+    private void addDouble(int ordinal, double value) {
+        double[] values = doubleLists[ordinal];
+        int size = listSizes[ordinal];
+        if (values == null) {
+            values = doubleLists[ordinal] = new double[INITIAL_LIST_CAPACITY];
+        } else if (size == values.length) {
+            values = doubleLists[ordinal] = Arrays.copyOf(values, size << 1);
+        }
+        values[size] = value;
+        listSizes[ordinal] = size + 1;
+    }
+
+    private void addString(int ordinal, String value) {
+        String[] values = stringLists[ordinal];
+        int size = listSizes[ordinal];
+        if (values == null) {
+            values = stringLists[ordinal] = new String[INITIAL_LIST_CAPACITY];
+        } else if (size == values.length) {
+            values = stringLists[ordinal] = Arrays.copyOf(values, size << 1);
+        }
+        values[size] = value;
+        listSizes[ordinal] = size + 1;
+    }
+
+    /**
+     * 記録した引数を、オプションの型に従って変換する。
+     * 遅延変換を使う場合は、変換せずに読み出されるまで待つ。リスト型は、遅延変換を使う場合も常に変換する。
+     *
+     * @return 成功したかどうか。型が異なる場合は失敗する。
+     */
+    boolean convert(int ordinal) {
+        ArgType type = plan.option(ordinal).type();
+        if (lazy && type != ArgType.STRING && !type.isList()) {
+            pending[ordinal >>> 6] |= 1L << ordinal;
+            return true;
+        }
+        if (listener == null) return convertText(ordinal);
+
+        boolean converted = convertText(ordinal);
+        listener.argumentConverted(plan.option(ordinal), converted);
+        return converted;
+    }
+
+    /**
+     * 変換内容は{@link ArgType#parse(String)}と同じだが、{@link ParseResult}を生成しない。
+     */
+    private boolean convertText(int ordinal) {
+        Option option = plan.option(ordinal);
+        CharSequence source = texts[ordinal];
+        int start = textStarts[ordinal];
+        int end = textEnds[ordinal];
+        return switch (option.type()) {
+            case NONE -> {
+                booleans[ordinal] = true;
+                yield true;
+            }
+            // 文字列は、読み出されたときに生成する
+            case STRING -> true;
+            case INTEGER -> {
+                boolean parsed = numbers.parseInt(source, start, end);
+                ints[ordinal] = numbers.intValue();
+                yield parsed;
+            }
+            case DOUBLE -> {
+                boolean parsed = numbers.parseDouble(source, start, end);
+                doubles[ordinal] = numbers.doubleValue();
+                yield parsed;
+            }
+            case BOOLEAN -> {
+                booleans[ordinal] = regionEquals(source, start, end, true, "true");
+                yield true;
+            }
+            case INTEGER_LIST -> {
+                boolean parsed = numbers.parseInt(source, start, end);
+                if (parsed) addInt(ordinal, numbers.intValue());
+                yield parsed;
+            }
+            case DOUBLE_LIST -> {
+                boolean parsed = numbers.parseDouble(source, start, end);
+                if (parsed) addDouble(ordinal, numbers.doubleValue());
+                yield parsed;
+            }
+            case STRING_LIST -> {
+                addString(ordinal, toString(source, start, end));
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * 遅延変換でまだ変換していない場合、変換する。結果は記録し、二回目以降は変換しない。
+     *
+     * @throws IllegalStateException 型が異なる場合
+     */
+    private void resolve(int ordinal) {
+        long bit = 1L << ordinal;
+        if ((pending[ordinal >>> 6] & bit) == 0) return;
+
+        if (!convertText(ordinal)) {
+            Option option = plan.option(ordinal);
+            String input = toString(texts[ordinal], textStarts[ordinal], textEnds[ordinal]);
+            throw new IllegalStateException(new ParseError(ParseError.Code.INVALID_ARGUMENT, -1, option, input).message());
+        }
+        pending[ordinal >>> 6] &= ~bit;
+    }
+
+    /*
+     * 以下の読み出しは、消費済みの序数に対してのみ意味を持つ。
+     * 消費されていない序数では、前回のパースの値が残っている可能性がある。
+     * 遅延変換では、型が異なる場合にIllegalStateExceptionが発生する。
+     */
+
+    public int getInt(int ordinal) {
+        resolve(ordinal);
+        return ints[ordinal];
+    }
+
+    public double getDouble(int ordinal) {
+        resolve(ordinal);
+        return doubles[ordinal];
+    }
+
+    public boolean getBoolean(int ordinal) {
+        resolve(ordinal);
+        return booleans[ordinal];
+    }
+
+    /**
+     * 文字列の値を読み出す。初めて読み出されたときに文字列を生成し、以降はそれを返す。
+     */
+    public String getString(int ordinal) {
+        CharSequence text = texts[ordinal];
+        if (text == null) return null;
+
+        String s = toString(text, textStarts[ordinal], textEnds[ordinal]);
+        setString(ordinal, s);
+        return s;
+    }
+
+    /**
+     * @return リスト型の値の数。指定されていない場合は0。
+     */
+    public int listSize(int ordinal) {
+        return listSizes[ordinal];
+    }
+
+    public int getInt(int ordinal, int index) {
+        return intLists[ordinal][Objects.checkIndex(index, listSizes[ordinal])];
+    }
+
+    public double getDouble(int ordinal, int index) {
+        return doubleLists[ordinal][Objects.checkIndex(index, listSizes[ordinal])];
+    }
+
+    public String getString(int ordinal, int index) {
+        return stringLists[ordinal][Objects.checkIndex(index, listSizes[ordinal])];
+    }
+
+    /**
+     * @return リスト型の値をコピーした配列。指定されていない場合は空の配列。
+     */
+    public int[] getInts(int ordinal) {
+        int size = listSizes[ordinal];
+        return size == 0 ? new int[0] : Arrays.copyOf(intLists[ordinal], size);
+    }
+
+    public double[] getDoubles(int ordinal) {
+        int size = listSizes[ordinal];
+        return size == 0 ? new double[0] : Arrays.copyOf(doubleLists[ordinal], size);
+    }
+
+    public String[] getStrings(int ordinal) {
+        int size = listSizes[ordinal];
+        return size == 0 ? new String[0] : Arrays.copyOf(stringLists[ordinal], size);
+    }
+
+    /**
+     * パースした結果を、管理名をキーにした{@link Map}に変換する。
+     *
+     * @return 変換した結果
+     */
+    public Map<String, ParseResult> toResultMap() {
+        Map<String, ParseResult> result = HashMap.newHashMap(plan.size());
+
+        // サブコマンドの序数は常に0
+        Option subCommand = plan.subCommand();
+        if (subCommand != null && consumed(0)) {
+            result.put(subCommand.managementName(), ParseResult.builder().present(true).rSubCommand(getString(0)).build());
+        }
+        for (int i = 0; i < plan.normalCount(); i++) {
+            int ordinal = plan.normalOrdinal(i);
+            result.put(plan.option(ordinal).managementName(),
+                    consumed(ordinal) ? toParseResult(ordinal) : ParseResult.builder().build());
+        }
+        for (int i = 0; i < plan.positionalCount(); i++) {
+            int ordinal = plan.positionalOrdinal(i);
+            if (consumed(ordinal)) result.put(plan.option(ordinal).managementName(), toParseResult(ordinal));
+        }
+        return result;
+    }
+
+    private ParseResult toParseResult(int ordinal) {
+        Option option = plan.option(ordinal);
+        if (option.exclusive()) return ParseResult.builder().rWhich(getString(ordinal)).build();
+
+        return switch (option.type()) {
+            case NONE, BOOLEAN -> ParseResult.builder().present(true).rBoolean(getBoolean(ordinal)).build();
+            case STRING -> ParseResult.builder().present(true).rString(getString(ordinal)).build();
+            case INTEGER -> ParseResult.builder().present(true).rInt(getInt(ordinal)).build();
+            case DOUBLE -> ParseResult.builder().present(true).rDouble(getDouble(ordinal)).build();
+            case INTEGER_LIST -> ParseResult.builder().present(true).rInts(getInts(ordinal)).build();
+            case DOUBLE_LIST -> ParseResult.builder().present(true).rDoubles(getDoubles(ordinal)).build();
+            case STRING_LIST -> ParseResult.builder().present(true).rStrings(getStrings(ordinal)).build();
+        };
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.parser;
+
+import jdk.jfr.*;
+
+/**
+ * パースの失敗を表すJava Flight Recorderのイベント。
+ * 記録していない間は、生成もしない。
+ */
+@Name("io.github.udonabe.commandanalyzer.ParseError")
+@Label("Command Parse Error")
+@Category("Command Analyzer")
+@Description("パースの失敗")
+@StackTrace(false)
+class ParseErrorEvent extends Event {
+    @Label("Schema")
+    @Description("パースに使った実行計画の識別子")
+    String schemaId;
+
+    @Label("Error Kind")
+    String code;
+
+    @Label("Token Index")
+    @Description("原因になったトークンの番号。無い場合は-1")
+    int tokenIndex;
+}
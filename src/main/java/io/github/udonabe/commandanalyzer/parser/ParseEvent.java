@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.parser;
+
+import jdk.jfr.*;
+
+/**
+ * 一回のパースを表すJava Flight Recorderのイベント。所要時間はイベントの期間として記録する。
+ * 記録していない間は、生成もしない。
+ */
+@Name("io.github.udonabe.commandanalyzer.Parse")
+@Label("Command Parse")
+@Category("Command Analyzer")
+@Description("一回のパース")
+@StackTrace(false)
+class ParseEvent extends Event {
+    @Label("Schema")
+    @Description("パースに使った実行計画の識別子")
+    String schemaId;
+
+    @Label("Token Count")
+    int tokenCount;
+
+    @Label("Outcome")
+    @Description("成功した場合はSUCCESS、失敗した場合はその種類")
+    String outcome;
+}
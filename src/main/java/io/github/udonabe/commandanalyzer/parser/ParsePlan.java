@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.parser;
+
+import io.github.udonabe.commandanalyzer.metrics.ParseListener;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * {@link io.github.udonabe.commandanalyzer.command.CommandOptions}を、パースしやすい形に事前計算した不変の実行計画。
+ * 全てのオプションに序数(ordinal)を割り当て、表示名(OptionDisplay#getFullDisplay())から
+ * 一回の検索でオプションを引けるようにしている。
+ * 検索は{@link DisplayIndex}で行うため、トークンを文字列として切り出さなくてもよい。
+ * 一致しなかった入力のために、近い表示名を探す{@link SuggestionIndex}も持つ。
+ * これは大きいため、初めて必要になったときに一度だけ構築する。
+ * 序数は、サブコマンドがあればそれを0とし、以降はオプション・位置引数を追加した順に割り当てる。
+ * {@link ParseListener}を設定した場合、この計画を使う全てのパースの経過を通知する。
+ */
+public final class ParsePlan {
+    /**
+     * 文字で直接引く、一文字のショートオプションの表の大きさ。Latin-1の範囲を収める。
+     */
+    private static final int SHORT_TABLE_SIZE = 256;
+
+    /**
+     * 序数順に並べた全てのオプション。
+     */
+    private final Option[] options;
+    /**
+     * 序数順に並べた、各オプションの表示名一覧。
+     */
+    private final List<Set<String>> fullDisplays;
+    private final DisplayIndex subCommandIndex;
+    private final DisplayIndex optionIndex;
+    /**
+     * 一文字のショートオプションを、文字で直接引く表。{@code -abc}のようにまとめて指定されたショートオプションに使う。
+     * 表に収まらない文字は、{@link #wideShortChars}から二分探索で引く。
+     */
+    private final Slot[] shortOptions;
+    private final char[] wideShortChars;
+    private final Slot[] wideShortOptions;
+    private final List<String> subCommandDisplays;
+    private final List<String> optionDisplays;
+    private volatile SuggestionIndex subCommandSuggestions;
+    private volatile SuggestionIndex optionSuggestions;
+    private final int subCommandOrdinal;
+    private final int[] normalOrdinals;
+    private final int[] positionalOrdinals;
+    /**
+     * 必須の普通のオプションの序数を表すビット集合。
+     */
+    private final long[] requiredMask;
+    /**
+     * 実行計画の識別子。Java Flight Recorderのイベントなどで、どのコマンドのパースかを区別するために使う。
+     */
+    private final String schemaId;
+    /**
+     * パースの経過を通知する相手。無い場合は{@code null}で、通知のための処理は一切行わない。
+     */
+    private final ParseListener listener;
+
+    private ParsePlan(Option[] options,
+                      List<Set<String>> fullDisplays,
+                      DisplayIndex subCommandIndex,
+                      DisplayIndex optionIndex,
+                      Slot[] shortOptions,
+                      char[] wideShortChars,
+                      Slot[] wideShortOptions,
+                      List<String> subCommandDisplays,
+                      List<String> optionDisplays,
+                      int subCommandOrdinal,
+                      int[] normalOrdinals,
+                      int[] positionalOrdinals,
+                      long[] requiredMask,
+                      String schemaId,
+                      ParseListener listener) {
+        this.options = options;
+        this.fullDisplays = fullDisplays;
+        this.subCommandIndex = subCommandIndex;
+        this.optionIndex = optionIndex;
+        this.shortOptions = shortOptions;
+        this.wideShortChars = wideShortChars;
+        this.wideShortOptions = wideShortOptions;
+        this.subCommandDisplays = subCommandDisplays;
+        this.optionDisplays = optionDisplays;
+        this.subCommandOrdinal = subCommandOrdinal;
+        this.normalOrdinals = normalOrdinals;
+        this.positionalOrdinals = positionalOrdinals;
+        this.requiredMask = requiredMask;
+        this.schemaId = schemaId;
+        this.listener = listener;
+    }
+
+    /**
+     * 実行計画を生成する。
+     *
+     * @param subCommand     サブコマンド。無い場合は{@code null}。
+     * @param declared       サブコマンド以外の全てのオプション。追加した順に並べる。
+     * @param positionalArgs {@code declared}のうち、位置引数であるもの。
+     * @return 生成した実行計画
+     */
+    public static ParsePlan compile(Option subCommand,
+                                    @NonNull List<Option> declared,
+                                    @NonNull Collection<Option> positionalArgs) {
+        int offset = subCommand == null ? 0 : 1;
+        int size = declared.size() + offset;
+        Option[] options = new Option[size];
+        boolean[] positional = new boolean[size];
+        String[][] displays = new String[size][];
+        String[][] fullDisplays = new String[size][];
+
+        if (subCommand != null) {
+            options[0] = subCommand;
+            splitDisplays(subCommand, 0, displays, fullDisplays);
+        }
+        for (int i = 0; i < declared.size(); i++) {
+            Option option = declared.get(i);
+            options[i + offset] = option;
+            positional[i + offset] = positionalArgs.contains(option);
+            splitDisplays(option, i + offset, displays, fullDisplays);
+        }
+        return link(options, subCommand != null, positional, displays, fullDisplays);
+    }
+
+    private static void splitDisplays(Option option, int ordinal, String[][] displays, String[][] fullDisplays) {
+        Set<OptionDisplay> set = option.displays();
+        displays[ordinal] = new String[set.size()];
+        fullDisplays[ordinal] = new String[set.size()];
+        int i = 0;
+        for (OptionDisplay display : set) {
+            displays[ordinal][i] = display.display();
+            fullDisplays[ordinal][i] = display.getFullDisplay();
+            i++;
+        }
+    }
+
+    /**
+     * 序数順に並べた内容から、実行計画を生成する。
+     * {@link #compile(Option, List, Collection)}と違い、表示名を{@link Option}から計算しないため、
+     * 保存しておいた計画を読み込む場合など、表示名が既に分かっている場合に使う。
+     * 表示名の重複だけは検査する。
+     *
+     * @param options       序数順に並べた全てのオプション。
+     * @param hasSubCommand 序数0がサブコマンドかどうか。
+     * @param positional    序数ごとの、位置引数かどうか。
+     * @param displays      序数ごとの、プレフィックスを含まない表示名({@link OptionDisplay#display()})。
+     * @param fullDisplays  序数ごとの表示名({@link OptionDisplay#getFullDisplay()})。{@code displays}と同じ順に並べる。
+     * @return 生成した実行計画
+     */
+    public static ParsePlan link(@NonNull Option[] options,
+                                 boolean hasSubCommand,
+                                 @NonNull boolean[] positional,
+                                 @NonNull String[][] displays,
+                                 @NonNull String[][] fullDisplays) {
+        int size = options.length;
+        int positionalCount = 0;
+        for (boolean b : positional) if (b) positionalCount++;
+
+        List<Set<String>> fullDisplaySets = new ArrayList<>(size);
+        Map<String, Slot> subCommandIndex = new HashMap<>();
+        Map<String, Slot> optionIndex = new HashMap<>();
+        int[] normalOrdinals = new int[size - positionalCount - (hasSubCommand ? 1 : 0)];
+        int[] positionalOrdinals = new int[positionalCount];
+        long[] requiredMask = new long[words(size)];
+
+        int normal = 0;
+        int positionalIndex = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            Option option = options[ordinal];
+            if (hasSubCommand && ordinal == 0) {
+                index(subCommandIndex, option, ordinal, displays[ordinal], fullDisplays[ordinal]);
+            } else if (positional[ordinal]) {
+                positionalOrdinals[positionalIndex++] = ordinal;
+            } else {
+                normalOrdinals[normal++] = ordinal;
+                index(optionIndex, option, ordinal, displays[ordinal], fullDisplays[ordinal]);
+                if (option.required()) requiredMask[ordinal >>> 6] |= 1L << ordinal;
+            }
+            // 重複は、索引に登録したときに検出済み
+            fullDisplaySets.add(Set.of(fullDisplays[ordinal]));
+        }
+
+        // 一文字のショートオプションを、文字で引けるようにする
+        Slot[] shortOptions = new Slot[SHORT_TABLE_SIZE];
+        TreeMap<Character, Slot> wideShortOptions = new TreeMap<>();
+        for (Map.Entry<String, Slot> entry : optionIndex.entrySet()) {
+            // 「-」と一文字だけの表示名が、一文字のショートオプション
+            String display = entry.getKey();
+            if (display.length() != 2 || display.charAt(0) != '-' || display.charAt(1) == '-') continue;
+            char c = display.charAt(1);
+            if (c < SHORT_TABLE_SIZE) {
+                shortOptions[c] = entry.getValue();
+            } else {
+                wideShortOptions.put(c, entry.getValue());
+            }
+        }
+        char[] wideShortChars = new char[wideShortOptions.size()];
+        int wide = 0;
+        for (char c : wideShortOptions.keySet()) wideShortChars[wide++] = c;
+
+        Option subCommand = hasSubCommand ? options[0] : null;
+        List<Set<String>> fullDisplayList = List.copyOf(fullDisplaySets);
+        return new ParsePlan(options.clone(), fullDisplayList, new DisplayIndex(subCommandIndex), new DisplayIndex(optionIndex),
+                shortOptions, wideShortChars, wideShortOptions.values().toArray(Slot[]::new),
+                List.copyOf(subCommandIndex.keySet()), List.copyOf(optionIndex.keySet()),
+                hasSubCommand ? 0 : -1, normalOrdinals, positionalOrdinals, requiredMask, schemaId(subCommand, fullDisplayList), null);
+    }
+
+    /**
+     * 通知する相手だけを変えた実行計画を生成する。表などは共有するため、再計算しない。
+     *
+     * @param listener パースの経過を通知する相手。通知しない場合は{@code null}。
+     * @return 生成した実行計画
+     */
+    public ParsePlan withListener(ParseListener listener) {
+        ParsePlan copy = new ParsePlan(options, fullDisplays, subCommandIndex, optionIndex,
+                shortOptions, wideShortChars, wideShortOptions, subCommandDisplays, optionDisplays,
+                subCommandOrdinal, normalOrdinals, positionalOrdinals, requiredMask, schemaId, listener);
+        copy.subCommandSuggestions = subCommandSuggestions;
+        copy.optionSuggestions = optionSuggestions;
+        return copy;
+    }
+
+    /**
+     * サブコマンドがあればその管理名を、無ければ全ての表示名から計算した値を識別子にする。
+     */
+    private static String schemaId(Option subCommand, List<Set<String>> fullDisplays) {
+        if (subCommand != null) return subCommand.managementName();
+        return "#" + Integer.toHexString(fullDisplays.hashCode());
+    }
+
+    private static void index(Map<String, Slot> index, Option option, int ordinal, String[] displays, String[] fullDisplays) {
+        for (int i = 0; i < displays.length; i++) {
+            if (index.put(fullDisplays[i], new Slot(ordinal, option, displays[i])) != null) {
+                throw new IllegalArgumentException("既に同じ表示名(OptionDisplay#getFullDisplay())のオプションが追加されています。");
+            }
+        }
+    }
+
+    /**
+     * @param size 序数の総数。
+     * @return 序数のビット集合を表すのに必要な{@code long}の数
+     */
+    static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * サブコマンドを検索する。
+     *
+     * @param cmd 検索する文字列。
+     * @return 見つかったスロット。無い場合は{@code null}。
+     */
+    public Slot lookupSubCommand(String cmd) {
+        return subCommandIndex.get(cmd);
+    }
+
+    /**
+     * サブコマンドを、文字列の一部分から検索する。
+     *
+     * @return 見つかったスロット。無い場合は{@code null}。
+     */
+    public Slot lookupSubCommand(CharSequence source, int start, int end) {
+        return subCommandIndex.get(source, start, end);
+    }
+
+    /**
+     * 普通のオプションを、表示名から検索する。
+     *
+     * @param cmd 検索する文字列。
+     * @return 見つかったスロット。無い場合は{@code null}。
+     */
+    public Slot lookupOption(String cmd) {
+        return optionIndex.get(cmd);
+    }
+
+    /**
+     * 普通のオプションを、文字列の一部分から検索する。文字列を切り出さずに検索できる。
+     *
+     * @return 見つかったスロット。無い場合は{@code null}。
+     */
+    public Slot lookupOption(CharSequence source, int start, int end) {
+        return optionIndex.get(source, start, end);
+    }
+
+    /**
+     * 一文字のショートオプションを、文字から引く。
+     *
+     * @param c 「-」を除いた表示名。
+     * @return 見つかったスロット。無い場合は{@code null}。
+     */
+    public Slot lookupShortOption(char c) {
+        if (c < SHORT_TABLE_SIZE) return shortOptions[c];
+
+        int index = Arrays.binarySearch(wideShortChars, c);
+        return index < 0 ? null : wideShortOptions[index];
+    }
+
+    /**
+     * 一致しなかったサブコマンドに近い表示名を探す。
+     *
+     * @param input 入力された文字列。
+     * @return 近い順に並べた表示名。最大{@value SuggestionIndex#MAX_SUGGESTIONS}件。
+     */
+    public List<String> suggestSubCommands(String input) {
+        SuggestionIndex index = subCommandSuggestions;
+        // 同時に構築されても結果は同じなので、ロックしない
+        if (index == null) subCommandSuggestions = index = new SuggestionIndex(subCommandDisplays);
+        return index.suggest(input);
+    }
+
+    /**
+     * 一致しなかったオプションに近い表示名(OptionDisplay#getFullDisplay())を探す。
+     *
+     * @param input 入力された文字列。
+     * @return 近い順に並べた表示名。最大{@value SuggestionIndex#MAX_SUGGESTIONS}件。
+     */
+    public List<String> suggestOptions(String input) {
+        SuggestionIndex index = optionSuggestions;
+        if (index == null) optionSuggestions = index = new SuggestionIndex(optionDisplays);
+        return index.suggest(input);
+    }
+
+    /**
+     * @return 序数の総数
+     */
+    public int size() {
+        return options.length;
+    }
+
+    public Option option(int ordinal) {
+        return options[ordinal];
+    }
+
+    public Set<String> fullDisplays(int ordinal) {
+        return fullDisplays.get(ordinal);
+    }
+
+    public Option subCommand() {
+        return subCommandOrdinal < 0 ? null : options[subCommandOrdinal];
+    }
+
+    public boolean hasSubCommand() {
+        return subCommandOrdinal >= 0;
+    }
+
+    public boolean hasNormalOptions() {
+        return normalOrdinals.length > 0;
+    }
+
+    public boolean hasPositionalArgs() {
+        return positionalOrdinals.length > 0;
+    }
+
+    public int normalCount() {
+        return normalOrdinals.length;
+    }
+
+    public int normalOrdinal(int index) {
+        return normalOrdinals[index];
+    }
+
+    public int positionalCount() {
+        return positionalOrdinals.length;
+    }
+
+    public int positionalOrdinal(int index) {
+        return positionalOrdinals[index];
+    }
+
+    /**
+     * @return 実行計画の識別子。サブコマンドがあればその管理名。
+     */
+    public String schemaId() {
+        return schemaId;
+    }
+
+    /**
+     * @return パースの経過を通知する相手。無い場合は{@code null}。
+     */
+    public ParseListener listener() {
+        return listener;
+    }
+
+    /**
+     * 呼び出し側で変更しないこと。
+     *
+     * @return 必須の普通のオプションの序数を表すビット集合
+     */
+    long[] requiredMask() {
+        return requiredMask;
+    }
+
+    /**
+     * 表示名の検索結果。
+     *
+     * @param ordinal オプションの序数。
+     * @param option  見つかったオプション。
+     * @param display 一致した表示({@link OptionDisplay#display()})。プレフィックスを含まない。
+     */
+    public record Slot(int ordinal, Option option, String display) {
+    }
+}
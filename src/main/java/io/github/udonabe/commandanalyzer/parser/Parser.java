@@ -8,19 +8,15 @@
 
 package io.github.udonabe.commandanalyzer.parser;
 
-import io.github.udonabe.commandanalyzer.OptionParseException;
-import io.github.udonabe.commandanalyzer.ParseResult;
-import io.github.udonabe.commandanalyzer.option.Option;
-
-import java.util.*;
-
 @FunctionalInterface
 interface Parser {
-    Map<String, ParseResult> parse(List<Option> options, String cmd, Iterator<String> it) throws OptionParseException;
-
-    static Optional<Option> match(Collection<Option> commands, String cmd) {
-        return commands.stream()
-                .filter(t -> t.matches(cmd))
-                .findFirst();
-    }
+    /**
+     * トークンを解析し、結果を{@code context}に書き込む。
+     * 引数を取る場合、残りのトークンは{@link ParseContext#next()}で取り出す。
+     *
+     * @param context このパースの状態。
+     * @param token   現在のトークンの番号。内容は{@link ParseContext#tokenSource(int)}などで読み出す。
+     * @return 成功したかどうか。失敗した場合は、{@link ParseContext#fail(io.github.udonabe.commandanalyzer.ParseError.Code, int, int)}で理由を記録する。
+     */
+    boolean parse(ParseContext context, int token);
 }
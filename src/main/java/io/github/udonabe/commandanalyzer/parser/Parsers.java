@@ -8,86 +8,173 @@
 
 package io.github.udonabe.commandanalyzer.parser;
 
-import io.github.udonabe.commandanalyzer.OptionParseException;
-import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.ParseError;
 import io.github.udonabe.commandanalyzer.option.ArgType;
-import io.github.udonabe.commandanalyzer.option.Option;
-import io.github.udonabe.commandanalyzer.option.OptionDisplay;
-
-import java.util.*;
 
 class Parsers {
-    static Parser subCommand = (options, cmd, it) -> {
-        // 引数を変更してしまう可能性があるため、コピーする
-        Map<String, ParseResult> result = new HashMap<>();
-
-        // サブコマンドは一つのみが想定される
-        assert options.size() == 1 : "サブコマンドは一つしか指定できません。";
-        Option option = options.getFirst();
+    static final Parser subCommand = (context, token) -> {
+        ParsePlan plan = context.plan();
+        CharSequence source = context.tokenSource(token);
+        int start = context.tokenStart(token);
+        int end = context.tokenEnd(token);
 
-        Optional<Option> matched = Parser.match(options, cmd);
-        if (matched.isEmpty())
-            throw new OptionParseException("サブコマンドがありません。入力候補: " + option.displays());
+        ParsePlan.Slot matched = plan.lookupSubCommand(source, start, end);
+        if (matched == null) return context.fail(ParseError.Code.MISSING_SUBCOMMAND, token, 0);
 
-        result.put(matched.get().managementName(), ParseResult.builder().present(true).rSubCommand(cmd).build());
+        context.consume(matched.ordinal());
+        context.setText(matched.ordinal(), source, start, end);
+        return true;
+    };
 
-        return result;
+    static final Parser argument = (context, token) -> {
+        ParsePlan plan = context.plan();
+        // 位置引数は、先頭から順番に消費する。最後の位置引数がリスト型の場合は、残りを全て受け取る
+        int ordinal;
+        if (context.positionalCursor() < plan.positionalCount()) {
+            ordinal = plan.positionalOrdinal(context.advancePositional());
+        } else {
+            int count = plan.positionalCount();
+            if (count == 0 || !plan.option(plan.positionalOrdinal(count - 1)).type().isList()) {
+                return context.fail(ParseError.Code.UNEXPECTED_ARGUMENT, token, -1);
+            }
+            ordinal = plan.positionalOrdinal(count - 1);
+        }
+        if (!convert(context, ordinal, token)) return false;
+        context.consume(ordinal);
+        return true;
     };
 
-    static Parser argument = (options, cmd, it) -> {
-        Map<String, ParseResult> result = new HashMap<>();
-        try {
-            result.put(options.getFirst().managementName(), options.getFirst().type().parse(cmd));
-        } catch (OptionParseException e) {
-            throw new OptionParseException("引数にエラーがあります。入力値: " + cmd + ", 管理名: " + options.getFirst().managementName(), e);
+    static final Parser option = (context, token) -> {
+        ParsePlan plan = context.plan();
+        ParsePlan.Slot matched = plan.lookupOption(context.tokenSource(token), context.tokenStart(token), context.tokenEnd(token));
+        if (matched == null) {
+            int separator = indexOf(context, token, '=');
+            if (separator >= 0) {
+                matched = plan.lookupOption(context.tokenSource(token), context.tokenStart(token), separator);
+                if (matched != null) return attached(context, token, separator, matched);
+            }
+            // 「-Dkey=value」のように、ショートオプションの引数に「=」が含まれる場合は、まとめたものとして扱う
+            if (isBundle(context, token)) return bundle(context, token);
+            return context.fail(ParseError.Code.UNKNOWN_OPTION, token, -1);
+        }
+        if (!checkDuplicate(context, token, matched)) return false;
+
+        if (matched.option().type() == ArgType.NONE) {
+            flag(context, matched);
+            return true;
         }
-        return result;
+
+        if (!context.hasNext()) return context.fail(ParseError.Code.MISSING_ARGUMENT, token, matched.ordinal());
+        if (!convert(context, matched.ordinal(), context.next())) return false;
+        context.consume(matched.ordinal());
+        return true;
     };
 
-    private static final Set<String> exclusiveDisplayNames = new HashSet<>();
+    /**
+     * @return トークンの中で{@code c}が最初に現れる位置。無い場合は-1。
+     */
+    private static int indexOf(ParseContext context, int token, char c) {
+        CharSequence source = context.tokenSource(token);
+        for (int i = context.tokenStart(token), end = context.tokenEnd(token); i < end; i++) {
+            if (source.charAt(i) == c) return i;
+        }
+        return -1;
+    }
 
-    static Parser option = (options, cmd, it) -> {
-        Optional<Option> matched = Parser.match(options, cmd);
-        if (matched.isEmpty()) {
-            if (exclusiveDisplayNames.contains(cmd)) {
-                throw new OptionParseException("排他グループが重複指定されています: " + cmd);
+    /**
+     * {@code --name=value}のように、引数が「=」でつながれたオプションをパースする。
+     * 「=」より後ろの部分を、切り出さずに引数にする。
+     *
+     * @param separator 「=」の位置。
+     * @param matched   「=」より前の部分に一致したオプション。
+     */
+    private static boolean attached(ParseContext context, int token, int separator, ParsePlan.Slot matched) {
+        CharSequence source = context.tokenSource(token);
+        if (!checkDuplicate(context, token, matched)) return false;
+
+        int ordinal = matched.ordinal();
+        // 引数を取らないオプションには、値を付けられない
+        if (matched.option().type() == ArgType.NONE) return context.fail(ParseError.Code.UNEXPECTED_ARGUMENT, token, ordinal);
+
+        context.setText(ordinal, source, separator + 1, context.tokenEnd(token));
+        if (!context.convert(ordinal)) return context.fail(ParseError.Code.INVALID_ARGUMENT, token, ordinal);
+        context.consume(ordinal);
+        return true;
+    }
+
+    /**
+     * 「-」と二文字以上からなるトークンは、一文字のショートオプションをまとめたものとして扱う。
+     */
+    private static boolean isBundle(ParseContext context, int token) {
+        CharSequence source = context.tokenSource(token);
+        int start = context.tokenStart(token);
+        return context.tokenEnd(token) - start > 2 && source.charAt(start) == '-' && source.charAt(start + 1) != '-';
+    }
+
+    /**
+     * {@code -xvf}のようにまとめて指定された、一文字のショートオプションをパースする。
+     * 文字ごとに{@link ParsePlan#lookupShortOption(char)}で引くため、トークンの長さに比例する時間で終わる。
+     * 引数を取るオプションが現れた場合、トークンの残りがあればそれを、無ければ次のトークンを引数にする。
+     */
+    private static boolean bundle(ParseContext context, int token) {
+        ParsePlan plan = context.plan();
+        CharSequence source = context.tokenSource(token);
+        int end = context.tokenEnd(token);
+        for (int i = context.tokenStart(token) + 1; i < end; i++) {
+            ParsePlan.Slot matched = plan.lookupShortOption(source.charAt(i));
+            if (matched == null) return context.fail(ParseError.Code.UNKNOWN_OPTION, token, -1);
+            if (!checkDuplicate(context, token, matched)) return false;
+
+            if (matched.option().type() == ArgType.NONE) {
+                flag(context, matched);
+                continue;
             }
-            throw new OptionParseException("不明なオプション:" + cmd);
-        }
 
-        if (matched.get().type() == ArgType.NONE) {
-            options.remove(matched.get());
-            if (matched.get().exclusive()) {
-                String matchedDisplay = matched.get().displays()
-                        .stream()
-                        .filter(t -> (t.prefix().getPrefix() + t.display()).equals(cmd))
-                        .map(OptionDisplay::display)
-                        .findFirst()
-                        .orElseThrow(() -> new AssertionError("排他グループのマッチ処理が間違っている可能性があります。"));
-                exclusiveDisplayNames.addAll(matched.get().getFullDisplays());
-                return new HashMap<>() {
-                    {
-                        put(matched.get().managementName(),
-                                ParseResult.builder().rWhich(matchedDisplay).build());
-                    }
-                };
+            int ordinal = matched.ordinal();
+            if (i + 1 < end) {
+                // 残りの部分を、文字列を切り出さずに引数にする
+                context.setText(ordinal, source, i + 1, end);
+                if (!context.convert(ordinal)) return context.fail(ParseError.Code.INVALID_ARGUMENT, token, ordinal);
+            } else {
+                if (!context.hasNext()) return context.fail(ParseError.Code.MISSING_ARGUMENT, token, ordinal);
+                if (!convert(context, ordinal, context.next())) return false;
             }
-            return new HashMap<>() {
-                {
-                    put(matched.get().managementName(),
-                            ParseResult.builder().present(true).rBoolean(true).build());
-                }
-            };
+            context.consume(ordinal);
+            return true;
         }
+        return true;
+    }
+
+    /**
+     * @return 既に指定されたオプションでなければ{@code true}。リスト型のオプションは、何度でも指定できる。
+     */
+    private static boolean checkDuplicate(ParseContext context, int token, ParsePlan.Slot matched) {
+        if (!context.consumed(matched.ordinal()) || matched.option().type().isList()) return true;
+        // 排他グループの別の表示名が既に指定されている場合
+        ParseError.Code code = matched.option().exclusive() ? ParseError.Code.EXCLUSIVE_CONFLICT : ParseError.Code.UNKNOWN_OPTION;
+        return context.fail(code, token, matched.ordinal());
+    }
 
-        try {
-            Map<String, ParseResult> result = argument.parse(List.of(matched.get()), it.next(), it);
-            options.remove(matched.get());
-            return result;
-        } catch (NoSuchElementException e) {
-            throw new OptionParseException("引数がありません。 オプション: " + matched.get().getFullDisplays(), e);
-        } catch (RuntimeException e) {
-            throw new OptionParseException("引数の型が異なります。 オプション: " + matched.get().getFullDisplays(), e);
+    /**
+     * 引数を取らないオプションを消費する。排他グループの場合は、指定された表示名を値にする。
+     */
+    private static void flag(ParseContext context, ParsePlan.Slot matched) {
+        context.consume(matched.ordinal());
+        if (matched.option().exclusive()) {
+            context.setString(matched.ordinal(), matched.display());
+        } else {
+            context.setBoolean(matched.ordinal(), true);
         }
-    };
+    }
+
+    /**
+     * 引数のトークンの位置を記録し、{@link ArgType}に従って変換する。
+     *
+     * @return 成功したかどうか
+     */
+    private static boolean convert(ParseContext context, int ordinal, int token) {
+        context.setText(ordinal, context.tokenSource(token), context.tokenStart(token), context.tokenEnd(token));
+        if (context.convert(ordinal)) return true;
+        return context.fail(ParseError.Code.INVALID_ARGUMENT, token, ordinal);
+    }
 }
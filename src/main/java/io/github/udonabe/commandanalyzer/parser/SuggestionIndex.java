@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.parser;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 入力に近い表示名を探す索引。
+ * 編集距離(レーベンシュタイン距離)がk以下の二つの文字列は、それぞれから最大k文字を削除すると必ず同じ文字列になる。
+ * そこで、全ての表示名から最大{@value #MAX_DISTANCE}文字を削除した文字列のハッシュ値を事前に登録しておき、
+ * 検索時は入力から削除した文字列のハッシュ値だけを引く。候補だけを編集距離で確かめるため、表示名の数によらず速い。
+ * 生成後は変更しないため、複数のスレッドから同時に検索してよい。
+ */
+public final class SuggestionIndex {
+    /**
+     * 返す候補の最大数。
+     */
+    static final int MAX_SUGGESTIONS = 3;
+    /**
+     * 候補にする最大の編集距離。
+     */
+    static final int MAX_DISTANCE = 2;
+    private static final long BASE = 0x9E3779B97F4A7C15L;
+
+    private final String[] words;
+    /*
+     * 削除した文字列のハッシュ値から、表示名の番号の一覧を引くオープンアドレス法のハッシュ表。
+     * 番号は、ids[offsets[i]]からcounts[i]個並んでいる。
+     */
+    private final long[] keys;
+    private final int[] offsets;
+    private final int[] counts;
+    private final int[] ids;
+    private final int mask;
+    /**
+     * 登録したハッシュ値のビット集合。ほとんどの検索は一致しないため、ハッシュ表を引く前にこれで除外する。
+     */
+    private final long[] filter;
+    private final int filterMask;
+    private final int longest;
+
+    public SuggestionIndex(Collection<String> words) {
+        // 生成するたびに候補の順番が変わらないよう、順番を固定する
+        this.words = words.toArray(String[]::new);
+        Arrays.sort(this.words);
+
+        int total = 0;
+        int longest = 0;
+        for (String word : this.words) {
+            total += variants(word.length(), MAX_DISTANCE);
+            longest = Math.max(longest, word.length());
+        }
+        this.longest = longest;
+
+        int capacity = Integer.highestOneBit(Math.max(2, total * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.offsets = new int[capacity];
+        this.counts = new int[capacity];
+        this.mask = capacity - 1;
+
+        // 一回目で、ハッシュ値ごとの数を数える
+        long[] hashes = new long[variants(longest, MAX_DISTANCE)];
+        this.filter = new long[Math.max(1, capacity >>> 4)];
+        this.filterMask = (filter.length << 6) - 1;
+        for (String word : this.words) {
+            int count = deletions(word, MAX_DISTANCE, hashes);
+            for (int i = 0; i < count; i++) {
+                counts[find(hashes[i])]++;
+                int bit = filterBit(hashes[i]);
+                filter[bit >>> 6] |= 1L << bit;
+            }
+        }
+        int offset = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            offsets[slot] = offset;
+            offset += counts[slot];
+        }
+
+        // 二回目で、番号を並べる。番号の順に追加するため、重複は直前と比べれば分かる
+        int[] ids = new int[offset];
+        int[] filled = new int[capacity];
+        for (int id = 0; id < this.words.length; id++) {
+            int count = deletions(this.words[id], MAX_DISTANCE, hashes);
+            for (int i = 0; i < count; i++) {
+                int slot = find(hashes[i]);
+                int at = offsets[slot] + filled[slot];
+                if (filled[slot] > 0 && ids[at - 1] == id) {
+                    counts[slot]--;
+                    continue;
+                }
+                ids[at] = id;
+                filled[slot]++;
+            }
+        }
+        this.ids = ids;
+    }
+
+    /**
+     * @return {@code key}のスロット。無い場合は、{@code key}を登録した空きスロット。
+     */
+    private int find(long key) {
+        int slot = slot(key);
+        while (counts[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+        keys[slot] = key;
+        return slot;
+    }
+
+    /**
+     * @param input 入力された文字列。
+     * @return 近い表示名。編集距離が小さい順、同じ場合は文字列の順に並べる。最大{@value #MAX_SUGGESTIONS}件。
+     */
+    public List<String> suggest(String input) {
+        if (words.length == 0) return List.of();
+
+        int maxDistance = maxDistance(input.length());
+        // どの表示名とも距離が離れすぎている。長い入力で、削除した文字列の数(長さの2乗)を確保しないようにする
+        if (input.length() > longest + maxDistance) return List.of();
+        long[] hashes = new long[variants(input.length(), maxDistance)];
+        int count = deletions(input, maxDistance, hashes);
+
+        // 候補が無ければ使わないため、最初の候補で生成する
+        Distance distance = null;
+        int[] found = new int[MAX_SUGGESTIONS];
+        int[] distances = new int[MAX_SUGGESTIONS];
+        int foundCount = 0;
+        // 確かめた番号。同じ表示名を何度も確かめないようにする
+        int[] checked = new int[8];
+        int checkedCount = 0;
+
+        for (int h = 0; h < count; h++) {
+            long key = hashes[h];
+            int bit = filterBit(key);
+            if ((filter[bit >>> 6] & (1L << bit)) == 0) continue;
+            int slot = slot(key);
+            while (counts[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+            if (counts[slot] == 0) continue;
+
+            for (int i = offsets[slot], end = i + counts[slot]; i < end; i++) {
+                int id = ids[i];
+                if (contains(checked, checkedCount, id)) continue;
+                if (checkedCount == checked.length) checked = Arrays.copyOf(checked, checkedCount << 1);
+                checked[checkedCount++] = id;
+
+                String word = words[id];
+                if (Math.abs(word.length() - input.length()) > maxDistance) continue;
+                if (distance == null) distance = new Distance(input, longest);
+                int d = distance.to(word);
+                if (d > maxDistance) continue;
+
+                // 番号は文字列の順なので、距離が同じなら番号の小さい方を前にする
+                int at = foundCount;
+                while (at > 0 && (distances[at - 1] > d || (distances[at - 1] == d && found[at - 1] > id))) at--;
+                if (at >= MAX_SUGGESTIONS) continue;
+                int last = Math.min(foundCount, MAX_SUGGESTIONS - 1);
+                System.arraycopy(found, at, found, at + 1, last - at);
+                System.arraycopy(distances, at, distances, at + 1, last - at);
+                found[at] = id;
+                distances[at] = d;
+                if (foundCount < MAX_SUGGESTIONS) foundCount++;
+            }
+        }
+
+        String[] result = new String[foundCount];
+        for (int i = 0; i < foundCount; i++) result[i] = words[found[i]];
+        return List.of(result);
+    }
+
+    /**
+     * 短い入力で、無関係な候補を出さないようにする。
+     */
+    static int maxDistance(int length) {
+        return length <= 4 ? 1 : MAX_DISTANCE;
+    }
+
+    /**
+     * 編集距離を計算する。{@code previous}・{@code current}は、{@code b.length() + 1}以上の長さにすること。
+     */
+    static int distance(String a, String b, int[] previous, int[] current) {
+        int m = b.length();
+        for (int j = 0; j <= m; j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    /**
+     * 一つの入力と、複数の表示名との編集距離を計算する。
+     * 入力が64文字以下の場合は、ビット並列法(Myers/Hyyrö)で一文字あたり定数回のビット演算で計算する。
+     */
+    private static final class Distance {
+        private final String input;
+        /**
+         * ASCII文字ごとの、入力の中でその文字が出現する位置のビット集合。
+         */
+        private final long[] asciiMasks;
+        private final int[] previous;
+        private final int[] current;
+
+        Distance(String input, int longest) {
+            this.input = input;
+            if (input.length() <= Long.SIZE) {
+                this.asciiMasks = new long[128];
+                for (int i = 0; i < input.length(); i++) {
+                    char c = input.charAt(i);
+                    if (c < 128) asciiMasks[c] |= 1L << i;
+                }
+                this.previous = null;
+                this.current = null;
+            } else {
+                this.asciiMasks = null;
+                this.previous = new int[longest + 1];
+                this.current = new int[longest + 1];
+            }
+        }
+
+        int to(String word) {
+            if (asciiMasks == null) return distance(input, word, previous, current);
+
+            int m = input.length();
+            if (m == 0) return word.length();
+            long last = 1L << (m - 1);
+            long positive = -1L;
+            long negative = 0L;
+            int score = m;
+            for (int j = 0; j < word.length(); j++) {
+                long eq = mask(word.charAt(j));
+                long xv = eq | negative;
+                long xh = (((eq & positive) + positive) ^ positive) | eq;
+                long ph = negative | ~(xh | positive);
+                long mh = positive & xh;
+                if ((ph & last) != 0) {
+                    score++;
+                } else if ((mh & last) != 0) {
+                    score--;
+                }
+                // 1行目(空の入力との距離)は、列ごとに1ずつ増える
+                ph = (ph << 1) | 1L;
+                mh <<= 1;
+                positive = mh | ~(xv | ph);
+                negative = ph & xv;
+            }
+            return score;
+        }
+
+        private long mask(char c) {
+            if (c < 128) return asciiMasks[c];
+
+            long mask = 0L;
+            for (int i = 0; i < input.length(); i++) {
+                if (input.charAt(i) == c) mask |= 1L << i;
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * @return 長さ{@code length}の文字列から、最大{@code maxDeletions}文字を削除した文字列の数(重複を含む)
+     */
+    private static int variants(int length, int maxDeletions) {
+        int count = 1;
+        if (maxDeletions >= 1) count += length;
+        if (maxDeletions >= 2) count += length * (length - 1) / 2;
+        return count;
+    }
+
+    /**
+     * {@code s}から最大{@code maxDeletions}(2以下)文字を削除した全ての文字列のハッシュ値を、文字列を生成せずに計算する。
+     * 多項式ハッシュ h(s) = Σ s[m]・B^(L-1-m) では、位置iの文字を削除すると、
+     * それより前の文字の指数が一つずつ下がる。これを展開すると、削除した文字列のハッシュ値は
+     * h(s) + Δ(i) (一文字)、h(s) + Δ'(i) + Δ(j) (二文字、i &lt; j)の形になるため、位置ごとの差分を先に求めておけば、加算一回で計算できる。
+     *
+     * @param hashes 結果の格納先。{@link #variants(int, int)}以上の長さにすること。
+     * @return 削除した文字列の数
+     */
+    private static int deletions(String s, int maxDeletions, long[] hashes) {
+        int length = s.length();
+        long[] prefix = new long[length + 1];
+        long[] power = new long[length + 1];
+        power[0] = 1;
+        for (int i = 0; i < length; i++) {
+            prefix[i + 1] = prefix[i] * BASE + s.charAt(i);
+            power[i + 1] = power[i] * BASE;
+        }
+        long whole = prefix[length];
+
+        int n = 0;
+        hashes[n++] = finish(whole, length);
+        if (maxDeletions < 1) return n;
+
+        // Δ(i): 位置iの文字を削除したときの差分
+        long[] single = new long[length];
+        for (int i = 0; i < length; i++) {
+            single[i] = power[length - 1 - i] * (prefix[i] - prefix[i + 1]);
+            hashes[n++] = finish(whole + single[i], length - 1);
+        }
+        if (maxDeletions < 2) return n;
+
+        for (int i = 0; i < length - 1; i++) {
+            // Δ'(i): 後ろでもう一文字削除される場合の、位置iの文字を削除したときの差分
+            long first = whole + power[length - 2 - i] * (prefix[i] - prefix[i + 1]);
+            for (int j = i + 1; j < length; j++) {
+                hashes[n++] = finish(first + single[j], length - 2);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 長さの違う文字列が衝突しにくいよう、長さを混ぜる。
+     */
+    private static long finish(long hash, int length) {
+        return (hash + length) * BASE;
+    }
+
+    /**
+     * 乗算で混ざりやすい上位のビットを使う。ハッシュ表のスロットとは異なる範囲にする。
+     */
+    private int filterBit(long key) {
+        return (int) (key >>> 16) & filterMask;
+    }
+
+    private int slot(long key) {
+        return (int) (key >>> 32) & mask;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+}
@@ -8,18 +8,20 @@
 
 package io.github.udonabe.commandanalyzer.parser;
 
-import io.github.udonabe.commandanalyzer.OptionParseException;
-import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.ParseError;
 
-import java.util.List;
-import java.util.Set;
-
-record ValidationChecker(List<Option> options, List<Option> positionalArgs) {
-    public void checkStart() throws OptionParseException {
+record ValidationChecker(ParseContext context) {
+    public boolean checkStart() {
         //今のところ何もチェックすべきことが無い
+        return true;
     }
-    public void checkEnd() throws OptionParseException {
-        if (!positionalArgs.isEmpty()) throw new OptionParseException("全ての位置引数を指定してください。");
-        if (options.stream().anyMatch(Option::required)) throw new OptionParseException("必須オプションが指定されていません。");
+    public boolean checkEnd() {
+        ParsePlan plan = context.plan();
+        if (context.positionalCursor() < plan.positionalCount()) {
+            return context.fail(ParseError.Code.MISSING_POSITIONAL, -1, plan.positionalOrdinal(context.positionalCursor()));
+        }
+        int missing = context.firstUnconsumed(plan.requiredMask());
+        if (missing >= 0) return context.fail(ParseError.Code.MISSING_REQUIRED, -1, missing);
+        return true;
     }
 }
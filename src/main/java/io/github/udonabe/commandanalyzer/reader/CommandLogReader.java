@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.reader;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.ParsedOptions;
+import io.github.udonabe.commandanalyzer.parser.LineTokenizer;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一行に一つのコマンドが書かれたログ(シェルの履歴・監査ログなど)を、メモリマップして読み込むクラス。
+ * ファイルは一定の大きさの窓ごとにマップし、マップしたバイト列から直接パースするため、
+ * ファイルの大きさに関わらず使うメモリは一定になる。
+ * ASCIIだけの行はバイト列をコピーせずに文字列として扱い、それ以外の行だけをUTF-8として復号する。
+ * このクラスのインスタンスは、スレッド間で共有しないこと。
+ */
+public final class CommandLogReader implements Closeable {
+    /**
+     * 一度にマップする大きさ。一行はこれより短い必要がある。
+     */
+    private static final int DEFAULT_WINDOW = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private final LineTokenizer tokenizer = new LineTokenizer();
+    private final List<String> tokens = new ArrayList<>();
+    private final LineTokenizer.Sink sink = (source, start, end) -> tokens.add(source.subSequence(start, end).toString());
+    private final WindowLine view = new WindowLine();
+    /**
+     * バイト列を文字列にするための作業領域。
+     */
+    private byte[] bytes = new byte[256];
+
+    private MappedByteBuffer window;
+    /**
+     * 現在の窓の、ファイル上の開始位置。
+     */
+    private long windowStart;
+    /**
+     * 次に読む行の、窓の中での位置。
+     */
+    private int position;
+    private long lineNumber;
+
+    CommandLogReader(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        map(0);
+    }
+
+    /**
+     * ファイルを開く。
+     *
+     * @param path 読み込むファイル。
+     * @return 生成したリーダー
+     */
+    public static CommandLogReader open(@NonNull Path path) throws IOException {
+        return new CommandLogReader(FileChannel.open(path, StandardOpenOption.READ), DEFAULT_WINDOW);
+    }
+
+    /**
+     * 全ての行を{@code options}でパースし、一行ごとに結果を{@code handler}に渡す。
+     * 空白だけの行は読み飛ばす。パースに失敗した行があっても、残りの行の処理を続ける。
+     *
+     * @param options パースに使うスキーマ。
+     * @param handler 結果を受け取るハンドラ。
+     */
+    public void parseAll(@NonNull CommandOptions options, @NonNull Handler handler) throws IOException {
+        ParsedOptions reuse = options.newResult();
+        CharSequence line;
+        while ((line = nextLine()) != null) {
+            Map<String, ParseResult> result;
+            try {
+                result = options.parseInto(line, reuse).toMap();
+            } catch (OptionParseException e) {
+                handler.failure(lineNumber, e);
+                continue;
+            }
+            handler.success(lineNumber, result);
+        }
+    }
+
+    /**
+     * 空白だけでない次の行を読み、トークンに分割する。
+     * 返されるリストは次の呼び出しで書き換えられるため、保持する場合はコピーすること。
+     *
+     * @return 分割したトークン。ファイルの終わりに達した場合は{@code null}。
+     * @throws OptionParseException 引用符が閉じられていない場合。次の呼び出しでは、その次の行から読む。
+     */
+    public List<String> nextTokens() throws IOException, OptionParseException {
+        CharSequence line = nextLine();
+        if (line == null) return null;
+        tokens.clear();
+        if (!tokenizer.tokenize(line, sink)) throw new ParseError(tokenizer.unclosedQuote(), -1, null, null).toException();
+        return tokens;
+    }
+
+    /**
+     * @return 最後に読んだ行の行番号(1始まり)
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 空白だけでない次の行を読む。返す行は、次の呼び出しまで有効。
+     *
+     * @return 読んだ行。ファイルの終わりに達した場合は{@code null}。
+     */
+    private CharSequence nextLine() throws IOException {
+        while (true) {
+            if (windowStart + position >= fileSize) return null;
+
+            int end = findLineEnd();
+            int next = end;
+            if (next < window.limit()) next++; // 改行を読み飛ばす
+            int from = position;
+            position = next;
+            lineNumber++;
+
+            if (end > from && window.get(end - 1) == '\r') end--;
+            if (!isBlank(from, end)) return line(from, end);
+        }
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = window.get(i);
+            if (b != ' ' && b != '\t') return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return ASCIIだけの行はマップしたバイト列の見え方、それ以外はUTF-8として復号した文字列
+     */
+    private CharSequence line(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (window.get(i) < 0) return string(window, from, to, StandardCharsets.UTF_8);
+        }
+        return view.set(window, from, to);
+    }
+
+    private String string(ByteBuffer buffer, int from, int to, Charset charset) {
+        int length = to - from;
+        if (bytes.length < length) bytes = new byte[Math.max(length, bytes.length << 1)];
+        buffer.get(from, bytes, 0, length);
+        return new String(bytes, 0, length, charset);
+    }
+
+    /**
+     * 現在の行の終わり(改行の位置)を探す。行が窓をまたぐ場合は、行の先頭から窓をマップし直す。
+     */
+    private int findLineEnd() throws IOException {
+        while (true) {
+            int limit = window.limit();
+            for (int i = position; i < limit; i++) {
+                if (window.get(i) == '\n') return i;
+            }
+            // 窓の終わりがファイルの終わりなら、最後の行は改行で終わっていない
+            if (windowStart + limit >= fileSize) return limit;
+            if (position == 0) throw new IOException("行が長すぎます。行番号: " + (lineNumber + 1));
+            map(windowStart + position);
+        }
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        position = 0;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+    }
+
+    /**
+     * チャンネルを閉じる。マップした領域は、ガベージコレクションの際に解放される。
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * マップしたASCIIの一行を、コピーせずに文字列として見せる。
+     * 文字列を切り出した場合だけ、その部分をコピーする。
+     */
+    private final class WindowLine implements CharSequence {
+        private ByteBuffer buffer;
+        private int from;
+        private int length;
+
+        WindowLine set(ByteBuffer buffer, int from, int to) {
+            this.buffer = buffer;
+            this.from = from;
+            this.length = to - from;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) buffer.get(from + index);
+        }
+
+        @Override
+        public String subSequence(int start, int end) {
+            return string(buffer, from + start, from + end, StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length);
+        }
+    }
+
+    /**
+     * 一行ごとのパース結果を受け取るハンドラ。
+     */
+    public interface Handler {
+        void success(long lineNumber, Map<String, ParseResult> result);
+
+        void failure(long lineNumber, OptionParseException failure);
+    }
+}
@@ -1,7 +1,15 @@
 module io.github.udonabe.command.analyzer {
     requires lombok;
+    requires static jdk.jfr;
+    requires static java.compiler;
 
     exports io.github.udonabe.commandanalyzer.option;
     exports io.github.udonabe.commandanalyzer.command;
     exports io.github.udonabe.commandanalyzer;
+    exports io.github.udonabe.commandanalyzer.reader;
+    exports io.github.udonabe.commandanalyzer.metrics;
+    exports io.github.udonabe.commandanalyzer.annotation;
+    exports io.github.udonabe.commandanalyzer.daemon;
+
+    provides javax.annotation.processing.Processor with io.github.udonabe.commandanalyzer.annotation.CommandSpecProcessor;
 }
\ No newline at end of file
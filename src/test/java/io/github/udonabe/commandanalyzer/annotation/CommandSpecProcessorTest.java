@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.annotation;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.option.Option;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.*;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandSpecProcessorTest {
+    private static final String SERVER = """
+            package test;
+
+            import io.github.udonabe.commandanalyzer.annotation.*;
+
+            @CommandSpec
+            public record Server(
+                    @OptionSpec(value = {"-p", "--port"}, required = true, description = "Port") int port,
+                    @OptionSpec({"-v", "--verbose"}) boolean verbose,
+                    @OptionSpec({"-x"}) boolean extract,
+                    @OptionSpec({"-n", "--name", "/name"}) String name,
+                    @OptionSpec({"--ratio"}) double ratio,
+                    @OptionSpec(value = {"--debug"}, argument = true) boolean debug,
+                    @ArgumentSpec(description = "Target") String target,
+                    @ArgumentSpec int count
+            ) {
+            }
+            """;
+
+    private static final String TOOL = """
+            package test;
+
+            import io.github.udonabe.commandanalyzer.annotation.*;
+
+            public class Outer {
+                @CommandSpec
+                public static class Tool {
+                    @OptionSpec({"-f", "--force"}) boolean force;
+                    @SubCommandSpec({"install", "remove"}) String action;
+                    @ArgumentSpec String name;
+                    int unrelated;
+                }
+            }
+            """;
+
+    @Test
+    void generatedParserMatchesRuntime(@TempDir Path dir) throws Exception {
+        //生成したパーサーと、同じ内容のCommandOptionsの結果・失敗の理由が一致するか
+        Class<?> parser = compile(dir, "test.Server", SERVER).loadClass("test.ServerParser");
+        CommandOptions options = (CommandOptions) parser.getMethod("commandOptions").invoke(null);
+
+        List<List<String>> inputs = List.of(
+                List.of("-p", "8080", "target", "3"),
+                List.of("--port=80", "-v", "--name", "test", "--ratio", "0.5", "target", "-1"),
+                List.of("-vxn", "value", "-p8080", "/name=x", "--", "-target", "1"),
+                List.of("-nkey=value", "-vnk=v=w", "-p", "1", "a", "1"),
+                List.of("-nkey=value", "-p", "1", "a", "1"),
+                List.of("-qkey=value", "-p", "1", "a", "1"),
+                List.of("--debug", "TRUE", "-p", "1", "a", "2"),
+                List.of("-p", "1", "a", "2", "-v"),
+                List.of("-p", "1", "-p", "2", "a", "1"),
+                List.of("-p", "abc", "a", "1"),
+                List.of("--port=abc", "a", "1"),
+                List.of("-p"),
+                List.of("-v", "a", "1"),
+                List.of("-p", "1", "a"),
+                List.of("-p", "1", "a", "x"),
+                List.of("-p", "1", "a", "1", "b"),
+                List.of("--unknown", "-p", "1", "a", "1"),
+                List.of("-vq", "-p", "1", "a", "1"),
+                List.of("--verbose=true", "-p", "1", "a", "1"),
+                List.of("--ratio", "1e3", "-p", "1", "a", "1"),
+                List.of()
+        );
+        for (List<String> input : inputs) {
+            assertSameResult(parser, options, input);
+        }
+    }
+
+    @Test
+    void generatedParserForClass(@TempDir Path dir) throws Exception {
+        Class<?> parser = compile(dir, "test.Outer", TOOL).loadClass("test.Outer_ToolParser");
+        CommandOptions options = (CommandOptions) parser.getMethod("commandOptions").invoke(null);
+
+        Object tool = parse(parser, List.of("--", "install", "-f", "name"));
+        assertEquals("install", field(tool, "action"));
+        assertEquals(true, field(tool, "force"));
+        assertEquals("name", field(tool, "name"));
+
+        for (List<String> input : List.<List<String>>of(
+                List.of("remove", "--", "-f"),
+                List.of("update", "name"),
+                List.of("install", "-g", "name"),
+                List.of())) {
+            assertSameResult(parser, options, input);
+        }
+    }
+
+    @Test
+    void controlCharactersInDescription(@TempDir Path dir) throws Exception {
+        //改行などを含む説明が、コンパイルできる文字列リテラルとして出力されるか
+        String source = """
+                package test;
+
+                import io.github.udonabe.commandanalyzer.annotation.*;
+
+                @CommandSpec
+                public record Multi(
+                        @OptionSpec(value = {"-v"}, description = "line1\\nline2\\r\\tend\\u0001\\u007f日本語") boolean verbose,
+                        @ArgumentSpec(description = "a\\"b\\\\c") String target
+                ) {
+                }
+                """;
+        Class<?> parser = compile(dir, "test.Multi", source).loadClass("test.MultiParser");
+        CommandOptions options = (CommandOptions) parser.getMethod("commandOptions").invoke(null);
+        assertEquals("line1\nline2\r\tend\u0001\u007f日本語", options.getNormalOptions().iterator().next().description());
+        assertEquals("a\"b\\c", options.getPositionalArgs().getFirst().description());
+    }
+
+    @Test
+    void invalidSpec(@TempDir Path dir) throws Exception {
+        //不正な指定はコンパイルエラーになるか
+        String source = """
+                package test;
+
+                import io.github.udonabe.commandanalyzer.annotation.*;
+
+                @CommandSpec
+                public record Invalid(
+                        @OptionSpec({"-p", "port"}) int port,
+                        @OptionSpec({"-a"}) long value,
+                        @OptionSpec({"-p"}) String name,
+                        @OptionSpec(value = {"-c"}, argument = true) int count,
+                        String plain
+                ) {
+                }
+                """;
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        assertFalse(run(dir, "test.Invalid", source, diagnostics));
+        long errors = diagnostics.getDiagnostics().stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR).count();
+        assertEquals(5, errors);
+        assertFalse(Files.exists(dir.resolve("test/InvalidParser.java")));
+    }
+
+    private static void assertSameResult(Class<?> parser, CommandOptions options, List<String> input) throws Exception {
+        Map<String, ParseResult> expected;
+        try {
+            expected = options.parse(input);
+        } catch (OptionParseException e) {
+            OptionParseException actual = assertThrows(OptionParseException.class, () -> parse(parser, input), input.toString());
+            ParseError error = e.getError();
+            assertEquals(error.code(), actual.getError().code(), input.toString());
+            assertEquals(error.tokenIndex(), actual.getError().tokenIndex(), input.toString());
+            assertEquals(error.option(), actual.getError().option(), input.toString());
+            assertEquals(error.input(), actual.getError().input(), input.toString());
+            //生成したパーサーは、近い表示名の候補を出さない
+            if (error.suggestions().isEmpty()) assertEquals(e.getMessage(), actual.getMessage(), input.toString());
+            return;
+        }
+
+        List<Option> declared = new ArrayList<>(options.getNormalOptions());
+        declared.addAll(options.getPositionalArgs());
+        if (options.getSubCommand() != null) declared.add(options.getSubCommand());
+
+        Object actual = parse(parser, input);
+        for (Option option : declared) {
+            ParseResult result = expected.get(option.managementName());
+            Object value = field(actual, option.managementName());
+            Object want = switch (value) {
+                case Integer i -> result == null ? 0 : result.rInt();
+                case Double d -> result == null ? 0.0 : result.rDouble();
+                case Boolean b -> result != null && result.rBoolean();
+                case null, default -> result == null ? null : result.rString() != null ? result.rString() : result.rSubCommand();
+            };
+            assertEquals(want, value, input + " " + option.managementName());
+        }
+    }
+
+    private static Object parse(Class<?> parser, List<String> input) throws Exception {
+        Method parse = parser.getMethod("parse", List.class);
+        try {
+            return parse.invoke(null, input);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static Object field(Object target, String name) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+    private static ClassLoader compile(Path dir, String name, String source) throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        assertTrue(run(dir, name, source, diagnostics), diagnostics.getDiagnostics().toString());
+        return new URLClassLoader(new java.net.URL[]{dir.toUri().toURL()}, CommandSpecProcessorTest.class.getClassLoader());
+    }
+
+    private static boolean run(Path dir, String name, String source, DiagnosticCollector<JavaFileObject> diagnostics) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Path file = dir.resolve(name.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+
+        String library = Path.of(CommandOptions.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    List.of("-d", dir.toString(), "-s", dir.toString(), "-classpath", library + File.pathSeparator + System.getProperty("java.class.path")),
+                    null, files.getJavaFileObjects(file));
+            task.setProcessors(List.of(new CommandSpecProcessor()));
+            return task.call();
+        }
+    }
+}
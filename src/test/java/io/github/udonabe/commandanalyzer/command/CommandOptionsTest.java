@@ -8,11 +8,26 @@
 
 package io.github.udonabe.commandanalyzer.command;
 
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.option.ArgType;
 import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,4 +36,487 @@ class CommandOptionsTest {
     void builder() {
         assertNotNull(CommandOptions.generator(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    void constructor() throws OptionParseException {
+        //Generatorを通さずに生成しても、同じようにパースできるか
+        Option sub = Option.subCommand(Set.of("run"), "Test Sub Command", "sub");
+        Option count = Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count")),
+                ArgType.INTEGER, false, "Test Integer Option", "count");
+        Option target = Option.argument(ArgType.STRING, "Test Positional Argument", "target");
+        CommandOptions options = new CommandOptions(sub, Set.of(count), List.of(target));
+        CommandOptions generated = CommandOptions.generator(sub).option(count).argument(target).build();
+
+        List<String> input = List.of("run", "--count", "3", "a");
+        assertEquals(generated.parse(input), options.parse(input));
+        assertEquals(List.of(target), options.getPositionalArgs());
+    }
+
+    @Test
+    void parseConcurrently() throws Exception {
+        //一つのCommandOptionsを、多数のスレッドから同時にパースしても結果が混ざらないか
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(
+                                new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "e"),
+                                new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "t")
+                        ),
+                        ArgType.NONE,
+                        false,
+                        "Test Exclusive Option",
+                        "mode"
+                ).toExclusive())
+                .option(Option.normalOption(
+                        Set.of(
+                                new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "port")
+                        ),
+                        ArgType.INTEGER,
+                        false,
+                        "Test Integer Option",
+                        "port"
+                ))
+                .argument(Option.argument(
+                        ArgType.STRING,
+                        "Test Positional Argument",
+                        "target"
+                ))
+                .build();
+
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        int parsesPerThread = 2_000_000 / threads;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < parsesPerThread; i++) {
+                        String which = (i & 1) == 0 ? "e" : "t";
+                        String port = Integer.toString(i);
+                        Map<String, ParseResult> res = options.parse(List.of("-" + which, "--port", port, port));
+                        assertEquals(which, res.get("mode").rWhich());
+                        assertEquals(i, res.get("port").rInt());
+                        assertEquals(port, res.get("target").rString());
+
+                        //排他グループの重複は、同じパースの中だけで検出されるか
+                        if (i % 64 == 0) {
+                            assertThrows(OptionParseException.class, () -> options.parse(List.of("-e", "-t", "x")));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void parseIndexed() throws OptionParseException {
+        CommandOptions.Generator generator = CommandOptions.generator(Option.subCommand(
+                Set.of("run"),
+                "Test Sub Command",
+                "mode"
+        ));
+        OptionKey<String> mode = generator.subCommandKey();
+        OptionKey<Integer> port = generator.optionKey(Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "port")),
+                ArgType.INTEGER, false, "Test Integer Option", "port"), Integer.class);
+        OptionKey<Double> ratio = generator.optionKey(Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "ratio")),
+                ArgType.DOUBLE, false, "Test Double Option", "ratio"), Double.class);
+        OptionKey<Boolean> verbose = generator.optionKey(Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "v")),
+                ArgType.NONE, false, "Test Flag Option", "verbose"), Boolean.class);
+        OptionKey<String> target = generator.argumentKey(Option.argument(
+                ArgType.STRING, "Test Positional Argument", "target"), String.class);
+        CommandOptions options = generator.build();
+
+        ParsedOptions res = options.parseIndexed(List.of("run", "--port", "8080", "-v", "host"));
+        assertEquals("run", res.getString(mode));
+        assertEquals(8080, res.getInt(port));
+        assertTrue(res.getBoolean(verbose));
+        assertFalse(res.isPresent(ratio));
+        assertEquals(1.5, res.getDouble(ratio, 1.5));
+        assertEquals("host", res.getString(target));
+        assertEquals(8080, res.toMap().get("port").rInt());
+
+        //使い回した場合、前回の値が残らないか
+        options.parseInto(List.of("run", "--ratio", "0.5", "other"), res);
+        assertFalse(res.isPresent(port));
+        assertFalse(res.getBoolean(verbose));
+        assertEquals(0.5, res.getDouble(ratio));
+        assertEquals("other", res.getString(target));
+    }
+
+    @Test
+    void parseIndexed_invalidKey() throws OptionParseException {
+        CommandOptions.Generator generator = CommandOptions.generator(null);
+        Option port = Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "port")),
+                ArgType.INTEGER, false, "Test Integer Option", "port");
+        //値の型が異なる場合
+        assertThrows(IllegalArgumentException.class, () -> generator.optionKey(port, String.class));
+
+        OptionKey<Integer> key = generator.optionKey(port, Integer.class);
+        generator.build();
+
+        //別のCommandOptionsのキーの場合
+        CommandOptions other = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "other")),
+                        ArgType.INTEGER, false, "Test Integer Option", "other"))
+                .build();
+        ParsedOptions res = other.parseIndexed(List.of("--other", "1"));
+        assertThrows(IllegalArgumentException.class, () -> res.getInt(key));
+    }
+
+    @Test
+    void parseAll() {
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "port")),
+                        ArgType.INTEGER, true, "Test Integer Option", "port"))
+                .build();
+
+        //一部の入力が不正でも、全ての入力が順番通りに処理されるか
+        List<List<String>> inputs = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            inputs.add(i % 10 == 0 ? List.of("--port", "invalid" + i) : List.of("--port", Integer.toString(i)));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BatchResult result;
+        try {
+            result = options.parseAll(inputs, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(10_000, result.size());
+        assertEquals(1_000, result.failureCount());
+        for (int i = 0; i < result.size(); i++) {
+            if (i % 10 == 0) {
+                assertFalse(result.isSuccess(i));
+                assertNull(result.result(i));
+                assertNotNull(result.failure(i));
+            } else {
+                assertTrue(result.isSuccess(i));
+                assertEquals(i, result.result(i).get("port").rInt());
+            }
+        }
+    }
+
+    @Test
+    void parseLine() throws OptionParseException {
+        CommandOptions options = CommandOptions.generator(Option.subCommand(
+                        Set.of("say"),
+                        "Test Sub Command",
+                        "mode"
+                ))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count")),
+                        ArgType.INTEGER, false, "Test Integer Option", "count"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "q")),
+                        ArgType.BOOLEAN, false, "Test Boolean Option", "quiet"))
+                .argument(Option.argument(ArgType.STRING, "Test Positional Argument", "message"))
+                .build();
+
+        var res = options.parse("say  --count 3 -q TRUE \"hello, 'world'\"");
+        assertEquals("say", res.get("mode").rSubCommand());
+        assertEquals(3, res.get("count").rInt());
+        assertTrue(res.get("quiet").rBoolean());
+        assertEquals("hello, 'world'", res.get("message").rString());
+
+        //StringBuilderのような、String以外のCharSequenceでもパースできるか
+        ParsedOptions indexed = options.parseIndexed(new StringBuilder("say -- -dash"));
+        assertEquals("-dash", indexed.toMap().get("message").rString());
+
+        //引用符が閉じられていない場合
+        assertThrows(OptionParseException.class, () -> options.parse("say 'unclosed"));
+    }
+
+    @Test
+    void tryParse() {
+        Option count = Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count")),
+                ArgType.INTEGER, true, "Test Integer Option", "count");
+        CommandOptions options = CommandOptions.generator(null)
+                .option(count)
+                .build();
+
+        ParseOutcome success = options.tryParse(List.of("--count", "3"));
+        assertTrue(success.isSuccess());
+        assertEquals(3, ((ParseOutcome.Success) success).options().toMap().get("count").rInt());
+
+        //失敗の種類・トークンの位置・オプションを、例外なしで読み出せるか
+        ParseOutcome invalid = options.tryParse(List.of("--count", "three"));
+        ParseError error = assertInstanceOf(ParseOutcome.Failure.class, invalid).error();
+        assertEquals(ParseError.Code.INVALID_ARGUMENT, error.code());
+        assertEquals(1, error.tokenIndex());
+        assertSame(count, error.option());
+        assertEquals("three", error.input());
+        assertEquals("引数にエラーがあります。入力値: three, 管理名: count", error.message());
+
+        error = ((ParseOutcome.Failure) options.tryParse("--count 1 --unknown")).error();
+        assertEquals(ParseError.Code.UNKNOWN_OPTION, error.code());
+        assertEquals(2, error.tokenIndex());
+        assertEquals("不明なオプション:--unknown", error.message());
+
+        error = ((ParseOutcome.Failure) options.tryParse(List.of())).error();
+        assertEquals(ParseError.Code.MISSING_REQUIRED, error.code());
+        assertSame(count, error.option());
+
+        assertEquals(ParseError.Code.UNCLOSED_DOUBLE_QUOTE, ((ParseOutcome.Failure) options.tryParse("--count \"1")).error().code());
+
+        //例外に変換した場合も、スタックトレースを取得しないか
+        OptionParseException e = assertThrows(OptionParseException.class, () -> options.tryParse(List.of("--count")).orElseThrow());
+        assertEquals(ParseError.Code.MISSING_ARGUMENT, e.getError().code());
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(0, assertThrows(OptionParseException.class, () -> options.parse(List.of("--count", "x"))).getStackTrace().length);
+    }
+
+    @Test
+    void withCache() throws Exception {
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count")),
+                        ArgType.INTEGER, false, "Test Integer Option", "count"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "id")),
+                        ArgType.INTEGER_LIST, false, "Test Integer List Option", "ids"))
+                .build();
+        ParseCache cache = options.withCache(32);
+
+        List<String> tokens = new ArrayList<>(List.of("--count", "3"));
+        Map<String, ParseResult> first = cache.parse(tokens);
+        assertSame(first, cache.parse(List.of("--count", "3")));
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.hitCount());
+        assertThrows(UnsupportedOperationException.class, () -> first.remove("count"));
+        //保持している結果の配列は、読み出した配列を変更しても変わらないか
+        cache.parse(List.of("--id", "1", "--id", "2")).get("ids").rInts()[0] = 99;
+        assertArrayEquals(new int[]{1, 2}, cache.parse(List.of("--id", "1", "--id", "2")).get("ids").rInts());
+
+        //呼び出し元がトークン列を変更しても、保持している結果に影響しないか
+        tokens.set(1, "4");
+        assertEquals(4, cache.parse(tokens).get("count").rInt());
+        assertEquals(3, cache.parse(List.of("--count", "3")).get("count").rInt());
+
+        //失敗した結果も保持するが、上限を超えないか
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            assertThrows(OptionParseException.class, () -> cache.parse(List.of("--count", "x" + n)));
+        }
+        assertThrows(OptionParseException.class, () -> cache.parse(List.of("--count", "x999")));
+        for (int i = 0; i < 1000; i++) {
+            cache.parse(List.of("--count", String.valueOf(i)));
+        }
+        assertTrue(cache.size() <= 32 + 4, "size: " + cache.size());
+
+        //複数のスレッドから同時に使えるか
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        assertEquals(i % 64, cache.parse(List.of("--count", String.valueOf(i % 64))).get("count").rInt());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.size() <= 32 + 4);
+    }
+
+    @Test
+    void parseInto_lazy() throws OptionParseException {
+        CommandOptions.Generator generator = CommandOptions.generator(null);
+        OptionKey<Integer> port = generator.optionKey(Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "port")),
+                ArgType.INTEGER, false, "Test Integer Option", "port"), Integer.class);
+        OptionKey<Double> ratio = generator.optionKey(Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "ratio")),
+                ArgType.DOUBLE, false, "Test Double Option", "ratio"), Double.class);
+        generator.option(Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "debug")),
+                ArgType.BOOLEAN, false, "Test Boolean Option", "debug"));
+        CommandOptions options = generator.build();
+        ParsedOptions lazy = options.newResult(ParsedOptions.Conversion.LAZY);
+
+        //読み出す前にMapに変換しても、変換した値が入るか
+        options.parseInto(List.of("--port", "8080", "--ratio", "0.5", "--debug", "true"), lazy);
+        Map<String, ParseResult> map = lazy.toMap();
+        assertEquals(8080, map.get("port").rInt());
+        assertEquals(0.5, map.get("ratio").rDouble());
+        assertTrue(map.get("debug").rBoolean());
+        assertEquals(options.parse(List.of("--port", "8080", "--ratio", "0.5", "--debug", "true")), map);
+
+        //読み出したときに変換されるか
+        options.parseInto(List.of("--port", "8080", "--ratio", "0.5"), lazy);
+        assertEquals(8080, lazy.getInt(port));
+        assertEquals(8080, lazy.getInt(port));
+        assertEquals(0.5, lazy.getDouble(ratio));
+
+        //型が異なる場合、パースは成功し、読み出したときに例外が発生するか
+        options.parseInto(List.of("--port", "invalid", "--ratio", "1.5"), lazy);
+        assertTrue(lazy.isPresent(port));
+        assertEquals(1.5, lazy.getDouble(ratio));
+        assertThrows(IllegalStateException.class, () -> lazy.getInt(port));
+
+        //通常はパース時に例外が発生するか
+        assertThrows(OptionParseException.class, () -> options.parseIndexed(List.of("--port", "invalid")));
+    }
+
+    @Test
+    void parseInto_list() throws OptionParseException {
+        CommandOptions.Generator generator = CommandOptions.generator(null);
+        OptionKey<int[]> ids = generator.optionKey(Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "i")),
+                ArgType.INTEGER_LIST, false, "Test Integer List Option", "ids"), int[].class);
+        OptionKey<String[]> files = generator.argumentKey(Option.argument(ArgType.STRING_LIST, "Test String List Argument", "files"), String[].class);
+        CommandOptions options = generator.build();
+
+        ParsedOptions reuse = options.newResult();
+        options.parseInto(List.of("-i", "1", "-i", "2", "a", "b"), reuse);
+        assertEquals(2, reuse.size(ids));
+        assertEquals(2, reuse.getIntAt(ids, 1));
+        assertArrayEquals(new String[]{"a", "b"}, reuse.getStrings(files));
+        assertThrows(IndexOutOfBoundsException.class, () -> reuse.getIntAt(ids, 2));
+
+        //使い回した場合に、前回の値が残らないか
+        options.parseInto(List.of("c"), reuse);
+        assertEquals(0, reuse.size(ids));
+        assertArrayEquals(new int[0], reuse.getInts(ids));
+        assertArrayEquals(new String[]{"c"}, reuse.getStrings(files));
+        Lists lists = options.binder(Lists.class, MethodHandles.lookup()).parse(List.of("-i", "3", "d"));
+        assertArrayEquals(new int[]{3}, lists.ids());
+        assertArrayEquals(new String[]{"d"}, lists.files());
+
+        //結果の配列を変更しても、結果は変わらないか
+        ParseResult result = options.parse(List.of("-i", "1", "a")).get("ids");
+        result.rInts()[0] = 99;
+        assertArrayEquals(new int[]{1}, result.rInts());
+        assertArrayEquals(new int[]{1}, result.orElseInts(null));
+        //リスト型の値を持たない結果は、従来の引数で生成できるか
+        assertEquals(ParseResult.builder().rInt(3).present(true).build(), new ParseResult(3, false, 0.0, null, null, null, true));
+        assertThrows(IllegalArgumentException.class, () -> generator.optionKey(Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "d")),
+                ArgType.DOUBLE_LIST, false, null, "ratios"), Double.class));
+    }
+
+    @Test
+    void schemaImage(@TempDir Path dir) throws IOException, OptionParseException {
+        CommandOptions remote = CommandOptions.generator(Option.subCommand(Set.of("remote", "r"), "Test Sub Command", "remote"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count"),
+                                new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "c")),
+                        ArgType.INTEGER, true, "数値", "count"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "fast"),
+                                new OptionDisplay(OptionDisplay.PrefixKind.SLASH_OPTION, "slow")),
+                        ArgType.NONE, false, null, "speed").toExclusive())
+                .argument(Option.argument(ArgType.DOUBLE, "Test Argument", "ratio"))
+                .build();
+        CommandOptions plain = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "v")),
+                        ArgType.NONE, false, "Test Flag Option", "verbose"))
+                .build();
+
+        Path file = dir.resolve("schemas.bin");
+        SchemaImage.write(List.of(remote, plain), file);
+        List<CommandOptions> loaded = SchemaImage.load(file);
+
+        assertEquals(2, loaded.size());
+        assertEquals(remote.getSubCommand(), loaded.get(0).getSubCommand());
+        assertEquals(remote.getNormalOptions(), loaded.get(0).getNormalOptions());
+        assertEquals(remote.getPositionalArgs(), loaded.get(0).getPositionalArgs());
+        assertEquals(plain.getNormalOptions(), loaded.get(1).getNormalOptions());
+
+        List<String> args = List.of("r", "-c", "3", "/slow", "0.5");
+        assertEquals(remote.parse(args), loaded.get(0).parse(args));
+        assertEquals(remote.tryParse("remote 0.5").isSuccess(), loaded.get(0).tryParse("remote 0.5").isSuccess());
+        assertTrue(loaded.get(1).parse("-v").get("verbose").rBoolean());
+
+        //壊れたファイル
+        byte[] bytes = Files.readAllBytes(file);
+        assertThrows(IOException.class, () -> SchemaImage.load(ByteBuffer.wrap(bytes, 0, bytes.length / 2).slice()));
+        bytes[0] = 0;
+        assertThrows(IOException.class, () -> SchemaImage.load(ByteBuffer.wrap(bytes)));
+        //巨大な要素数
+        ByteBuffer huge = ByteBuffer.allocate(16).putInt(0x43415349).putShort((short) 1).put(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}).flip();
+        assertThrows(IOException.class, () -> SchemaImage.load(huge));
+        //型がNONE以外の排他オプション
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SchemaImage.write(List.of(CommandOptions.generator(null)
+                .option(Option.normalOption(Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "v")),
+                        ArgType.INTEGER, false, null, "value"))
+                .build()), out);
+        byte[] image = out.toByteArray();
+        // 文字列の表("value"・"v")の後に、数・フラグの有無・オプションの数・種類・型・フラグが続く
+        int flags = image.length - 5;
+        assertEquals(0, image[flags]);
+        image[flags] = 2;
+        assertThrows(IOException.class, () -> SchemaImage.load(ByteBuffer.wrap(image)));
+    }
+
+    record Remote(String remote, int count, String speed, double ratio) {
+    }
+
+    static class Flags {
+        static int unrelatedStatic;
+        boolean verbose;
+        int unrelated = -1;
+    }
+
+    record Lists(int[] ids, String[] files) {
+    }
+
+    record Mismatch(String remote, double count, String speed, double ratio) {
+    }
+
+    @Test
+    void binder() throws OptionParseException {
+        CommandOptions remote = CommandOptions.generator(Option.subCommand(Set.of("remote", "r"), "Test Sub Command", "remote"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "c")),
+                        ArgType.INTEGER, false, null, "count"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "fast"),
+                                new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "slow")),
+                        ArgType.NONE, false, null, "speed").toExclusive())
+                .argument(Option.argument(ArgType.DOUBLE, null, "ratio"))
+                .build();
+        ResultBinder<Remote> binder = remote.binder(Remote.class, MethodHandles.lookup());
+        assertEquals(new Remote("r", 3, "fast", 0.5), binder.parse(List.of("r", "-c", "3", "--fast", "0.5")));
+        //指定されなかったオプションは初期値になるか
+        ParsedOptions reuse = remote.newResult();
+        assertEquals(new Remote("remote", 0, "slow", 1.5), binder.parse(List.of("remote", "--slow", "1.5"), reuse));
+        assertEquals(new Remote("remote", 0, "slow", 1.5), binder.bind(reuse));
+
+        CommandOptions plain = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "v")),
+                        ArgType.NONE, false, "Test Flag Option", "verbose"))
+                .build();
+        Flags flags = plain.binder(Flags.class, MethodHandles.lookup()).parse(List.of("-v"));
+        assertTrue(flags.verbose);
+        assertEquals(-1, flags.unrelated);
+
+        //型が異なる場合・対応するオプションが無い場合・別の結果の場合
+        assertThrows(IllegalArgumentException.class, () -> remote.binder(Mismatch.class, MethodHandles.lookup()));
+        assertThrows(IllegalArgumentException.class, () -> plain.binder(Remote.class, MethodHandles.lookup()));
+        assertThrows(IllegalArgumentException.class, () -> binder.bind(plain.newResult()));
+    }
+}
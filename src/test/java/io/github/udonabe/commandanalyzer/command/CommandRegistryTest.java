@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandRegistryTest {
+    static CommandOptions command(Set<String> displays, String managementName) {
+        return CommandOptions.generator(Option.subCommand(displays, "Test Sub Command", managementName))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count")),
+                        ArgType.INTEGER, false, "Test Integer Option", "count"))
+                .build();
+    }
+
+    @Test
+    void dispatch() throws OptionParseException {
+        CommandOptions remote = command(Set.of("remote"), "remote");
+        CommandOptions add = command(Set.of("add"), "remote-add");
+        CommandRegistry.Builder builder = CommandRegistry.builder();
+        for (int i = 0; i < 400; i++) {
+            builder.register(command(Set.of("cmd" + i, "c" + i), "cmd" + i));
+        }
+        CommandRegistry registry = builder
+                .register(remote)
+                .register(List.of("remote"), add)
+                .register(List.of("stash"), command(Set.of("pop"), "stash-pop"))
+                .build();
+
+        assertEquals(3, registry.parse(List.of("cmd123", "--count", "3")).get("count").rInt());
+        assertEquals("c7", registry.parse(List.of("c7")).get("cmd7").rSubCommand());
+
+        //入れ子のサブコマンドは、一致した最も深いCommandOptionsでパースする
+        assertSame(add, registry.find(List.of("remote", "add", "--count", "1")));
+        assertEquals("add", registry.parse("remote add --count 1").get("remote-add").rSubCommand());
+        //子が一致しない場合は、親でパースする
+        assertSame(remote, registry.find(List.of("remote", "--count", "1")));
+        assertEquals(1, registry.parse("remote --count 1").get("count").rInt());
+        assertEquals("pop", registry.parse(List.of("stash", "pop")).get("stash-pop").rSubCommand());
+
+        ParseError error = ((ParseOutcome.Failure) registry.tryParse(List.of("unknown"))).error();
+        assertEquals(ParseError.Code.MISSING_SUBCOMMAND, error.code());
+        assertEquals("unknown", error.input());
+        assertEquals(List.of(), error.suggestions());
+        //一致しなかったサブコマンドには、近い表示名を候補にする
+        error = ((ParseOutcome.Failure) registry.tryParse(List.of("cmd1234", "--count", "3"))).error();
+        assertEquals(List.of("cmd123", "cmd124", "cmd134"), error.suggestions());
+        assertEquals(List.of("remote"), ((ParseOutcome.Failure) registry.tryParse("remot add")).error().suggestions());
+        assertEquals(List.of("stash"), ((ParseOutcome.Failure) registry.tryParse("stsh pop")).error().suggestions());
+        //親だけのサブコマンドは、パースできない
+        assertEquals(ParseError.Code.MISSING_SUBCOMMAND, ((ParseOutcome.Failure) registry.tryParse("stash")).error().code());
+
+        //失敗したトークンの位置は、入力全体の先頭から数える
+        error = ((ParseOutcome.Failure) registry.tryParse("remote add --count x")).error();
+        assertEquals(ParseError.Code.INVALID_ARGUMENT, error.code());
+        assertEquals(3, error.tokenIndex());
+        assertThrows(OptionParseException.class, () -> registry.parse(List.of("remote", "add", "--unknown")));
+    }
+
+    @Test
+    void register_invalid() {
+        CommandRegistry.Builder builder = CommandRegistry.builder().register(command(Set.of("a"), "a"));
+        assertThrows(IllegalArgumentException.class, () -> builder.register(command(Set.of("a", "b"), "b")));
+        assertThrows(IllegalArgumentException.class, () -> builder.register(CommandOptions.generator(null)
+                .argument(Option.argument(ArgType.STRING, "Test Positional Argument", "arg"))
+                .build()));
+        builder.build();
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+}
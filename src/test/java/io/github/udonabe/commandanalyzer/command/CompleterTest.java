@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompleterTest {
+    private static final CommandOptions OPTIONS = CommandOptions.generator(Option.subCommand(Set.of("start", "stop", "status"), "Test Sub Command", "sub"))
+            .option(Option.normalOption(
+                    Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "mode"), new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "m")),
+                    ArgType.STRING, false, "Test String Option", "mode"))
+            .option(Option.normalOption(
+                    Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "verbose")),
+                    ArgType.NONE, false, "Test Flag Option", "verbose"))
+            .option(Option.normalOption(
+                    Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "debug")),
+                    ArgType.BOOLEAN, false, "Test Boolean Option", "debug"))
+            .option(Option.normalOption(
+                    Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "id")),
+                    ArgType.INTEGER_LIST, false, "Test List Option", "id"))
+            .argument(Option.argument(ArgType.STRING, "Test Positional Argument", "arg"))
+            .build();
+
+    @Test
+    void complete() {
+        Completer completer = Completer.builder(OPTIONS).values("mode", List.of("slow", "fast", "safe")).build();
+
+        assertEquals(List.of("start", "status", "stop"), completer.complete(List.of()));
+        assertEquals(List.of("start", "status"), completer.complete(List.of("--", "sta")));
+        assertEquals(List.of("--debug", "--id", "--mode", "--verbose", "-m"), completer.complete(List.of("start", "")));
+        //指定済みのオプションは、リスト型だけ候補に残る
+        assertEquals(List.of("--id", "--mode"), completer.complete(List.of("start", "--verbose", "--debug", "true", "--id", "1", "--")));
+        assertEquals(List.of("--debug", "--id", "--verbose"), completer.complete(List.of("start", "--mode=fast", "--")));
+
+        //引数の値
+        assertEquals(List.of("safe", "slow"), completer.complete(List.of("start", "-m", "s")));
+        assertEquals(List.of("--mode=fast"), completer.complete(List.of("start", "--mode=f")));
+        assertEquals(List.of("false", "true"), completer.complete(List.of("start", "--debug", "")));
+        assertEquals(List.of(), completer.complete(List.of("start", "--id", "")));
+
+        //位置引数の後ろ・「--」の後ろは、オプションとして読まれない
+        assertEquals(List.of(), completer.complete(List.of("start", "target", "--")));
+        assertEquals(List.of(), completer.complete(List.of("start", "--", "--")));
+        assertEquals(List.of(), completer.complete(List.of("start", "t")));
+
+        assertEquals(List.of("-m"), completer.completeLine("app start --verbose\t-m"));
+        assertEquals(List.of("fast", "safe", "slow"), completer.completeLine("app start -m "));
+        assertEquals(List.of(), completer.completeLine("app"));
+    }
+
+    @Test
+    void complete_bundle() {
+        CommandOptions tar = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "x")),
+                        ArgType.NONE, false, "Test Flag Option", "extract"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "v")),
+                        ArgType.NONE, false, "Test Flag Option", "verbose"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "f")),
+                        ArgType.STRING, false, "Test String Option", "file"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "C")),
+                        ArgType.STRING, false, "Test String Option", "directory"))
+                .argument(Option.argument(ArgType.STRING, "Test Positional Argument", "member"))
+                .build();
+        Completer completer = Completer.builder(tar).values("file", List.of("archive.tar")).build();
+
+        //まとめたオプションは全て指定済みになり、最後のオプションの引数は位置引数にならない
+        assertEquals(List.of("-C"), completer.complete(List.of("-xvf", "archive.tar", "-")));
+        assertEquals(List.of("archive.tar"), completer.complete(List.of("-xvf", "")));
+        //トークンの残りが引数の場合
+        assertEquals(List.of("-C", "-v", "-x"), completer.complete(List.of("-farchive.tar", "-")));
+        assertEquals(List.of("-C", "-v"), completer.complete(List.of("-xfarchive.tar", "-")));
+        assertEquals(List.of(), completer.complete(List.of("-xvf", "archive.tar", "member", "-")));
+    }
+
+    @Test
+    void complete_registry() {
+        CommandRegistry.Builder builder = CommandRegistry.builder();
+        for (int i = 0; i < 400; i++) {
+            builder.register(CommandRegistryTest.command(Set.of("cmd" + i), "cmd" + i));
+        }
+        CommandRegistry registry = builder
+                .register(CommandRegistryTest.command(Set.of("remote"), "remote"))
+                .register(List.of("remote"), CommandRegistryTest.command(Set.of("add", "append"), "remote-add"))
+                .register(List.of("stash"), CommandRegistryTest.command(Set.of("pop"), "stash-pop"))
+                .build();
+        Completer completer = Completer.builder(registry).build();
+
+        assertEquals(List.of("cmd12", "cmd120", "cmd121", "cmd122", "cmd123", "cmd124", "cmd125", "cmd126", "cmd127", "cmd128", "cmd129"),
+                completer.complete(List.of("cmd12")));
+        assertEquals(List.of("remote"), completer.complete(List.of("re")));
+        //入れ子のサブコマンドと、親のオプション
+        assertEquals(List.of("add", "append", "--count"), completer.complete(List.of("remote", "")));
+        assertEquals(List.of("--count"), completer.complete(List.of("remote", "append", "--c")));
+        assertEquals(List.of(), completer.complete(List.of("remote", "append", "--count", "")));
+        assertEquals(List.of("pop"), completer.complete(List.of("stash", "")));
+        assertEquals(List.of(), completer.complete(List.of("unknown", "")));
+    }
+
+    @Test
+    void script() {
+        String bash = Completer.bashScript("my-app");
+        assertTrue(bash.contains("my-app __complete \"$line\""));
+        assertTrue(bash.contains("complete -o default -F _my_app_complete my-app"));
+        String zsh = Completer.zshScript("my-app");
+        assertTrue(zsh.startsWith("#compdef my-app\n"));
+        assertTrue(zsh.contains("compdef _my_app_complete my-app"));
+        assertThrows(IllegalArgumentException.class, () -> Completer.bashScript("a; rm -rf /"));
+    }
+}
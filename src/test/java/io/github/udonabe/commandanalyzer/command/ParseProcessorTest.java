@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.command;
+
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseProcessorTest {
+    private static final CommandOptions OPTIONS = CommandOptions.generator(null)
+            .option(Option.normalOption(
+                    Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count")),
+                    ArgType.INTEGER, false, "Test Integer Option", "count"))
+            .build();
+
+    @Test
+    void ordered() throws Exception {
+        //並列にパースしても、入力と同じ順番で渡されるか
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (SubmissionPublisher<CharSequence> source = new SubmissionPublisher<>(executor, 16)) {
+            ParseProcessor<CharSequence> processor = ParseProcessor.builder(OPTIONS).executor(executor).parallelism(4).bufferSize(8).lines();
+            Collector collector = new Collector(Long.MAX_VALUE);
+            source.subscribe(processor);
+            processor.subscribe(collector);
+
+            for (int i = 0; i < 2000; i++) {
+                source.submit(i % 10 == 0 ? "--count x" + i : "--count " + i);
+            }
+            source.close();
+            collector.completed.get(10, TimeUnit.SECONDS);
+
+            assertEquals(2000, collector.outcomes.size());
+            for (int i = 0; i < 2000; i++) {
+                ParseOutcome outcome = collector.outcomes.get(i);
+                if (i % 10 == 0) {
+                    assertEquals("x" + i, ((ParseOutcome.Failure) outcome).error().input());
+                    assertEquals(ParseError.Code.INVALID_ARGUMENT, ((ParseOutcome.Failure) outcome).error().code());
+                } else {
+                    assertEquals(i, outcome.orElseThrow().toMap().get("count").rInt());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void backpressure() {
+        //上流には、下流の要求とバッファの大きさを超えて要求しないか
+        ParseProcessor<List<String>> processor = ParseProcessor.builder(OPTIONS).executor(Runnable::run).parallelism(2).bufferSize(4).tokens();
+        Source source = new Source();
+        Collector collector = new Collector(0);
+        processor.onSubscribe(source);
+        processor.subscribe(collector);
+        assertEquals(0, source.requested.get());
+
+        collector.subscription.request(3);
+        assertEquals(3, source.requested.get());
+        for (int i = 0; i < 3; i++) {
+            processor.onNext(List.of("--count", String.valueOf(i)));
+        }
+        assertEquals(3, collector.outcomes.size());
+
+        collector.subscription.request(100);
+        assertEquals(7, source.requested.get());
+        processor.onNext(List.of("--count", "3"));
+        assertEquals(8, source.requested.get());
+
+        processor.onError(new IllegalStateException("test"));
+        assertEquals(4, collector.outcomes.size());
+        assertInstanceOf(IllegalStateException.class, collector.completed.exceptionNow());
+    }
+
+    @Test
+    void invalidSubscription() {
+        ParseProcessor<List<String>> processor = ParseProcessor.builder(OPTIONS).executor(Runnable::run).tokens();
+        Source source = new Source();
+        Collector first = new Collector(0);
+        processor.onSubscribe(source);
+        processor.subscribe(first);
+
+        //二つ目の購読者は拒否する
+        Collector second = new Collector(1);
+        processor.subscribe(second);
+        assertInstanceOf(IllegalStateException.class, second.completed.exceptionNow());
+
+        //0以下の要求は、上流を取り消してエラーにする
+        first.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, first.completed.exceptionNow());
+        assertTrue(source.cancelled);
+        assertThrows(IllegalArgumentException.class, () -> ParseProcessor.builder(OPTIONS).parallelism(0));
+    }
+
+    private static final class Source implements Flow.Subscription {
+        private final AtomicLong requested = new AtomicLong();
+        private volatile boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested.addAndGet(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class Collector implements Flow.Subscriber<ParseOutcome> {
+        private final long initial;
+        private final List<ParseOutcome> outcomes = new ArrayList<>();
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        private Collector(long initial) {
+            this.initial = initial;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initial > 0) subscription.request(initial);
+        }
+
+        @Override
+        public void onNext(ParseOutcome item) {
+            outcomes.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.complete(null);
+        }
+    }
+}
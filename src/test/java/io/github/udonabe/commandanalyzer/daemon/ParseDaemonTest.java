@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.daemon;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseDaemonTest {
+    private static final CommandOptions OPTIONS = CommandOptions.generator(Option.subCommand(Set.of("run"), "Test Sub Command", "sub"))
+            .option(Option.normalOption(
+                    Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count"), new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "c")),
+                    ArgType.INTEGER, false, "Test Integer Option", "count"))
+            .option(Option.normalOption(
+                    Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "ratio")),
+                    ArgType.DOUBLE, false, "Test Double Option", "ratio"))
+            .option(Option.normalOption(
+                    Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "id")),
+                    ArgType.INTEGER_LIST, false, "Test List Option", "id"))
+            .argument(Option.argument(ArgType.STRING_LIST, "Test Positional Argument", "files"))
+            .build();
+
+    @Test
+    void parse(@TempDir Path dir) throws Exception {
+        //デーモンの結果が、同じプロセスでパースした結果と一致するか
+        Path socket = dir.resolve("parse.sock");
+        try (ParseDaemon daemon = ParseDaemon.builder(socket).schema("test", OPTIONS).start();
+             ParseClient client = ParseClient.connect(socket)) {
+            for (List<String> input : List.<List<String>>of(
+                    List.of("run", "-c", "-3", "--ratio", "0.5", "--id", "1", "--id", "-2", "a", "日本語"),
+                    List.of("run", "a"),
+                    List.of("run", "--id=7", "a"))) {
+                assertEquals(OPTIONS.parse(input), client.parse("test", input).orElseThrow(), input.toString());
+            }
+            assertEquals(OPTIONS.parse("run --count 5 'a b'"), client.parse("test", "run --count 5 'a b'").orElseThrow());
+
+            ParseReply reply = client.parse("test", List.of("run", "--count", "x"));
+            assertFalse(reply.isSuccess());
+            assertEquals(ParseError.Code.INVALID_ARGUMENT, reply.code());
+            assertEquals(2, reply.tokenIndex());
+            assertEquals("x", reply.input());
+            OptionParseException expected = assertThrows(OptionParseException.class, () -> OPTIONS.parse(List.of("run", "--count", "x")));
+            assertEquals(expected.getMessage(), assertThrows(OptionParseException.class, reply::orElseThrow).getMessage());
+            assertEquals(ParseError.Code.UNCLOSED_SINGLE_QUOTE, client.parse("test", "run 'a").code());
+
+            //登録されていないスキーマ名は、接続を閉じずに拒否する
+            assertThrows(IllegalArgumentException.class, () -> client.parse("unknown", List.of("run", "a")));
+            assertTrue(client.parse("test", List.of("run", "a")).isSuccess());
+
+            //不正な要求を送った接続だけを閉じ、例外をスレッドの外に出さない
+            List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+            Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+            Thread.setDefaultUncaughtExceptionHandler((thread, e) -> uncaught.add(e));
+            try {
+                byte[] negative = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+                //長さが負
+                sendRaw(socket, ByteBuffer.allocate(4).putInt(0, -1));
+                //スキーマ名の長さが負
+                sendRaw(socket, ByteBuffer.allocate(10).putInt(5 + 1).put((byte) ParseDaemon.KIND_TOKENS).put(negative).flip());
+                //トークン数が負
+                sendRaw(socket, ByteBuffer.allocate(20).putInt(1 + 5 + 5).put((byte) ParseDaemon.KIND_TOKENS)
+                        .put((byte) 4).put("test".getBytes()).put(negative).flip());
+            } finally {
+                Thread.setDefaultUncaughtExceptionHandler(handler);
+            }
+            assertEquals(List.of(), uncaught);
+            assertTrue(client.parse("test", List.of("run", "a")).isSuccess());
+            assertEquals(socket, daemon.socket());
+        }
+        assertFalse(Files.exists(socket));
+    }
+
+    /**
+     * 不正な要求を送り、デーモンが接続を閉じることを確かめる。
+     */
+    private static void sendRaw(Path socket, ByteBuffer request) throws IOException {
+        try (SocketChannel raw = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            raw.connect(UnixDomainSocketAddress.of(socket));
+            raw.write(request);
+            assertEquals(-1, raw.read(ByteBuffer.allocate(1)));
+        }
+    }
+
+    @Test
+    void close(@TempDir Path dir) throws Exception {
+        Path socket = dir.resolve("parse.sock");
+        ParseDaemon daemon = ParseDaemon.builder(socket).schema("test", OPTIONS).start();
+        ParseClient client = ParseClient.connect(socket);
+        assertTrue(client.parse("test", List.of("run", "a")).isSuccess());
+        //同じパスでは開始できない
+        assertThrows(IOException.class, () -> ParseDaemon.builder(socket).start());
+
+        daemon.close();
+        daemon.join();
+        assertThrows(IOException.class, () -> client.parse("test", List.of("run", "a")));
+        assertThrows(IOException.class, () -> ParseClient.connect(socket));
+        client.close();
+        assertThrows(IllegalArgumentException.class, () -> ParseDaemon.builder(socket).schema("a", OPTIONS).schema("a", OPTIONS));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.metrics;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseMetricsTest {
+    @Test
+    void collect() throws OptionParseException {
+        ParseMetrics metrics = new ParseMetrics();
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count")),
+                        ArgType.INTEGER, false, "Test Integer Option", "count"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "v")),
+                        ArgType.NONE, false, "Test Flag Option", "verbose"))
+                .argument(Option.argument(ArgType.STRING, "Test Argument", "target"))
+                .listener(metrics)
+                .build();
+
+        options.parse(List.of("--count", "3", "-v", "target"));
+        options.parse("--count=4 target");
+        options.tryParse(List.of("--count", "x"));
+        options.tryParse(List.of("--unknown"));
+        options.tryParse("'unclosed");
+
+        assertEquals(5, metrics.parseCount());
+        assertEquals(3, metrics.failureCount());
+        assertEquals(1, metrics.failureCount(ParseError.Code.INVALID_ARGUMENT));
+        assertEquals(1, metrics.failureCount(ParseError.Code.UNKNOWN_OPTION));
+        assertEquals(1, metrics.failureCount(ParseError.Code.UNCLOSED_SINGLE_QUOTE));
+        assertEquals(2, metrics.matchCount("count"));
+        assertEquals(1, metrics.matchCount("verbose"));
+        assertEquals(2, metrics.matchCount("target"));
+        assertEquals(5, metrics.conversionCount());
+        assertEquals(1, metrics.conversionFailureCount());
+        //引数のトークンは、オプションと一緒に読むため数えない
+        assertEquals(5, metrics.modeCount(ParseListener.Mode.NORMAL_OPTION));
+        assertEquals(2, metrics.modeCount(ParseListener.Mode.POSITIONAL_ARGUMENT));
+        assertEquals(2, metrics.latency().count());
+        assertEquals(3, metrics.failureLatency().count());
+
+        metrics.reset();
+        assertEquals(0, metrics.parseCount());
+        assertTrue(metrics.matchCounts().isEmpty());
+    }
+
+    @Test
+    void histogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtPercentile(50));
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(500_500, histogram.mean(), 1e-9);
+        //区間の誤差は1/8以下
+        assertEquals(500_000, histogram.valueAtPercentile(50), 500_000 / 8.0);
+        assertEquals(990_000, histogram.valueAtPercentile(99), 990_000 / 8.0);
+        assertEquals(1_000_000, histogram.valueAtPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(101));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.option;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberParserTest {
+    private static final List<String> INTEGERS = List.of(
+            "0", "1", "-1", "+1", "007", "-0", "2147483647", "-2147483648", "2147483648", "-2147483649",
+            "9223372036854775807", "-9223372036854775808", "9223372036854775808", "99999999999999999999",
+            "", "-", "+", "1a", "a1", " 1", "1 ", "1.0", "--1", "+-1", "１２３");
+    private static final List<String> DOUBLES = List.of(
+            "0", "-0", "0.0", "1", "-1", "+1.5", "1.", ".5", "-.5", ".", "1e10", "1E-10", "1e+3", "1e", "e1",
+            "1.5f", "2.5D", "1.5x", "NaN", "-Infinity", "+Infinity", "Infinity1", "nan", " 3.14 ", "",
+            "0x1.8p1", "0X.8P-1", "0x1p", "0x1", "0x.p1", "1e400", "1e-400", "4.9e-324", "1.7976931348623157e308",
+            "123456789012345678901234567890", "0.000000000000000000000000000001", "9007199254740993",
+            "0.1", "0.30000000000000004", "1.00000000000000000000000000000001", "1,5", "１.５", "1e99999999999");
+
+    @Test
+    void testParseInt() {
+        NumberParser parser = new NumberParser();
+        for (String s : INTEGERS) {
+            Integer expected;
+            try {
+                expected = Integer.parseInt(s);
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+            assertEquals(expected != null, parser.parseInt(s), s);
+            if (expected != null) assertEquals(expected, parser.intValue(), s);
+        }
+        assertFalse(parser.parseInt(null));
+    }
+
+    @Test
+    void testParseLong() {
+        NumberParser parser = new NumberParser();
+        for (String s : INTEGERS) {
+            Long expected;
+            try {
+                expected = Long.parseLong(s);
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+            assertEquals(expected != null, parser.parseLong(s), s);
+            if (expected != null) assertEquals(expected, parser.longValue(), s);
+        }
+    }
+
+    @Test
+    void testParseDouble() {
+        NumberParser parser = new NumberParser();
+        for (String s : DOUBLES) {
+            assertDoubleEquals(parser, s);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            assertDoubleEquals(parser, Double.toString(Double.longBitsToDouble(random.nextLong())));
+            assertDoubleEquals(parser, Double.toString(random.nextDouble() * 1000));
+            assertDoubleEquals(parser, random.nextInt(100_000) + "." + random.nextInt(1000));
+        }
+    }
+
+    private static void assertDoubleEquals(NumberParser parser, String s) {
+        Double expected;
+        try {
+            expected = Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            expected = null;
+        }
+        assertEquals(expected != null, parser.parseDouble(s), s);
+        if (expected != null) assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(parser.doubleValue()), s);
+    }
+
+    @Test
+    void testParseRegion() {
+        NumberParser parser = new NumberParser();
+        assertTrue(parser.parseInt("--count=42", 8, 10));
+        assertEquals(42, parser.intValue());
+        assertTrue(parser.parseDouble("x=-2.5;", 2, 6));
+        assertEquals(-2.5, parser.doubleValue());
+        assertFalse(parser.parseInt("--count=", 8, 8));
+    }
+
+    @Test
+    void testArgType() throws OptionParseException {
+        assertEquals(42, ArgType.INTEGER.parse("42").rInt());
+        assertEquals(0.5, ArgType.DOUBLE.parse(".5").rDouble());
+        OptionParseException e = assertThrows(OptionParseException.class, () -> ArgType.INTEGER.parse("4x"));
+        assertEquals("引数が不足しているか、型が異なります。期待型: INTEGER", e.getMessage());
+        assertThrows(OptionParseException.class, () -> ArgType.DOUBLE.parse(null));
+    }
+}
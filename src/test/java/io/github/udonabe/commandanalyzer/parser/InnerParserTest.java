@@ -8,13 +8,22 @@
 
 package io.github.udonabe.commandanalyzer.parser;
 import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
 import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.command.ParseOutcome;
 import io.github.udonabe.commandanalyzer.option.ArgType;
 import io.github.udonabe.commandanalyzer.option.Option;
 import io.github.udonabe.commandanalyzer.option.OptionDisplay;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -188,4 +197,291 @@ public class InnerParserTest {
         assertTrue(res.get("example").rBoolean());
         assertEquals("--TEST", res.get("test-pos-arg").rString());
     }
+
+    @Test
+    void testNormalOption_manyOptions() throws OptionParseException {
+        //オプションが多い場合でも、表示名から正しく引けるか
+        CommandOptions.Generator generator = CommandOptions.generator(null);
+        for (int i = 0; i < 200; i++) {
+            generator.option(Option.normalOption(
+                    Set.of(
+                            new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "o" + i),
+                            new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "option" + i)
+                    ),
+                    ArgType.INTEGER,
+                    false,
+                    "Test Integer Option " + i,
+                    "option" + i
+            ));
+        }
+        CommandOptions options = generator.build();
+
+        var res = options.parse(List.of("-o3", "3", "--option150", "150", "--option199", "199"));
+        assertEquals(3, res.get("option3").rInt());
+        assertEquals(150, res.get("option150").rInt());
+        assertEquals(199, res.get("option199").rInt());
+        assertFalse(res.get("option0").present());
+        assertEquals(200, res.size());
+
+        //同じオプションを二回指定した場合
+        assertThrows(OptionParseException.class, () -> {
+            options.parse(List.of("-o3", "3", "--option3", "4"));
+        });
+    }
+
+    @Test
+    void testNormalOption_unknown_suggestions() {
+        CommandOptions.Generator generator = CommandOptions.generator(Option.subCommand(Set.of("status", "stash"), "Test Sub Command", "mode"));
+        for (int i = 0; i < 200; i++) {
+            generator.option(Option.normalOption(
+                    Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "option" + i)),
+                    ArgType.NONE,
+                    false,
+                    "Test Boolean Option " + i,
+                    "option" + i
+            ));
+        }
+        CommandOptions options = generator.build();
+
+        //近い表示名が、近い順に候補として付くか
+        OptionParseException e = assertThrows(OptionParseException.class, () -> options.parse(List.of("status", "--option5x")));
+        assertEquals(List.of("--option5", "--option50", "--option51"), e.getError().suggestions());
+        assertEquals("不明なオプション:--option5x もしかして: --option5, --option50, --option51", e.getMessage());
+        e = assertThrows(OptionParseException.class, () -> options.parse(List.of("status", "--optoin15")));
+        assertEquals(List.of("--option15"), e.getError().suggestions());
+        e = assertThrows(OptionParseException.class, () -> options.parse(List.of("statis")));
+        assertEquals(List.of("status"), e.getError().suggestions());
+        e = assertThrows(OptionParseException.class, () -> options.parse(List.of("status", "--completely-different")));
+        assertEquals(List.of(), e.getError().suggestions());
+        //どの表示名よりも十分に長い入力は、候補を探さない
+        String huge = "--" + "a".repeat(10000);
+        ParseError error = ((ParseOutcome.Failure) options.tryParse(List.of("status", huge))).error();
+        assertEquals(ParseError.Code.UNKNOWN_OPTION, error.code());
+        assertEquals(List.of(), error.suggestions());
+
+        //索引の検索結果が、全ての表示名と比較した場合と一致するか
+        SuggestionIndex index = new SuggestionIndex(options.getNormalOptions().stream()
+                .flatMap(o -> o.getFullDisplays().stream()).toList());
+        java.util.Random random = new java.util.Random(1);
+        int[] previous = new int[64];
+        int[] current = new int[64];
+        for (int n = 0; n < 1000; n++) {
+            StringBuilder input = new StringBuilder("--option" + random.nextInt(250));
+            for (int edits = random.nextInt(3); edits > 0; edits--) {
+                int at = random.nextInt(input.length());
+                switch (random.nextInt(3)) {
+                    case 0 -> input.deleteCharAt(at);
+                    case 1 -> input.insert(at, (char) ('a' + random.nextInt(26)));
+                    default -> input.setCharAt(at, (char) ('0' + random.nextInt(10)));
+                }
+            }
+            String s = input.toString();
+            int max = SuggestionIndex.maxDistance(s.length());
+            List<String> expected = options.getNormalOptions().stream()
+                    .flatMap(o -> o.getFullDisplays().stream())
+                    .filter(d -> SuggestionIndex.distance(s, d, previous, current) <= max)
+                    .sorted(java.util.Comparator.<String>comparingInt(d -> SuggestionIndex.distance(s, d, previous, current))
+                            .thenComparing(java.util.Comparator.naturalOrder()))
+                    .limit(SuggestionIndex.MAX_SUGGESTIONS)
+                    .toList();
+            assertEquals(expected, index.suggest(s), s);
+        }
+    }
+
+    @Test
+    void testNormalOption_bundle() throws OptionParseException {
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "x")),
+                        ArgType.NONE, false, "Test Extract Option", "extract"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "v")),
+                        ArgType.NONE, false, "Test Verbose Option", "verbose"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "f"),
+                                new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "file")),
+                        ArgType.STRING, false, "Test File Option", "file"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "n")),
+                        ArgType.INTEGER, false, "Test Integer Option", "count"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "あ"),
+                                new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "vv")),
+                        ArgType.NONE, false, "Test Wide Option", "wide"))
+                .build();
+
+        //最後のオプションは、次のトークンを引数にする
+        var res = options.parse(List.of("-xvf", "archive.tar"));
+        assertTrue(res.get("extract").rBoolean());
+        assertTrue(res.get("verbose").rBoolean());
+        assertEquals("archive.tar", res.get("file").rString());
+        assertFalse(res.get("count").present());
+
+        //トークンの残りを引数にする
+        res = options.parse("-xn42 -farchive.tar");
+        assertEquals(42, res.get("count").rInt());
+        assertEquals("archive.tar", res.get("file").rString());
+
+        //表に収まらない文字や、二文字の表示名も引けるか
+        assertTrue(options.parse(List.of("-xあ")).get("wide").rBoolean());
+        assertTrue(options.parse(List.of("-vv")).get("wide").rBoolean());
+
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("-xq")));
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("-xx")));
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("-xf")));
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("-nx")));
+    }
+
+    @Test
+    void testNormalOption_attached() throws OptionParseException {
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "name"),
+                                new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "N")),
+                        ArgType.STRING, false, "Test String Option", "name"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SLASH_OPTION, "count")),
+                        ArgType.INTEGER, false, "Test Integer Option", "count"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "quiet")),
+                        ArgType.NONE, false, "Test Flag Option", "quiet"))
+                .build();
+
+        var res = options.parse(List.of("--name=a=b", "/count=3"));
+        //最初の「=」で区切るか
+        assertEquals("a=b", res.get("name").rString());
+        assertEquals(3, res.get("count").rInt());
+        assertEquals("", options.parse(List.of("--name=")).get("name").rString());
+        //ショートオプションに続けて指定した引数
+        assertEquals("value", options.parse("-Nvalue").get("name").rString());
+        assertEquals("value", options.parse("-N=value").get("name").rString());
+        //「=」より前が表示名に一致しない場合は、ショートオプションの引数として扱う
+        assertEquals("key=value", options.parse("-Nkey=value").get("name").rString());
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("-Xkey=value")));
+
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("/count=x")));
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("--quiet=true")));
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("--unknown=1")));
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("--name=a", "--name", "b")));
+    }
+
+    @Test
+    void testNormalOption_list() throws OptionParseException {
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "id"),
+                                new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "i")),
+                        ArgType.INTEGER_LIST, false, "Test Integer List Option", "ids"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "I")),
+                        ArgType.STRING_LIST, false, "Test String List Option", "includes"))
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "port")),
+                        ArgType.INTEGER, false, "Test Integer Option", "port"))
+                .argument(Option.argument(ArgType.STRING, "Test Argument", "target"))
+                .argument(Option.argument(ArgType.DOUBLE_LIST, "Test Double List Argument", "ratios"))
+                .build();
+
+        //何度でも指定でき、指定した順に並ぶか
+        var res = options.parse(List.of("-I", "a", "--id", "1", "-i2", "--id=3", "-I", "b", "target", "0.5", "1.5", "2"));
+        assertArrayEquals(new int[]{1, 2, 3}, res.get("ids").rInts());
+        assertArrayEquals(new String[]{"a", "b"}, res.get("includes").rStrings());
+        assertEquals("target", res.get("target").rString());
+        //最後の位置引数は、残りを全て受け取るか
+        assertArrayEquals(new double[]{0.5, 1.5, 2}, res.get("ratios").rDoubles());
+
+        //バッファが広がっても、値が失われないか
+        List<String> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            many.add("-i");
+            many.add(String.valueOf(i));
+        }
+        many.add("target");
+        many.add("1");
+        int[] ids = options.parse(many).get("ids").rInts();
+        assertEquals(1000, ids.length);
+        assertEquals(999, ids[999]);
+        assertFalse(options.parse(List.of("target", "1")).get("ids").present());
+
+        //リスト型でないオプションは、繰り返せないか
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("--port", "1", "--port", "2", "target", "1")));
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("-i", "x", "target", "1")));
+        assertThrows(OptionParseException.class, () -> options.parse(List.of("target")));
+    }
+
+    @Test
+    void testParse_allocation() throws OptionParseException {
+        //同じParseContextを使い回した場合、パース中にメモリをほとんど確保しないか
+        Option flag = Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.SHORT_OPTION, "e")),
+                ArgType.NONE, false, "Test Flag Option", "flag");
+        Option port = Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "port")),
+                ArgType.INTEGER, true, "Test Integer Option", "port");
+        Option name = Option.normalOption(
+                Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "name")),
+                ArgType.STRING, false, "Test String Option", "name");
+        Option target = Option.argument(ArgType.STRING, "Test Positional Argument", "target");
+        ParseContext context = new ParseContext(ParsePlan.compile(null, List.of(flag, port, name, target), List.of(target)));
+        List<String> args = List.of("-e", "--port", "8080", "--name", "test", "target");
+        //「=」でつないだ引数も、切り出さずに記録するか
+        List<String> attached = List.of("-e", "--port=8080", "--name=test", "target");
+
+        for (int i = 0; i < 20_000; i++) {
+            InnerParser.parse(context, args);
+            InnerParser.parse(context, attached);
+        }
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int iterations = 100_000;
+        long before = bean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            InnerParser.parse(context, args);
+            InnerParser.parse(context, attached);
+        }
+        long perParse = (bean.getCurrentThreadAllocatedBytes() - before) / (iterations * 2L);
+        assertTrue(perParse < 16, "1回のパースで確保したバイト数: " + perParse);
+
+        var res = context.toResultMap();
+        assertTrue(res.get("flag").rBoolean());
+        assertEquals(8080, res.get("port").rInt());
+        assertEquals("test", res.get("name").rString());
+        assertEquals("target", res.get("target").rString());
+    }
+
+    @Test
+    void testParse_flightRecorder(@TempDir Path dir) throws IOException {
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "count")),
+                        ArgType.INTEGER, false, "Test Integer Option", "count"))
+                .build();
+
+        Path file = dir.resolve("parse.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.udonabe.commandanalyzer.Parse").withoutThreshold();
+            recording.enable("io.github.udonabe.commandanalyzer.ParseError");
+            recording.start();
+            assertTrue(options.tryParse(List.of("--count", "1")).isSuccess());
+            assertFalse(options.tryParse("--count x").isSuccess());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> parses = events.stream()
+                .filter(e -> e.getEventType().getName().equals("io.github.udonabe.commandanalyzer.Parse"))
+                .toList();
+        assertEquals(2, parses.size());
+        assertEquals("SUCCESS", parses.get(0).getString("outcome"));
+        assertEquals(2, parses.get(0).getInt("tokenCount"));
+        assertEquals("INVALID_ARGUMENT", parses.get(1).getString("outcome"));
+        assertTrue(parses.get(0).getString("schemaId").startsWith("#"));
+
+        RecordedEvent error = events.stream()
+                .filter(e -> e.getEventType().getName().equals("io.github.udonabe.commandanalyzer.ParseError"))
+                .findFirst().orElseThrow();
+        assertEquals("INVALID_ARGUMENT", error.getString("code"));
+        assertEquals(1, error.getInt("tokenIndex"));
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2025 Command-Analyzer Contributors.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ *
+ */
+
+package io.github.udonabe.commandanalyzer.reader;
+
+import io.github.udonabe.commandanalyzer.OptionParseException;
+import io.github.udonabe.commandanalyzer.ParseError;
+import io.github.udonabe.commandanalyzer.ParseResult;
+import io.github.udonabe.commandanalyzer.command.CommandOptions;
+import io.github.udonabe.commandanalyzer.option.ArgType;
+import io.github.udonabe.commandanalyzer.option.Option;
+import io.github.udonabe.commandanalyzer.option.OptionDisplay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandLogReaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testNextTokens_quote() throws IOException, OptionParseException {
+        Path log = dir.resolve("history.log");
+        Files.writeString(log, """
+                echo "hello world" 'single  quoted' escaped\\ space
+                
+                \t  "ダブル\\"クォート" 日本語\r
+                empty "" end""", StandardCharsets.UTF_8);
+
+        try (CommandLogReader reader = CommandLogReader.open(log)) {
+            assertEquals(List.of("echo", "hello world", "single  quoted", "escaped space"), reader.nextTokens());
+            assertEquals(1, reader.lineNumber());
+            //空行は読み飛ばされるか
+            assertEquals(List.of("ダブル\"クォート", "日本語"), reader.nextTokens());
+            assertEquals(3, reader.lineNumber());
+            assertEquals(List.of("empty", "", "end"), reader.nextTokens());
+            assertNull(reader.nextTokens());
+        }
+    }
+
+    @Test
+    void testNextTokens_unclosedQuote() throws IOException, OptionParseException {
+        Path log = dir.resolve("history.log");
+        Files.writeString(log, "echo 'unclosed\necho closed\n", StandardCharsets.UTF_8);
+
+        try (CommandLogReader reader = CommandLogReader.open(log)) {
+            assertThrows(OptionParseException.class, reader::nextTokens);
+            //エラーの次の行から読めるか
+            assertEquals(List.of("echo", "closed"), reader.nextTokens());
+        }
+    }
+
+    @Test
+    void testNextTokens_sameAsLine() throws IOException, OptionParseException {
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "name")),
+                        ArgType.STRING, true, "Test String Option", "name"))
+                .build();
+        String line = "--name \"a \\\"b\\\" \\$c\"'d  e'\\ f日本語";
+        Path log = dir.resolve("history.log");
+        Files.writeString(log, line, StandardCharsets.UTF_8);
+
+        //ログの読み込みと一行のパースで、同じ規則で分割されるか
+        try (CommandLogReader reader = CommandLogReader.open(log)) {
+            assertEquals(options.parse(line).get("name").rString(), options.parse(reader.nextTokens()).get("name").rString());
+        }
+        assertEquals("a \"b\" $cd  e f日本語", options.parse(line).get("name").rString());
+    }
+
+    @Test
+    void testParseAll_line() throws IOException {
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "name")),
+                        ArgType.STRING, true, "Test String Option", "name"))
+                .build();
+        Path log = dir.resolve("history.log");
+        Files.writeString(log, """
+                --name plain
+                \t
+                --name "日本 語"
+                --name 'unclosed
+                --name=a\\ b\r
+                """, StandardCharsets.UTF_8);
+
+        //ASCIIの行・復号した行のどちらも、一行のパースと同じ結果になるか
+        List<String> names = new ArrayList<>();
+        List<ParseError.Code> failures = new ArrayList<>();
+        try (CommandLogReader reader = CommandLogReader.open(log)) {
+            reader.parseAll(options, new CommandLogReader.Handler() {
+                @Override
+                public void success(long lineNumber, Map<String, ParseResult> result) {
+                    names.add(lineNumber + ":" + result.get("name").rString());
+                }
+
+                @Override
+                public void failure(long lineNumber, OptionParseException failure) {
+                    failures.add(failure.getError().code());
+                }
+            });
+        }
+        assertEquals(List.of("1:plain", "3:日本 語", "5:a b"), names);
+        assertEquals(List.of(ParseError.Code.UNCLOSED_SINGLE_QUOTE), failures);
+    }
+
+    @Test
+    void testParseAll_smallWindow() throws IOException {
+        CommandOptions options = CommandOptions.generator(null)
+                .option(Option.normalOption(
+                        Set.of(new OptionDisplay(OptionDisplay.PrefixKind.LONG_OPTION, "port")),
+                        ArgType.INTEGER, true, "Test Integer Option", "port"))
+                .build();
+        Path log = dir.resolve("audit.log");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            sb.append(i % 100 == 0 ? "--port invalid" : "--port " + i).append('\n');
+        }
+        Files.writeString(log, sb, StandardCharsets.UTF_8);
+
+        //行が窓をまたぐよう、窓を小さくする
+        List<Long> failures = new ArrayList<>();
+        long[] sum = new long[1];
+        try (CommandLogReader reader = new CommandLogReader(FileChannel.open(log, StandardOpenOption.READ), 20)) {
+            reader.parseAll(options, new CommandLogReader.Handler() {
+                @Override
+                public void success(long lineNumber, Map<String, ParseResult> result) {
+                    assertEquals(lineNumber, result.get("port").rInt());
+                    sum[0] += lineNumber;
+                }
+
+                @Override
+                public void failure(long lineNumber, OptionParseException failure) {
+                    failures.add(lineNumber);
+                }
+            });
+        }
+        assertEquals(List.of(100L, 200L, 300L, 400L, 500L, 600L, 700L, 800L, 900L, 1000L), failures);
+        assertEquals(500_500L - 5_500L, sum[0]);
+
+        //一行が窓より長い場合
+        try (CommandLogReader reader = new CommandLogReader(FileChannel.open(log, StandardOpenOption.READ), 4)) {
+            assertThrows(IOException.class, reader::nextTokens);
+        }
+    }
+}